@@ -1,8 +1,12 @@
 import Constants.ActiveController;
+import Constants.PersistenceMode;
+import Constants.SyncPolicy;
 import Controllers.*;
 import Entities.Product;
 import Graphics.Text.RegularText;
 import Models.*;
+import Models.Storage.PersistenceQueue;
+import Models.Storage.StorageCompactor;
 import Services.VariantService;
 import Utilities.LogService;
 import Utilities.Styler;
@@ -14,6 +18,8 @@ import java.awt.*;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.List;
 
 public class App {
     private static JFrame window;
@@ -28,6 +34,11 @@ public class App {
     private static final ProductModel productModel = new ProductModel(variantService);
     private static final TransactionModel transactionModel = new TransactionModel(variantService);
     private static final Model locationModel = new RestaurantModel();
+    private static final StorageCompactor compactor = new StorageCompactor();
+    private static final PersistenceQueue persistenceQueue = new PersistenceQueue("persistence-writer");
+    private static final FlushScheduler flushScheduler = new FlushScheduler();
+    private static final ModelSnapshot snapshot = new ModelSnapshot(Paths.get("src/main/resources/Models.snapshot"));
+    private static final List<EntityModel<?>> snapshotModels = List.of(variantModel, variantOptionModel, productModel);
     private static final JPanel MAIN_PANEL = new JPanel(new CardLayout());
 
     public static void main(String[] args) throws Exception {
@@ -58,18 +69,56 @@ public class App {
 
     private static void initializeControllers() {
         variantService.init(productModel, variantModel, variantOptionModel);
-        variantModel.loadEntities();
-        variantOptionModel.loadEntities();
-        productModel.loadEntities();
+        initializePersistence();
+        if (!snapshot.restore(snapshotModels)) {
+            variantModel.loadEntities();
+            variantOptionModel.loadEntities();
+            productModel.loadEntities();
+        }
+        transactionModel.setLazyLoading(true);
+        transactionModel.loadRecentDays(1);
 
         DailyStatsModel statsModel = new DailyStatsModel();
         productController = new ProductController(productModel, variantModel, MAIN_PANEL);
         homeController = new HomeController(productModel, statsModel, MAIN_PANEL);
         locationController = new LocationController(locationModel, MAIN_PANEL);
-        posController = new PointOfSalesController(productModel, productModel, MAIN_PANEL); // TODO important! replace second arg
+        posController = new PointOfSalesController(productModel, transactionModel, MAIN_PANEL);
         navController = new NavbarController();
     }
 
+    /**
+     * Switches the variant models to journaled persistence so a write no longer rewrites the whole CSV file.
+     * The journals are folded back into the CSV files when the application shuts down; variants are edited rarely,
+     * so their writes are forced to disk every time. The models written by a checkout persist their writes through
+     * a shared queue instead, so the event dispatch thread never waits for the disk; recorded checks are forced to
+     * disk once a second. Deletes made straight to storage leave tombstones, which the shared compactor clears in
+     * the background. Products and variants edited without being saved are flushed by the scheduler, and once more
+     * on shutdown before the queue is drained. Once everything is on disk, the variant and product models are
+     * written to a snapshot, which the next start loads them from as long as none of their files changed.
+     */
+    private static void initializePersistence() {
+        List<EntityModel<?>> models = List.of(variantModel, variantOptionModel, productModel, transactionModel);
+        variantModel.setPersistenceMode(PersistenceMode.JOURNALED);
+        variantOptionModel.setPersistenceMode(PersistenceMode.JOURNALED);
+        variantModel.setSyncPolicy(SyncPolicy.ALWAYS);
+        variantOptionModel.setSyncPolicy(SyncPolicy.ALWAYS);
+        productModel.setPersistenceQueue(persistenceQueue);
+        productModel.setPersistenceMode(PersistenceMode.ASYNC);
+        transactionModel.setPersistenceQueue(persistenceQueue);
+        transactionModel.setPersistenceMode(PersistenceMode.ASYNC);
+        transactionModel.setSyncPolicy(SyncPolicy.BATCHED);
+        models.forEach(model -> model.setCompactor(compactor));
+        locationModel.setCompactor(compactor);
+        flushScheduler.register(variantModel, variantOptionModel, productModel);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            flushScheduler.close();
+            persistenceQueue.close();
+            compactor.close();
+            models.forEach(EntityModel::checkpoint);
+            snapshot.write(snapshotModels);
+        }));
+    }
+
     private static void initializeWindow() {
         window = new JFrame("Toastry");
         window.setVisible(true);
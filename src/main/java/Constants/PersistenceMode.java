@@ -0,0 +1,16 @@
+package Constants;
+
+/**
+ * Defines how an {@code EntityModel} persists its changes to the database.
+ * <ul>
+ *  <li>REWRITE   - every write rewrites the model's CSV file.</li>
+ *  <li>JOURNALED - every write is appended to the model's journal; the CSV file is only rewritten on a checkpoint.</li>
+ *  <li>ASYNC     - every write is handed to a {@code PersistenceQueue} and persisted by its writer thread; the
+ *                  model's entities are updated right away.</li>
+ * </ul>
+ */
+public enum PersistenceMode {
+    REWRITE,
+    JOURNALED,
+    ASYNC
+}
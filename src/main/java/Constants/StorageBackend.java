@@ -0,0 +1,15 @@
+package Constants;
+
+/**
+ * Defines which {@code StorageEngine} a model keeps its records in.
+ * <ul>
+ *  <li>CSV    - one comma-separated line per record in the model's text file; the default.</li>
+ *  <li>BINARY - length-prefixed records appended to a binary record file next to the model's text file.</li>
+ *  <li>MEMORY - records are only held in memory and are lost when the program exits.</li>
+ * </ul>
+ */
+public enum StorageBackend {
+    CSV,
+    BINARY,
+    MEMORY
+}
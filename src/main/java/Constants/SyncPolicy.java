@@ -0,0 +1,15 @@
+package Constants;
+
+/**
+ * Defines when a journaled {@code EntityModel} forces its journal to disk.
+ * <ul>
+ *  <li>ALWAYS     - every append is forced before it returns; nothing acknowledged is lost on a power failure.</li>
+ *  <li>BATCHED    - appends are forced together once per interval; a power failure loses at most one interval.</li>
+ *  <li>OS_DEFAULT - appends are left to the operating system to write back; the fastest, and the default.</li>
+ * </ul>
+ */
+public enum SyncPolicy {
+    ALWAYS,
+    BATCHED,
+    OS_DEFAULT
+}
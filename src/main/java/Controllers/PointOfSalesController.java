@@ -1,6 +1,8 @@
 package Controllers;
 
 import Constants.ActiveController;
+import Constants.LogLevel;
+import Constants.TransactionOutcome;
 import Entities.Check;
 import Interfaces.ControllerInterface;
 import Models.EntityModel;
@@ -37,10 +39,20 @@ public class PointOfSalesController implements ControllerInterface {
         cl.show(contentPane, ActiveController.HOME.toString());
     }
 
+    /**
+     * Checks out the table's order. Runs on the event dispatch thread, so the check is only processed in memory
+     * here; it is persisted in the background. Once processed, the table starts a new check.
+     */
     public void checkoutOrder() {
         System.out.println("[ DEBUG ] POS Controller: user has triggered a checkout on a order.");
         Check check = this.creationView.getTableCheck();
-//        this.transactionService.processTransaction(new Check(products, 1));
+        this.transactionService.checkout(check).whenComplete((ignored, ex) -> {
+            if (ex != null)
+                System.out.println(LogLevel.WARNING + "POS Controller: check " + check.getID() +
+                        " could not be persisted.\n" + ex);
+        });
+        if (check.getStage() == TransactionOutcome.COMPLETED_SUCCESSFULLY)
+            this.creationView.clearCheck();
     }
 
     @Override
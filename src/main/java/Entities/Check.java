@@ -3,28 +3,40 @@ package Entities;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.function.Function;
 
 import Constants.TransactionOutcome;
+import Utilities.Money;
 
 /**
  * Represents a single transaction for a customer.
+ *
+ * A check loaded from history may be a stub holding only its ID, purchase date and raw record; the rest of it is
+ * deserialized the first time it is read or changed. See {@link #deferLoading(Function)}.
  */
 public class Check extends Entity {
+    private static final SerializationSchema<Check> SCHEMA = SerializationSchema.<Check>builder()
+            .text(Check::getPurchaseDateISO)
+            .integer(Check::getNumberServed)
+            .cents(Check::getSubtotalCents)
+            .cents(Check::getTotalCents)
+            .cents(Check::getCOGSCents)
+            .custom(Check::appendPurchases)
+            .build();
+
     private HashSet<CheckLineItem> checkLineItems = new HashSet<>();
     private Date purchaseDate = new Date();
     private int customersServed;
 
     private TransactionOutcome stage = TransactionOutcome.CREATED;
-    private double subtotal;
-    private double total;
-    private double COGS;
+    private CheckPricing pricing = new CheckPricing();
+    private volatile Function<String, Check> loader;
 
     /**
      * Builds a new transaction through the application.
      */
     public Check() {
         super();
-        setSerializationChain();
     }
 
     /**
@@ -33,7 +45,6 @@ public class Check extends Entity {
      */
     public Check(final String id) {
         super(id);
-        setSerializationChain();
     }
 
     /* ___________________________________________
@@ -45,9 +56,14 @@ public class Check extends Entity {
      * @return HashMap<Product, Integer>
      */
     public final HashSet<CheckLineItem> getPurchases() {
+        materialize();
         return this.checkLineItems;
     }
 
+    public final Date getPurchaseDate() {
+        return this.purchaseDate;
+    }
+
     public final String getPurchaseDateISO() {
         return this.purchaseDate.toInstant().toString();
     }
@@ -57,6 +73,7 @@ public class Check extends Entity {
      * @return int
      */
     public final int getNumberServed() {
+        materialize();
         return this.customersServed;
     }
     
@@ -69,7 +86,12 @@ public class Check extends Entity {
     }
 
     public double getSubtotal() {
-        return subtotal;
+        return Money.toDollars(getSubtotalCents());
+    }
+
+    public long getSubtotalCents() {
+        materialize();
+        return this.pricing.getSubtotalCents();
     }
 
     /**
@@ -79,28 +101,34 @@ public class Check extends Entity {
      */
     public String serializePurchases() {
         StringBuilder result = new StringBuilder();
+        appendPurchases(result);
+        return result.toString();
+    }
 
-        if (!this.checkLineItems.isEmpty()) {
-            int i = 0;
-            for (CheckLineItem entry : this.checkLineItems) {
-                result
-                        .append(entry.getProduct().getID())
-                        .append("=")
-                        .append(entry.getQuantity())
-                        .append((++i != this.checkLineItems.size() ? "|" : ""));
-            }
+    private void appendPurchases(final StringBuilder result) {
+        materialize();
+        result.append('[');
+        int i = 0;
+        for (CheckLineItem entry : this.checkLineItems) {
+            if (i++ > 0)
+                result.append('|');
+            result.append(entry.getProduct().getID()).append('=').append(entry.getQuantity());
         }
-
-        result.insert(0, "[").append("]");
-        return result.toString(); // Remove the last pipe character
+        result.append(']');
     }
 
     /* ___________________________________________
                         SETTERS
     ___________________________________________ */
 
+    /**
+     * Replaces the line items, repricing the check from all of them.
+     * @param products {@code Set<CheckLineItem>}
+     */
     public void setProductsPurchased(Set<CheckLineItem> products) {
+        materialize();
         this.checkLineItems = (HashSet<CheckLineItem>) products;
+        this.pricing.reprice(products);
     }
 
     /**
@@ -108,7 +136,16 @@ public class Check extends Entity {
      * @param cogs {@code double}
      */
     public void setCOGS(double cogs) {
-        this.COGS = cogs;
+        setCOGSCents(Money.ofDollars(cogs));
+    }
+
+    /**
+     * Called during load ops on program startup.
+     * @param cogsCents {@code long}
+     */
+    public void setCOGSCents(long cogsCents) {
+        materialize();
+        this.pricing.setCOGSCents(cogsCents);
     }
 
     /**
@@ -116,7 +153,16 @@ public class Check extends Entity {
      * @param total {@code double}
      */
     public void setTotal(double total) {
-        this.total = total;
+        setTotalCents(Money.ofDollars(total));
+    }
+
+    /**
+     * Called during load ops on program startup.
+     * @param totalCents {@code long}
+     */
+    public void setTotalCents(long totalCents) {
+        materialize();
+        this.pricing.setTotalCents(totalCents);
     }
 
     /**
@@ -124,7 +170,16 @@ public class Check extends Entity {
      * @param subtotal {@code double}
      */
     public void setSubtotal(double subtotal) {
-        this.subtotal = subtotal;
+        setSubtotalCents(Money.ofDollars(subtotal));
+    }
+
+    /**
+     * Called during load ops on program startup.
+     * @param subtotalCents {@code long}
+     */
+    public void setSubtotalCents(long subtotalCents) {
+        materialize();
+        this.pricing.setSubtotalCents(subtotalCents);
     }
 
     /**
@@ -134,6 +189,7 @@ public class Check extends Entity {
      * @param numOfCustomers {@code int}
      */
     public void setCustomersServed(int numOfCustomers) {
+        materialize();
         this.customersServed = numOfCustomers;
     }
 
@@ -149,24 +205,68 @@ public class Check extends Entity {
 
     /**
      * Adds a new entry into the {@code HashMap<Product, Int>} collection. Accepts a single product
-     * with its purchased quantity.
+     * with its purchased quantity, and adds its prices to the totals.
      */
     public void addLineItem(final CheckLineItem checkLineItem) {
-        this.checkLineItems.add(checkLineItem);
+        materialize();
+        if (this.checkLineItems.add(checkLineItem))
+            this.pricing.add(checkLineItem);
     }
 
     /**
-     * Functions to call in order to safely modify the text file database.
+     * Removes a line item from this check and takes its prices off the totals.
+     * @param checkLineItem {@code CheckLineItem}
+     * @return {@code boolean} false if the line item was not on this check.
+     */
+    public boolean removeLineItem(final CheckLineItem checkLineItem) {
+        materialize();
+        if (!this.checkLineItems.remove(checkLineItem))
+            return false;
+        this.pricing.remove(checkLineItem);
+        return true;
+    }
+
+    /**
+     * Changes the quantity of a line item on this check, adding the difference to the totals. A quantity of zero
+     * or less removes the line item.
+     * @param checkLineItem {@code CheckLineItem}
+     * @param quantity {@code int} new quantity.
+     * @return {@code boolean} false if the line item was not on this check.
+     */
+    public boolean setLineItemQuantity(final CheckLineItem checkLineItem, final int quantity) {
+        materialize();
+        if (!this.checkLineItems.contains(checkLineItem))
+            return false;
+        if (quantity <= 0)
+            return removeLineItem(checkLineItem);
+        this.pricing.changeQuantity(checkLineItem, checkLineItem.getQuantity(), quantity);
+        checkLineItem.setQuantity(quantity);
+        return true;
+    }
+
+    /**
+     * Changes the variant chosen for a line item on this check, taking the old surcharge off the totals and adding
+     * the new one.
+     * @param checkLineItem {@code CheckLineItem}
+     * @param variantSelected {@code ProductVariantSelected} new variant combination.
+     * @return {@code boolean} false if the line item was not on this check.
+     */
+    public boolean setLineItemVariant(final CheckLineItem checkLineItem, final ProductVariantSelected variantSelected) {
+        materialize();
+        if (!this.checkLineItems.contains(checkLineItem))
+            return false;
+        this.pricing.remove(checkLineItem);
+        checkLineItem.setVariant(variantSelected);
+        this.pricing.add(checkLineItem);
+        return true;
+    }
+
+    /**
+     * Fields persisted to the text file database.
      */
     @Override
-    protected void setSerializationChain() {
-        this.serializationChain.add(super::getID);
-        this.serializationChain.add(this::getPurchaseDateISO);
-        this.serializationChain.add(this::getNumberServed);
-        this.serializationChain.add(this::getSubtotal);
-        this.serializationChain.add(this::getTotal);
-        this.serializationChain.add(this::getCOGS);
-        this.serializationChain.add(this::serializePurchases);
+    public SerializationSchema<Check> getSerializationSchema() {
+        return SCHEMA;
     }
 
     /**
@@ -182,10 +282,67 @@ public class Check extends Entity {
     }
 
     public double getTotal() {
-        return total;
+        return Money.toDollars(getTotalCents());
+    }
+
+    public long getTotalCents() {
+        materialize();
+        return this.pricing.getTotalCents();
     }
 
     public double getCOGS() {
-        return COGS;
+        return Money.toDollars(getCOGSCents());
+    }
+
+    public long getCOGSCents() {
+        materialize();
+        return this.pricing.getCOGSCents();
+    }
+
+    /**
+     * Returns the amounts shown at the foot of the check. The totals are kept up to date as line items change, so
+     * this does not walk the line items.
+     * @return {@code PriceBreakdown}
+     */
+    public CheckPricing.PriceBreakdown priceBreakdown() {
+        materialize();
+        return this.pricing.breakdown();
+    }
+
+    /**
+     * Turns this check into a stub whose fields, other than its ID and purchase date, are loaded on first access.
+     * The loader is handed the raw record kept in {@code originalData} and returns the fully deserialized check,
+     * whose fields are then copied onto this one.
+     * @param loader {@code Function<String, Check>} deserializes the raw record.
+     */
+    public void deferLoading(final Function<String, Check> loader) {
+        this.loader = loader;
+    }
+
+    /**
+     * Returns whether every field of this check has been loaded.
+     * @return {@code boolean} false while this check is a stub.
+     */
+    public boolean isLoaded() {
+        return this.loader == null;
+    }
+
+    /**
+     * Loads the fields of a stub check. The loader is only cleared once the fields are copied, so another thread
+     * never sees a half-loaded check.
+     */
+    private void materialize() {
+        if (this.loader == null)
+            return;
+        synchronized (this) {
+            Function<String, Check> pending = this.loader;
+            if (pending == null)
+                return;
+            Check loaded = pending.apply(getOriginalData());
+            this.checkLineItems = loaded.checkLineItems;
+            this.customersServed = loaded.customersServed;
+            this.pricing = loaded.pricing;
+            this.loader = null;
+        }
     }
 }
\ No newline at end of file
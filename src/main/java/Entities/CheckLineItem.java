@@ -10,11 +10,34 @@ package Entities;
 public class CheckLineItem extends Entity {
     private final Product product;
     private ProductVariantSelected variantSelected;
-    private int quantity;
+    private int quantity = 1;
+    private final long unitPriceCents;
+    private long unitSurchargeCents;
+    private final long unitCostCents;
 
+    /**
+     * Builds a line item for one of the product. Its prices are taken from the product and the variant chosen as
+     * they are now; later changes to the menu do not reprice it.
+     * @param product {@code Product} purchased.
+     * @param variantSelected {@code ProductVariantSelected} variant combination chosen.
+     */
     public CheckLineItem(final Product product, ProductVariantSelected variantSelected) {
         this.product = product;
         this.variantSelected = variantSelected;
+        this.unitPriceCents = product == null ? 0 : product.getPriceCents();
+        this.unitCostCents = product == null ? 0 : product.getCostCents();
+        this.unitSurchargeCents = surchargeOf(variantSelected);
+    }
+
+    /**
+     * Loads in a line item based on existing data from the database.
+     * @param product {@code Product} purchased.
+     * @param variantSelected {@code ProductVariantSelected} variant combination chosen.
+     * @param quantity {@code int} quantity purchased.
+     */
+    public CheckLineItem(final Product product, ProductVariantSelected variantSelected, final int quantity) {
+        this(product, variantSelected);
+        this.quantity = quantity;
     }
 
     public Product getProduct() {
@@ -25,9 +48,30 @@ public class CheckLineItem extends Entity {
         return this.variantSelected;
     }
 
-    public void setVariant(ProductVariantSelected variantOption) {
-        this.variantSelected = variantOption;
+    /**
+     * Changed through {@code Check.setLineItemVariant}, which keeps the check's totals in step. The surcharge is
+     * taken from the variant as it is now.
+     */
+    void setVariant(final ProductVariantSelected variantSelected) {
+        this.variantSelected = variantSelected;
+        this.unitSurchargeCents = surchargeOf(variantSelected);
     }
 
     public int getQuantity() { return this.quantity; }
+
+    /**
+     * Changed through {@code Check.setLineItemQuantity}, which keeps the check's totals in step.
+     */
+    void setQuantity(final int quantity) { this.quantity = quantity; }
+
+    public long getUnitPriceCents() { return this.unitPriceCents; }
+
+    public long getUnitSurchargeCents() { return this.unitSurchargeCents; }
+
+    public long getUnitCostCents() { return this.unitCostCents; }
+
+    private static long surchargeOf(final ProductVariantSelected variantSelected) {
+        return variantSelected == null || variantSelected.getVariant() == null ?
+                0 : variantSelected.getVariant().getVariantCostCents();
+    }
 }
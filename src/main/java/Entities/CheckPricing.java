@@ -0,0 +1,113 @@
+package Entities;
+
+import Utilities.Money;
+
+import java.util.Collection;
+
+/**
+ * <h2>Running totals of a check, kept up to date as its line items change.</h2>
+ *
+ * <p>
+ * Adding, removing or changing the quantity or variant of a line item adds its difference to the totals, so an
+ * edit costs the same on a two-item check as on a party tab of a hundred; nothing walks the line items, their
+ * products or their variants. Line items remember the prices they were ordered at, so removing one takes back
+ * exactly what adding it put in, even if the menu changed meanwhile.
+ * </p>
+ *
+ * <p>
+ * The subtotal holds the base price of every item, the total adds the variant surcharges on top, and the cost of
+ * goods sold holds what the items cost to make. Surcharges are the difference between the two, so only the three
+ * persisted amounts are kept. Checks loaded from history keep the totals they were saved with.
+ * </p>
+ */
+public final class CheckPricing {
+    private long subtotalCents;
+    private long totalCents;
+    private long COGSCents;
+    private int itemCount;
+
+    /**
+     * Amounts shown at the foot of a check, all in cents.
+     * @param subtotalCents {@code long} base prices of the items.
+     * @param surchargeCents {@code long} variant surcharges of the items.
+     * @param totalCents {@code long} amount due.
+     * @param COGSCents {@code long} cost of the items.
+     * @param itemCount {@code int} number of items, counting quantities.
+     */
+    public record PriceBreakdown(long subtotalCents, long surchargeCents, long totalCents, long COGSCents,
+                                 int itemCount) {
+        public double subtotal() {
+            return Money.toDollars(this.subtotalCents);
+        }
+
+        public double surcharges() {
+            return Money.toDollars(this.surchargeCents);
+        }
+
+        public double total() {
+            return Money.toDollars(this.totalCents);
+        }
+    }
+
+    CheckPricing() {}
+
+    void add(final CheckLineItem lineItem) {
+        apply(lineItem, lineItem.getQuantity());
+    }
+
+    void remove(final CheckLineItem lineItem) {
+        apply(lineItem, -lineItem.getQuantity());
+    }
+
+    void changeQuantity(final CheckLineItem lineItem, final int oldQuantity, final int newQuantity) {
+        apply(lineItem, newQuantity - oldQuantity);
+    }
+
+    /**
+     * Recomputes the totals from every line item; used when the line items are replaced as a whole.
+     */
+    void reprice(final Collection<CheckLineItem> lineItems) {
+        this.subtotalCents = 0;
+        this.totalCents = 0;
+        this.COGSCents = 0;
+        this.itemCount = 0;
+        if (lineItems != null)
+            lineItems.forEach(this::add);
+    }
+
+    PriceBreakdown breakdown() {
+        return new PriceBreakdown(this.subtotalCents, this.totalCents - this.subtotalCents, this.totalCents,
+                this.COGSCents, this.itemCount);
+    }
+
+    private void apply(final CheckLineItem lineItem, final int quantity) {
+        this.subtotalCents += lineItem.getUnitPriceCents() * quantity;
+        this.totalCents += (lineItem.getUnitPriceCents() + lineItem.getUnitSurchargeCents()) * quantity;
+        this.COGSCents += lineItem.getUnitCostCents() * quantity;
+        this.itemCount += quantity;
+    }
+
+    long getSubtotalCents() {
+        return this.subtotalCents;
+    }
+
+    long getTotalCents() {
+        return this.totalCents;
+    }
+
+    long getCOGSCents() {
+        return this.COGSCents;
+    }
+
+    void setSubtotalCents(final long subtotalCents) {
+        this.subtotalCents = subtotalCents;
+    }
+
+    void setTotalCents(final long totalCents) {
+        this.totalCents = totalCents;
+    }
+
+    void setCOGSCents(final long COGSCents) {
+        this.COGSCents = COGSCents;
+    }
+}
@@ -1,30 +1,23 @@
 package Entities;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.function.Supplier;
-import java.util.stream.Collectors;
-
 import Services.IDGenerator;
 
 /**
  * Standard template for entities in the database. All entities have a
  * final string ID. By default, a new UID will be generated but can be
- * supplied with an existing ID. Two list collections hold the necessary
- * sequence for loading and saving whatever entity subclass inherits entity.
- * 
- * Use the following code to add a new function in the save sequence:
- * super.CSV_SAVE_ORDER.add(this::FUNCTION_NAME);
- * 
- * CSV_SAVE_ORDER is a {@code List<Supplier<Object>>} containing operations to save data.
- * CSV_LOAD_ORDER is a {@code List<Consumer<Object>>} containing operations to load data.
+ * supplied with an existing ID.
+ *
+ * Each entity type declares the fields it persists once, as a static {@code SerializationSchema}, and returns it
+ * from {@link #getSerializationSchema()}:
+ * private static final SerializationSchema&lt;Product&gt; SCHEMA = SerializationSchema.&lt;Product&gt;builder()
+ *         .text(Product::getProductName).cents(Product::getPriceCents).build();
  */
 public class Entity implements Interfaces.Entity {
-    protected final List<Supplier<Object>> serializationChain = new ArrayList<>();
+    private static final SerializationSchema<Entity> SCHEMA = SerializationSchema.<Entity>builder().build();
     private final String ID;
     private String originalData;
     private String entityName;
-    protected boolean hasChanged = false;
+    protected volatile boolean hasChanged = false;
     private boolean isActive = false;
 
 
@@ -33,7 +26,6 @@ public class Entity implements Interfaces.Entity {
      */
     public Entity(final String ID) {
         this.ID = ID;
-        this.serializationChain.add(this::getID);
     }
 
     /**
@@ -67,14 +59,13 @@ public class Entity implements Interfaces.Entity {
 
 
     /**
-     * Returns a string to be used in a CSV file. Calls the entity's persist order chain
-     * and joins each result with a comma to arrive at a final string returned.
+     * Returns a string to be used in a CSV file. Writes each field of the entity's serialization schema, in order,
+     * separated by commas.
      * @return {@code String} CSV line
      */
+    @SuppressWarnings("unchecked")
     public final String serialize() {
-        return this.getSerializationChain()
-                .stream().map(fun -> fun.get().toString())
-                .collect(Collectors.joining(","));
+        return ((SerializationSchema<Entity>) this.getSerializationSchema()).serialize(this);
     }
 
 
@@ -106,24 +97,23 @@ public class Entity implements Interfaces.Entity {
     public void resetChangedState() {
         this.hasChanged = false;
     }
-    
 
     /**
-     * Ordered list of functions to call to safely modify the text file database.
-     * By default, this will include a single operation to persist the UID,
-     * though entities inheriting from this class will enhance this array.
-     * @return List<Supplier<Object>>
+     * Flags this entity as modified; used when a write of its changes did not go through.
      */
-    public List<Supplier<Object>> getSerializationChain() {
-        return this.serializationChain;
+    public void markChanged() {
+        this.hasChanged = true;
     }
-
+    
 
     /**
-     * Functions to call in order to safely modify the text file database. Entities inheriting from this class
-     * will define the chain of method calls to make in order to form the CSV data line.
+     * Fields persisted to the text file database, in order. Entities inheriting from this class return the schema
+     * shared by every instance of their type.
      *
-     * By default, just contains a singular method: get entity's ID.
+     * By default, just contains a singular field: the entity's ID.
+     * @return {@code SerializationSchema}
      */
-    protected void setSerializationChain() {}
+    public SerializationSchema<? extends Entity> getSerializationSchema() {
+        return SCHEMA;
+    }
 }
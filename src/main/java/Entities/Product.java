@@ -1,5 +1,7 @@
 package Entities;
 
+import Utilities.Money;
+
 import java.util.ArrayList;
 import java.util.List;
 
@@ -8,18 +10,23 @@ import java.util.List;
  * An entity for a single product. Defines variables and methods for a product.
  */
 public class Product extends Entity {
+    private static final SerializationSchema<Product> SCHEMA = SerializationSchema.<Product>builder()
+            .text(Product::getProductName)
+            .cents(Product::getPriceCents)
+            .cents(Product::getCostCents)
+            .integer(Product::getTotalSales)
+            .text(Product::categoryName)
+            .custom(Product::appendVariants)
+            .build();
+
     private String name;
-    private Double price; // Current price listed
-    private double cost; // Current cost to make
+    private long priceCents; // Current price listed
+    private long costCents; // Current cost to make
     private ProductCategory category; // Assigned category
     private final ArrayList<ProductVariant> variants = new ArrayList<>();
 
-    // @TODO move this to a `History` data class
     // See https://toastry.atlassian.net/browse/TOAST-13 for the story
-    private int totalSales = 0;
-    private double totalExpenses = 0.0;
-    private double totalGrossSales = 0.0;
-    private int dailySales = 0;
+    private final ProductStats stats = new ProductStats();
 
     /**
      * Builds a new product listing through the application.
@@ -31,11 +38,9 @@ public class Product extends Entity {
     public Product(String name, double cost, double price, ProductCategory category) {
         super();
         this.name = name;
-        this.cost = cost;
-        this.price = price;
+        this.costCents = Money.ofDollars(cost);
+        this.priceCents = Money.ofDollars(price);
         this.category = category;
-
-        setSerializationChain();
     }
 
     /**
@@ -44,21 +49,14 @@ public class Product extends Entity {
      */
     public Product(final String id) {
         super(id);
-        setSerializationChain();
     }
 
     /**
-     * Functions to call in order to safely modify the text file database.
+     * Fields persisted to the text file database.
      */
     @Override
-    protected void setSerializationChain() {
-        this.serializationChain.add(super::getID);
-        this.serializationChain.add(this::getProductName);
-        this.serializationChain.add(this::getPrice);
-        this.serializationChain.add(this::getCost);
-        this.serializationChain.add(this::getTotalSales);
-        this.serializationChain.add(this::categoryName);
-        this.serializationChain.add(this::serializeVariants);
+    public SerializationSchema<Product> getSerializationSchema() {
+        return SCHEMA;
     }
 
     /**
@@ -79,7 +77,15 @@ public class Product extends Entity {
      * @return double price
      */
     public double getPrice() {
-        return this.price;
+        return Money.toDollars(this.priceCents);
+    }
+
+    /**
+     * Returns price for this product in cents.
+     * @return long price
+     */
+    public long getPriceCents() {
+        return this.priceCents;
     }
 
     /**
@@ -88,7 +94,15 @@ public class Product extends Entity {
      * @return double cost
      */
     public double getCost() {
-        return this.cost;
+        return Money.toDollars(this.costCents);
+    }
+
+    /**
+     * Returns cost to make this product in cents.
+     * @return long cost
+     */
+    public long getCostCents() {
+        return this.costCents;
     }
 
     /**
@@ -105,7 +119,7 @@ public class Product extends Entity {
      * @return int
      */
     public int getTotalSales() {
-        return this.totalSales;
+        return (int) this.stats.getTotalSales();
     }
 
     /**
@@ -114,23 +128,54 @@ public class Product extends Entity {
      * @return double
      */
     public double getTotalProfit() {
-        return (this.price * this.totalSales) - (this.cost * this.totalSales);
+        return Money.toDollars((this.priceCents - this.costCents) * this.stats.getTotalSales());
     }
 
     /**
-     * Retrieves total revenue for this product's lifespan.
+     * Retrieves total revenue for this product's lifespan. Read {@code getStats().snapshot()} instead when the
+     * expenses are needed along with it.
      * @return double
      */
     public double getTotalRevenue() {
-        return this.totalGrossSales;
+        return Money.toDollars(this.stats.getRevenueCents());
     }
 
     /**
-     * Retrieves total expenses for this product's lifespan.
+     * Retrieves total expenses for this product's lifespan. Read {@code getStats().snapshot()} instead when the
+     * revenue is needed along with it.
      * @return double
      */
     public double getTotalExpenses() {
-        return this.totalExpenses;
+        return Money.toDollars(this.stats.getExpensesCents());
+    }
+
+    /**
+     * Returns this product's running sales totals. Read them through {@code snapshot()} when several totals are
+     * needed together.
+     * @return {@code ProductStats}
+     */
+    public ProductStats getStats() {
+        return this.stats;
+    }
+
+    /**
+     * Adds a number of sales, negative to revert them, at the product's current cost and price. Safe to call from
+     * several checkouts at once.
+     * @param quantity {@code int} units sold.
+     */
+    public void recordSale(final int quantity) {
+        this.stats.recordSale(quantity, this.costCents, this.priceCents);
+    }
+
+    /**
+     * Adds sales made at the prices captured when they were rung up, negative to revert them. Safe to call from
+     * several checkouts at once.
+     * @param quantity {@code long} units sold.
+     * @param costCents {@code long} cost of the units sold, in cents.
+     * @param priceCents {@code long} price of the units sold, in cents.
+     */
+    public void recordSales(final long quantity, final long costCents, final long priceCents) {
+        this.stats.recordSales(quantity, costCents, priceCents);
     }
 
     /**
@@ -138,7 +183,7 @@ public class Product extends Entity {
      * @param totalSales total sales
      */
     public void loadTotalSales(final int totalSales) {
-        this.totalSales = totalSales;
+        this.stats.setTotalSales(totalSales);
     }
 
     public List<ProductVariant> getVariants() {
@@ -150,20 +195,18 @@ public class Product extends Entity {
     }
 
     /**
-     * Converts the purchase items and quantities into a single string representation
+     * Appends the IDs of this product's variants as a single bracketed, pipe-separated list
      * to be used in the database.
-     * @return {@code String} resulting serialization
+     * @param result {@code StringBuilder} receiving the serialization.
      */
-    private String serializeVariants() {
-        StringBuilder result = new StringBuilder();
-        int i = 0;
-
-        for (ProductVariant entry : this.variants) {
-            result.append(entry.getID()).append((++i != this.variants.size() ? "|" : ""));
+    private void appendVariants(final StringBuilder result) {
+        result.append('[');
+        for (int i = 0; i < this.variants.size(); i++) {
+            if (i > 0)
+                result.append('|');
+            result.append(this.variants.get(i).getID());
         }
-
-        result.insert(0, "[").append("]");
-        return result.toString();
+        result.append(']');
     }
 
     /**
@@ -181,7 +224,15 @@ public class Product extends Entity {
      * @param cost double
      */
     public void setCost(double cost) {
-        this.cost = cost;
+        setCostCents(Money.ofDollars(cost));
+    }
+
+    /**
+     * Assigns a cost in cents to this product.
+     * @param costCents long
+     */
+    public void setCostCents(long costCents) {
+        this.costCents = costCents;
         this.hasChanged = true;
     }
 
@@ -191,7 +242,15 @@ public class Product extends Entity {
      * @param price double
      */
     public void setPrice(double price) {
-        this.price = price;
+        setPriceCents(Money.ofDollars(price));
+    }
+
+    /**
+     * Assigns the price in cents of this product.
+     * @param priceCents long
+     */
+    public void setPriceCents(long priceCents) {
+        this.priceCents = priceCents;
         this.hasChanged = true;
     }
 
@@ -229,14 +288,14 @@ public class Product extends Entity {
     }
 
     public void setTotalSales(int totalSales) {
-        this.totalSales = totalSales;
+        this.stats.setTotalSales(totalSales);
     }
 
     public void setTotalExpenses(double totalExpenses) {
-        this.totalExpenses = totalExpenses;
+        this.stats.setTotalExpenses(totalExpenses);
     }
 
     public void setTotalRevenue(double totalGrossSales) {
-        this.totalGrossSales = totalGrossSales;
+        this.stats.setTotalRevenue(totalGrossSales);
     }
 }
\ No newline at end of file
@@ -0,0 +1,210 @@
+package Entities;
+
+import Utilities.Money;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * <h2>Running sales totals of a product, safe to update from many checkouts at once.</h2>
+ *
+ * <p>
+ * Each total is a {@code LongAdder}, so terminals selling the same product add to it without losing updates and
+ * without contending on a single field. Money is held in cents, so totals are exact however many sales are added.
+ * </p>
+ *
+ * <p>
+ * Separate adders cannot be read in one step, so a {@link #snapshot()} brackets its reads with two counters of the
+ * sales started and finished: it is consistent when no sale was under way or began while it read. A snapshot that
+ * keeps overlapping sales closes a gate, lets the sales already under way finish and then reads; new sales wait
+ * for the gate to reopen, which takes as long as a few reads. A sale counts itself as started before it looks at
+ * the gate, so one that finds the gate open is always seen by a snapshot that closed it; one that finds it closed
+ * counts itself as finished without adding anything and waits. A single total is always consistent on its own, so
+ * its getter reads it without a snapshot.
+ * </p>
+ *
+ * <p>
+ * The setters replace a total, such as when a product is loaded, and {@link #replaceTotals(long, long, long)}
+ * replaces all of them together. Each closes the gate and waits for the sales under way to finish, so a sale is
+ * either replaced along with the old totals or added to the new ones, never lost halfway.
+ * </p>
+ */
+public final class ProductStats {
+    private static final int OPTIMISTIC_ATTEMPTS = 16;
+
+    private final LongAdder totalSales = new LongAdder();
+    private final LongAdder expensesCents = new LongAdder();
+    private final LongAdder revenueCents = new LongAdder();
+    private final LongAdder started = new LongAdder();
+    private final LongAdder finished = new LongAdder();
+    private final StampedLock gate = new StampedLock();
+
+    /**
+     * Totals of a product read at a single point in time.
+     * @param totalSales {@code long} units sold.
+     * @param expensesCents {@code long} cost of the units sold, in cents.
+     * @param revenueCents {@code long} price of the units sold, in cents.
+     */
+    public record Snapshot(long totalSales, long expensesCents, long revenueCents) {
+        public double totalExpenses() {
+            return Money.toDollars(this.expensesCents);
+        }
+
+        public double totalRevenue() {
+            return Money.toDollars(this.revenueCents);
+        }
+
+        public double totalProfit() {
+            return Money.toDollars(this.revenueCents - this.expensesCents);
+        }
+    }
+
+    /**
+     * Adds a number of sales, negative to revert them, along with their cost and price.
+     * @param quantity {@code int} units sold.
+     * @param unitCostCents {@code long} cost of one unit, in cents.
+     * @param unitPriceCents {@code long} price of one unit, in cents.
+     */
+    public void recordSale(final int quantity, final long unitCostCents, final long unitPriceCents) {
+        add(quantity, unitCostCents * quantity, unitPriceCents * quantity);
+    }
+
+    /**
+     * Adds sales whose cost and price are already totalled, such as the line items of several checks folded
+     * together; negative to revert them.
+     * @param quantity {@code long} units sold.
+     * @param costCents {@code long} cost of the units sold, in cents.
+     * @param priceCents {@code long} price of the units sold, in cents.
+     */
+    public void recordSales(final long quantity, final long costCents, final long priceCents) {
+        add(quantity, costCents, priceCents);
+    }
+
+    /**
+     * Adds to each total.
+     */
+    private void add(final long sales, final long expenses, final long revenue) {
+        this.started.increment();
+        while (this.gate.isWriteLocked()) {
+            this.finished.increment();
+            long stamp = this.gate.readLock();
+            this.gate.unlockRead(stamp);
+            this.started.increment();
+        }
+        try {
+            this.totalSales.add(sales);
+            this.expensesCents.add(expenses);
+            this.revenueCents.add(revenue);
+        } finally {
+            this.finished.increment();
+        }
+    }
+
+    /**
+     * Reads every total at a single point in time.
+     * @return {@code Snapshot}
+     */
+    public Snapshot snapshot() {
+        for (int i = 0; i < OPTIMISTIC_ATTEMPTS; i++) {
+            Snapshot snapshot = tryRead();
+            if (snapshot != null)
+                return snapshot;
+            Thread.onSpinWait();
+        }
+
+        long stamp = this.gate.writeLock();
+        try {
+            awaitSales();
+            return read();
+        } finally {
+            this.gate.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Waits for the sales under way to finish; called with the gate closed, so no new sale adds to the totals
+     * meanwhile. Finished is read before started: both only grow, so once they match no sale was under way.
+     */
+    private void awaitSales() {
+        while (this.finished.sum() != this.started.sum())
+            Thread.onSpinWait();
+    }
+
+    /**
+     * Reads the totals; null if a sale was under way or began meanwhile. The counters only grow, so if as many
+     * sales had started after the read as had finished before it, none overlapped it.
+     */
+    private Snapshot tryRead() {
+        long before = this.finished.sum();
+        Snapshot snapshot = read();
+        return this.started.sum() == before ? snapshot : null;
+    }
+
+    private Snapshot read() {
+        return new Snapshot(this.totalSales.sum(), this.expensesCents.sum(), this.revenueCents.sum());
+    }
+
+    public long getTotalSales() {
+        return this.totalSales.sum();
+    }
+
+    public long getExpensesCents() {
+        return this.expensesCents.sum();
+    }
+
+    public long getRevenueCents() {
+        return this.revenueCents.sum();
+    }
+
+    /**
+     * Replaces the units sold, such as when loaded from the database.
+     * @param totalSales {@code long}
+     */
+    public void setTotalSales(final long totalSales) {
+        replace(this.totalSales, totalSales);
+    }
+
+    /**
+     * Replaces the cost of the units sold.
+     * @param totalExpenses {@code double} in dollars.
+     */
+    public void setTotalExpenses(final double totalExpenses) {
+        replace(this.expensesCents, Money.ofDollars(totalExpenses));
+    }
+
+    /**
+     * Replaces the price of the units sold.
+     * @param totalRevenue {@code double} in dollars.
+     */
+    public void setTotalRevenue(final double totalRevenue) {
+        replace(this.revenueCents, Money.ofDollars(totalRevenue));
+    }
+
+    /**
+     * Replaces every total at once, so no snapshot sees some of them replaced and others not.
+     * @param totalSales {@code long} units sold.
+     * @param expensesCents {@code long} cost of the units sold, in cents.
+     * @param revenueCents {@code long} price of the units sold, in cents.
+     */
+    public void replaceTotals(final long totalSales, final long expensesCents, final long revenueCents) {
+        long stamp = this.gate.writeLock();
+        try {
+            awaitSales();
+            this.totalSales.add(totalSales - this.totalSales.sum());
+            this.expensesCents.add(expensesCents - this.expensesCents.sum());
+            this.revenueCents.add(revenueCents - this.revenueCents.sum());
+        } finally {
+            this.gate.unlockWrite(stamp);
+        }
+    }
+
+    private void replace(final LongAdder total, final long value) {
+        long stamp = this.gate.writeLock();
+        try {
+            awaitSales();
+            total.add(value - total.sum());
+        } finally {
+            this.gate.unlockWrite(stamp);
+        }
+    }
+}
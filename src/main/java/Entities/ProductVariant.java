@@ -2,6 +2,7 @@ package Entities;
 
 import Constants.LogLevel;
 import Services.IDGenerator;
+import Utilities.Money;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -14,8 +15,15 @@ import java.util.List;
  * the ID of the option so that we can check with the model when we are serializing and deserializing objects.
  */
 public class ProductVariant extends Entity {
+    private static final SerializationSchema<ProductVariant> SCHEMA = SerializationSchema.<ProductVariant>builder()
+            .text(ProductVariant::getVariantName)
+            .cents(ProductVariant::getVariantCostCents)
+            .bool(ProductVariant::isSelectionRequired)
+            .text(ProductVariant::getSelectionType)
+            .build();
+
     private String variantName;
-    private double variantCost;
+    private long variantCostCents;
     private boolean selectionRequired;
     private String selectionType;
     private List<ProductVariantOption> selectionOptions = new ArrayList<>();
@@ -26,7 +34,6 @@ public class ProductVariant extends Entity {
      */
     public ProductVariant(String ID) {
         super(ID);
-        setSerializationChain();
     }
 
     /**
@@ -41,24 +48,18 @@ public class ProductVariant extends Entity {
                           String selectionType, List<ProductVariantOption> selectionOptions) {
         super(IDGenerator.generateGUID());
         this.variantName = variantName;
-        this.variantCost = variantCost;
+        this.variantCostCents = Money.ofDollars(variantCost);
         this.selectionRequired = selectionRequired;
         this.selectionType = selectionType;
         this.selectionOptions = selectionOptions;
-        setSerializationChain();
     }
 
     /**
-     * Functions to call in order to safely modify the text file database.
+     * Fields persisted to the text file database.
      */
     @Override
-    protected void setSerializationChain() {
-//        this.serializationChain.add(super::getID);
-        this.serializationChain.add(this::getVariantName);
-        this.serializationChain.add(this::getVariantCost);
-        this.serializationChain.add(this::isSelectionRequired);
-        this.serializationChain.add(this::getSelectionType);
-//        this.serializationChain.add(this::serializeOptions);
+    public SerializationSchema<ProductVariant> getSerializationSchema() {
+        return SCHEMA;
     }
 
     public String getVariantName() {
@@ -72,11 +73,20 @@ public class ProductVariant extends Entity {
     }
 
     public double getVariantCost() {
-        return variantCost;
+        return Money.toDollars(variantCostCents);
+    }
+
+    public long getVariantCostCents() {
+        return variantCostCents;
     }
 
     public void setVariantCost(double variantCost) {
-        this.variantCost = variantCost;
+        setVariantCostCents(Money.ofDollars(variantCost));
+    }
+
+    public void setVariantCostCents(long variantCostCents) {
+        this.variantCostCents = variantCostCents;
+        this.hasChanged = true;
     }
 
     public boolean isSelectionRequired() {
@@ -85,6 +95,7 @@ public class ProductVariant extends Entity {
 
     public void setSelectionRequired(boolean selectionRequired) {
         this.selectionRequired = selectionRequired;
+        this.hasChanged = true;
     }
 
     public String getSelectionType() {
@@ -93,6 +104,7 @@ public class ProductVariant extends Entity {
 
     public void setSelectionType(String selectionType) {
         this.selectionType = selectionType;
+        this.hasChanged = true;
     }
 
     public List<ProductVariantOption> getSelectionOptions() {
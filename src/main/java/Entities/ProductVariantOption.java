@@ -8,6 +8,12 @@ package Entities;
  * @TODO add in option pricing, https://toastry.atlassian.net/browse/TOAST-73
  */
 public class ProductVariantOption extends Entity {
+    private static final SerializationSchema<ProductVariantOption> SCHEMA =
+            SerializationSchema.<ProductVariantOption>builder()
+                    .text(option -> option.getVariant().getID())
+                    .text(ProductVariantOption::getOptionName)
+                    .build();
+
     private ProductVariant variant; // Acts as a foreign key to the variant
     private String optionName;
 
@@ -15,19 +21,16 @@ public class ProductVariantOption extends Entity {
         super();
         this.variant = variant;
         this.optionName = optionName;
-        setSerializationChain();
     }
 
-    public ProductVariantOption(final String ID) { super(ID); setSerializationChain(); }
+    public ProductVariantOption(final String ID) { super(ID); }
 
     /**
-     * Functions to call in order to safely modify the text file database.
+     * Fields persisted to the text file database.
      */
     @Override
-    protected void setSerializationChain() {
-        this.serializationChain.add(super::getID);
-        this.serializationChain.add(() -> variant.getID());
-        this.serializationChain.add(this::getOptionName);
+    public SerializationSchema<ProductVariantOption> getSerializationSchema() {
+        return SCHEMA;
     }
 
     public ProductVariant getVariant() { return this.variant; }
@@ -40,5 +43,6 @@ public class ProductVariantOption extends Entity {
 
     public void setOptionName(final String optionName) {
         this.optionName = optionName;
+        this.hasChanged = true;
     }
 }
@@ -5,6 +5,12 @@ package Entities;
  * An entity for a single restaurant. Defines variables and methods for a restaurant.
  */
 public class Restaurant extends Entity{
+    private static final SerializationSchema<Restaurant> SCHEMA = SerializationSchema.<Restaurant>builder()
+            .text(Restaurant::getRestaurantName)
+            .decimal(Restaurant::getRent)
+            .text(Restaurant::getRentPeriod)
+            .build();
+
     private double rent;
     private String name;
     private RentPeriod rentPeriod;
@@ -20,8 +26,6 @@ public class Restaurant extends Entity{
         this.name = name;
         this.rent = rent;
         this.rentPeriod = rentPeriod;
-
-        setSerializationChain();
     }
 
     /**
@@ -30,7 +34,6 @@ public class Restaurant extends Entity{
      */
     public Restaurant(String UID) {
         super(UID);
-        setSerializationChain();
     }
 
     /* ___________________________________________
@@ -53,13 +56,11 @@ public class Restaurant extends Entity{
     ___________________________________________ */
 
     /**
-     * Functions to call in order to safely modify the text file database.
+     * Fields persisted to the text file database.
      */
     @Override
-    protected void setSerializationChain() {
-        this.serializationChain.add(this::getRestaurantName);
-        this.serializationChain.add(this::getRent);
-        this.serializationChain.add(this::getRentPeriod);
+    public SerializationSchema<Restaurant> getSerializationSchema() {
+        return SCHEMA;
     }
 
     public void setRestaurantName(String name) {
@@ -0,0 +1,222 @@
+package Entities;
+
+import Utilities.Money;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * <h2>The fields of an entity type, in the order they are persisted.</h2>
+ *
+ * <p>
+ * Each entity type builds its schema once, in a static field, and returns it from
+ * {@code Entity.getSerializationSchema()}. Serializing an entity writes its fields one after the other into a
+ * {@code StringBuilder} reused by the calling thread, separated by commas. Numbers and booleans are appended as
+ * primitives, so no field is boxed, and no entity holds a chain of its own.
+ * </p>
+ *
+ * <p>
+ * {@link #writeFields(Entity, DataOutput)} writes the same fields in their decoded form instead, each according to
+ * its {@link FieldKind}, for a {@code CSVCursor} to read back without parsing any text.
+ * </p>
+ * @param <E> type of entity described by the schema.
+ */
+public final class SerializationSchema<E extends Entity> {
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(256));
+    private static final int MAX_RETAINED_CAPACITY = 1 << 16;
+
+    private final Field<E>[] fields;
+
+    /**
+     * How a field is written in its decoded form: text as an int length followed by its UTF-8 bytes, integers and
+     * cents as a long, decimals as a double and booleans as a boolean. Custom fields are written as text.
+     */
+    public enum FieldKind {
+        TEXT, INTEGER, DECIMAL, CENTS, BOOL
+    }
+
+    /**
+     * Appends one field of an entity to a record.
+     */
+    @FunctionalInterface
+    private interface FieldWriter<E> {
+        void write(E entity, StringBuilder record);
+    }
+
+    /**
+     * Writes one field of an entity in its decoded form.
+     */
+    @FunctionalInterface
+    private interface FieldEncoder<E> {
+        void write(E entity, DataOutput out) throws IOException;
+    }
+
+    private record Field<E>(FieldKind kind, FieldWriter<E> writer, FieldEncoder<E> encoder) {}
+
+    private SerializationSchema(final List<Field<E>> fields) {
+        this.fields = fields.toArray(newFieldArray(fields.size()));
+    }
+
+    /**
+     * Creates an array of fields; arrays of a generic type cannot be created directly.
+     */
+    @SuppressWarnings("unchecked")
+    private static <E> Field<E>[] newFieldArray(final int length) {
+        return (Field<E>[]) new Field<?>[length];
+    }
+
+    /**
+     * Starts a schema; the entity's ID is always its first field.
+     * @return {@code Builder<E>}
+     */
+    public static <E extends Entity> Builder<E> builder() {
+        return new Builder<E>().text(Entity::getID);
+    }
+
+    /**
+     * Returns the number of fields in a record.
+     * @return {@code int}
+     */
+    public int fieldCount() {
+        return this.fields.length;
+    }
+
+    /**
+     * Returns the kind of every field, in order.
+     * @return {@code FieldKind[]} a copy the caller may keep.
+     */
+    public FieldKind[] fieldKinds() {
+        FieldKind[] kinds = new FieldKind[this.fields.length];
+        for (int i = 0; i < kinds.length; i++)
+            kinds[i] = this.fields[i].kind();
+        return kinds;
+    }
+
+    /**
+     * Serializes the entity into a CSV record.
+     * @param entity {@code E} entity to be serialized.
+     * @return {@code String} CSV line
+     */
+    public String serialize(final E entity) {
+        StringBuilder record = BUFFER.get();
+        record.setLength(0);
+        try {
+            serializeTo(entity, record);
+            return record.toString();
+        } finally {
+            if (record.capacity() > MAX_RETAINED_CAPACITY)
+                BUFFER.remove();
+        }
+    }
+
+    /**
+     * Appends the entity's CSV record to the given builder.
+     * @param entity {@code E} entity to be serialized.
+     * @param record {@code StringBuilder} receiving the record.
+     */
+    public void serializeTo(final E entity, final StringBuilder record) {
+        for (int i = 0; i < this.fields.length; i++) {
+            if (i > 0)
+                record.append(',');
+            this.fields[i].writer().write(entity, record);
+        }
+    }
+
+    /**
+     * Writes the entity's fields in their decoded form, as described by {@link FieldKind}.
+     * @param entity {@code E} entity to be written.
+     * @param out {@code DataOutput} receiving the fields.
+     */
+    public void writeFields(final E entity, final DataOutput out) throws IOException {
+        for (Field<E> field : this.fields)
+            field.encoder().write(entity, out);
+    }
+
+    private static void writeText(final DataOutput out, final String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Collects the fields of a schema, in order.
+     * @param <E> type of entity described by the schema.
+     */
+    public static final class Builder<E extends Entity> {
+        private final List<Field<E>> fields = new ArrayList<>();
+
+        private Builder() {}
+
+        /**
+         * Adds a field written through its {@code toString}.
+         * @param getter {@code Function} returning the field; must not return null.
+         * @return {@code Builder<E>}
+         */
+        public Builder<E> text(final Function<? super E, ?> getter) {
+            this.fields.add(new Field<>(FieldKind.TEXT,
+                    (entity, record) -> record.append(getter.apply(entity).toString()),
+                    (entity, out) -> writeText(out, getter.apply(entity).toString())));
+            return this;
+        }
+
+        public Builder<E> integer(final ToIntFunction<? super E> getter) {
+            this.fields.add(new Field<>(FieldKind.INTEGER,
+                    (entity, record) -> record.append(getter.applyAsInt(entity)),
+                    (entity, out) -> out.writeLong(getter.applyAsInt(entity))));
+            return this;
+        }
+
+        public Builder<E> decimal(final ToDoubleFunction<? super E> getter) {
+            this.fields.add(new Field<>(FieldKind.DECIMAL,
+                    (entity, record) -> record.append(getter.applyAsDouble(entity)),
+                    (entity, out) -> out.writeDouble(getter.applyAsDouble(entity))));
+            return this;
+        }
+
+        /**
+         * Adds an amount of money held in cents, written in dollars.
+         * @param getter {@code ToLongFunction} returning the amount in cents.
+         * @return {@code Builder<E>}
+         */
+        public Builder<E> cents(final ToLongFunction<? super E> getter) {
+            this.fields.add(new Field<>(FieldKind.CENTS,
+                    (entity, record) -> Money.append(record, getter.applyAsLong(entity)),
+                    (entity, out) -> out.writeLong(getter.applyAsLong(entity))));
+            return this;
+        }
+
+        public Builder<E> bool(final Predicate<? super E> getter) {
+            this.fields.add(new Field<>(FieldKind.BOOL,
+                    (entity, record) -> record.append(getter.test(entity)),
+                    (entity, out) -> out.writeBoolean(getter.test(entity))));
+            return this;
+        }
+
+        /**
+         * Adds a field that writes itself, such as a list of IDs, straight into the record.
+         * @param writer {@code BiConsumer} appending the field to the record.
+         * @return {@code Builder<E>}
+         */
+        public Builder<E> custom(final BiConsumer<? super E, StringBuilder> writer) {
+            this.fields.add(new Field<>(FieldKind.TEXT, writer::accept, (entity, out) -> {
+                StringBuilder field = new StringBuilder();
+                writer.accept(entity, field);
+                writeText(out, field.toString());
+            }));
+            return this;
+        }
+
+        public SerializationSchema<E> build() {
+            return new SerializationSchema<>(this.fields);
+        }
+    }
+}
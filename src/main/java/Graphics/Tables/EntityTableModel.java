@@ -4,13 +4,15 @@ import Constants.LogLevel;
 import Entities.Entity;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import javax.swing.table.AbstractTableModel;
 
 /**
  * An implementation of {@code AbstractTableModel} used with Toastry's {@code Entity} data structures.
- * Holds a list of entities and uses CRUD-like commands to manage its data.
+ * Holds a list of entities and uses CRUD-like commands to manage its data. A table model built over an existing list
+ * indexes into that list directly rather than copying it.
  */
 public class EntityTableModel extends AbstractTableModel {
     protected List<Entity> entities;
@@ -19,6 +21,15 @@ public class EntityTableModel extends AbstractTableModel {
         this.entities = new ArrayList<>();
     }
 
+    /**
+     * Builds a table model over the given rows without copying them. A read-only list, such as a model's entity
+     * view, makes a read-only table.
+     * @param rows {@code List} entities shown by the table, in order.
+     */
+    public EntityTableModel(List<? extends Entity> rows) {
+        this.entities = Collections.unmodifiableList(rows);
+    }
+
     public void addRow(Entity entity) {
         try {
             this.entities.add(entity);
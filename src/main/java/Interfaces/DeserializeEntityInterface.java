@@ -2,10 +2,21 @@ package Interfaces;
 
 import Entities.Entity;
 import Models.LogMessage;
+import Services.CSVCursor;
 
 import java.util.List;
 
 public interface DeserializeEntityInterface {
     Entity deserialize(final String csvLine);
     List<LogMessage> getLogs();
+
+    /**
+     * Deserializes the record a {@code CSVCursor} points at. Deserializers that parse straight from the cursor's
+     * offsets override this; by default, the record is handed to {@link #deserialize(String)}.
+     * @param cursor {@code CSVCursor} positioned on the record.
+     * @return {@code Entity}
+     */
+    default Entity deserialize(final CSVCursor cursor) {
+        return deserialize(cursor.toString());
+    }
 }
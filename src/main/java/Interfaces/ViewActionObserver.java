@@ -2,6 +2,8 @@ package Interfaces;
 
 import Entities.Entity;
 
+import java.util.Collection;
+
 /**
  * Specific methods that the view actions require to keep their children updated.
  * 
@@ -9,9 +11,16 @@ import Entities.Entity;
  * model with these methods. i.e., a ModelEntity will fire notifyNewEntity on
  * the listeners from the model. This ensures view actions will be properly
  * able to update their children.
+ *
+ * Batched writes notify their observers once per batch through the collection variants; by default, these
+ * forward each entity to the single-entity methods.
  */
 public interface ViewActionObserver {
     void notifyNewEntity(Entity entity);   // Entity was added to model
     void notifyRemovedEntity(Entity entity); // Entity was removed from model
     void notifyModifiedEntity(Entity entity); // Entity was modified from model
-}
\ No newline at end of file
+
+    default void notifyNewEntities(Collection<? extends Entity> entities) { entities.forEach(this::notifyNewEntity); }
+    default void notifyRemovedEntities(Collection<? extends Entity> entities) { entities.forEach(this::notifyRemovedEntity); }
+    default void notifyModifiedEntities(Collection<? extends Entity> entities) { entities.forEach(this::notifyModifiedEntity); }
+}
@@ -0,0 +1,64 @@
+package Models;
+
+import Entities.Entity;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * <h2>Outcome of a batch write.</h2>
+ *
+ * <p>
+ * Lists the entities the model committed and those it rejected, each in the order they were given. An entity is
+ * rejected when the model refuses it, such as a product whose variants no longer exist or a check of a closed
+ * business day, or when the commit holding it failed. A rejected entity was not written, and the model's copy of it
+ * is unchanged.
+ * </p>
+ * @param committed {@code List<T>} entities written.
+ * @param rejected {@code List<T>} entities not written.
+ * @param <T> type of entity written.
+ */
+public record BatchResult<T extends Entity>(List<T> committed, List<T> rejected) {
+    public BatchResult {
+        committed = Collections.unmodifiableList(committed);
+        rejected = Collections.unmodifiableList(rejected);
+    }
+
+    public static <T extends Entity> BatchResult<T> empty() {
+        return new BatchResult<>(List.of(), List.of());
+    }
+
+    /**
+     * Returns whether every entity of the batch was written.
+     * @return {@code boolean}
+     */
+    public boolean isComplete() {
+        return this.rejected.isEmpty();
+    }
+
+    /**
+     * Returns the entities written, compared by identity, for checking many entities against the result.
+     * @return {@code Set<T>}
+     */
+    public Set<T> committedSet() {
+        Set<T> set = Collections.newSetFromMap(new IdentityHashMap<>());
+        set.addAll(this.committed);
+        return set;
+    }
+
+    /**
+     * Adds entities the model refused before the batch reached storage.
+     * @param refused {@code List<T>}
+     * @return {@code BatchResult<T>}
+     */
+    BatchResult<T> withRejected(final List<T> refused) {
+        if (refused.isEmpty())
+            return this;
+        List<T> allRejected = new ArrayList<>(refused);
+        allRejected.addAll(this.rejected);
+        return new BatchResult<>(this.committed, allRejected);
+    }
+}
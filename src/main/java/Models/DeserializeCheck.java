@@ -0,0 +1,116 @@
+package Models;
+
+import Entities.Check;
+import Entities.CheckLineItem;
+import Entities.Product;
+import Entities.ProductVariantSelected;
+import Interfaces.DeserializeEntityInterface;
+import Services.CSVCursor;
+import Utilities.LogService;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * A simple command to initialize an entity from the database based on its db content.
+ * Based on a functional interface, allows for easy access by entity models to deserialize and load
+ * entities.
+ */
+public class DeserializeCheck implements DeserializeEntityInterface {
+    private final LogService logger = new LogService(this.getClass().getName());
+    private final CSVCursor cursor = new CSVCursor(logger);
+    private final EntityModel<Product> productModel;
+    private final Function<String, Check> loader;
+
+    /**
+     * @param productModel {@code EntityModel<Product>} used to resolve purchased products; may be null, in which
+     *                     case line items are skipped.
+     */
+    public DeserializeCheck(final EntityModel<Product> productModel) {
+        this.productModel = productModel;
+        this.loader = null;
+    }
+
+    private DeserializeCheck(final Function<String, Check> loader) {
+        this.productModel = null;
+        this.loader = loader;
+    }
+
+    /**
+     * Returns a deserializer that only reads each check's ID and purchase date. The raw record is kept in the
+     * check's {@code originalData} and handed to the loader the first time the rest of the check is needed.
+     * @param loader {@code Function<String, Check>} fully deserializes a raw record.
+     * @return {@code DeserializeCheck}
+     */
+    public static DeserializeCheck deferred(final Function<String, Check> loader) {
+        return new DeserializeCheck(loader);
+    }
+
+    @Override
+    public Check deserialize(final String str) {
+        return deserialize(this.cursor.reset(str));
+    }
+
+    @Override
+    public Check deserialize(final CSVCursor cursor) {
+        Check check = new Check(cursor.parseString(0));
+        if (this.loader == null) {
+            deserializeFields(check, cursor);
+        } else {
+            check.setPurchaseDate(parseDate(cursor.parseString(1)));
+            check.setOriginalData(cursor.toString());
+            check.deferLoading(this.loader);
+        }
+        check.resetChangedState();
+
+        return check;
+    }
+
+    @Override
+    public List<LogMessage> getLogs() {
+        return this.logger.getLogs();
+    }
+
+    private void deserializeFields(final Check check, final CSVCursor cursor) {
+        check.setPurchaseDate(parseDate(cursor.parseString(1)));
+        check.setCustomersServed(cursor.parseInteger(2));
+        cursor.forEachListItem(6, purchase -> deserializePurchase(check, purchase));
+        // Totals are set after the line items, so the check keeps the ones it was saved with.
+        check.setSubtotalCents(cursor.parseCents(3));
+        check.setTotalCents(cursor.parseCents(4));
+        check.setCOGSCents(cursor.parseCents(5));
+    }
+
+    /**
+     * Adds a single {@code productID=quantity} purchase to the check.
+     */
+    private void deserializePurchase(final Check check, final String purchase) {
+        int separator = purchase.indexOf('=');
+        String productID = separator < 0 ? purchase : purchase.substring(0, separator);
+        Product product = this.productModel == null ? null : this.productModel.retrieve(productID);
+
+        if (product == null) {
+            logger.logWarning("When deserializing check " + check.getID() + ", the product " + productID
+                    + " does not exist and therefor cannot be tied to the check.");
+            return;
+        }
+
+        try {
+            int quantity = separator < 0 ? 1 : Integer.parseInt(purchase.substring(separator + 1));
+            check.addLineItem(new CheckLineItem(product, new ProductVariantSelected(product), quantity));
+        } catch (NumberFormatException ex) {
+            logger.logWarning("Failed to parse the quantity of purchase '" + purchase + "' on check " + check.getID() + ".");
+        }
+    }
+
+    private Date parseDate(final String isoDate) {
+        try {
+            return Date.from(Instant.parse(isoDate));
+        } catch (Exception ex) {
+            logger.logWarning("Failed to parse purchase date '" + isoDate + "'; defaulting to now.");
+            return new Date();
+        }
+    }
+}
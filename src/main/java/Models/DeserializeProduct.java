@@ -4,10 +4,11 @@ import Entities.Product;
 import Entities.ProductCategory;
 import Entities.ProductVariant;
 import Interfaces.DeserializeEntityInterface;
-import Services.CSVParser;
+import Services.CSVCursor;
 import Services.VariantService;
 import Utilities.LogService;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -16,9 +17,10 @@ import java.util.List;
  * entities.
  */
 public class DeserializeProduct implements DeserializeEntityInterface {
-    private CSVParser parser;
     private final LogService logger = new LogService(this.getClass().getName());
+    private final CSVCursor cursor = new CSVCursor(logger);
     private final VariantService variantService;
+    private final List<String> variantIDs = new ArrayList<>();
 
     public DeserializeProduct(final VariantService variantService) {
         this.variantService = variantService;
@@ -26,9 +28,13 @@ public class DeserializeProduct implements DeserializeEntityInterface {
 
     @Override
     public Product deserialize(final String str) {
-        this.parser = new CSVParser(logger, str);
-        Product product = new Product(parser.parseString(0));
-        deserializeFields(product);
+        return deserialize(this.cursor.reset(str));
+    }
+
+    @Override
+    public Product deserialize(final CSVCursor cursor) {
+        Product product = new Product(cursor.parseString(0));
+        deserializeFields(product, cursor);
         product.resetChangedState();
 
         return product;
@@ -39,16 +45,26 @@ public class DeserializeProduct implements DeserializeEntityInterface {
         return this.logger.getLogs();
     }
 
-    private void deserializeFields(final Product product) {
-        product.setName(parser.parseStringOrDefault(1, "null"));
-        product.setPrice(parser.parseCurrency(2));
-        product.setCost(parser.parseCurrency(3));
-        product.loadTotalSales(parser.parseInteger(4));
-        product.setCategory(parseCategory(parser.parseString(5)));
-        product.setVariants(variantService.getVariantsTiedToProduct(parser.parseListString(6)));
+    private void deserializeFields(final Product product, final CSVCursor cursor) {
+        product.setName(cursor.parseStringOrDefault(1, "null"));
+        product.setPriceCents(cursor.parseCents(2));
+        product.setCostCents(cursor.parseCents(3));
+        product.loadTotalSales(cursor.parseInteger(4));
+        product.setCategory(parseCategory(cursor));
+
+        this.variantIDs.clear();
+        cursor.forEachListItem(6, this.variantIDs::add);
+        product.setVariants(variantService.getVariantsTiedToProduct(this.variantIDs));
     }
 
-    private ProductCategory parseCategory(final String categoryName) {
-        return ProductCategory.getEnum(categoryName);
+    /**
+     * Matches the category field against each {@code ProductCategory} name in place; only an unknown category
+     * is copied out of the record to be looked up and logged.
+     */
+    private ProductCategory parseCategory(final CSVCursor cursor) {
+        for (ProductCategory category : ProductCategory.values())
+            if (cursor.fieldEquals(5, category.name()))
+                return category;
+        return ProductCategory.getEnum(cursor.parseString(5));
     }
 }
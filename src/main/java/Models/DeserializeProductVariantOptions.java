@@ -3,10 +3,9 @@ package Models;
 import Entities.ProductVariant;
 import Entities.ProductVariantOption;
 import Interfaces.DeserializeEntityInterface;
-import Services.CSVParser;
+import Services.CSVCursor;
 import Utilities.LogService;
 
-import java.lang.reflect.Method;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,17 +15,21 @@ import java.util.Optional;
  * entities.
  */
 public class DeserializeProductVariantOptions implements DeserializeEntityInterface {
-    private CSVParser parser;
     private final LogService logger = new LogService(this.getClass().getName());
+    private final CSVCursor cursor = new CSVCursor(logger);
     private final ProductVariantModel variantModel;
 
     public DeserializeProductVariantOptions(final ProductVariantModel variantModel) { this.variantModel = variantModel; }
 
     @Override
     public ProductVariantOption deserialize(final String str) {
-        this.parser = new CSVParser(logger, str);
-        ProductVariantOption variantOption = new ProductVariantOption(parser.parseString(0));
-        deserializeFields(variantOption);
+        return deserialize(this.cursor.reset(str));
+    }
+
+    @Override
+    public ProductVariantOption deserialize(final CSVCursor cursor) {
+        ProductVariantOption variantOption = new ProductVariantOption(cursor.parseString(0));
+        deserializeFields(variantOption, cursor);
         variantOption.resetChangedState();
 
         return variantOption;
@@ -37,17 +40,21 @@ public class DeserializeProductVariantOptions implements DeserializeEntityInterf
         return this.logger.getLogs();
     }
 
-    private void deserializeFields(final ProductVariantOption variantOption) {
+    private void deserializeFields(final ProductVariantOption variantOption, final CSVCursor cursor) {
         Optional<ProductVariant> parentVariant = this.variantModel.findEntity(
-                parser.parseString(1)
+                cursor.parseString(1)
         );
 
         if (parentVariant.isPresent()) {
+            // Loading an option is not a change to its parent; keep the parent clean so it is not flushed.
+            boolean parentChanged = parentVariant.get().hasChanged();
             variantOption.setParentVariant(parentVariant.get());
             parentVariant.get().addSelectionOption(variantOption);
+            if (!parentChanged)
+                parentVariant.get().resetChangedState();
         } else
             logger.logWarning("When deserializing option " + variantOption.getID() + ", the parent variant "
-            + parser.parseString(1) + " is null and therefor cannot be tied to variant.");
-        variantOption.setOptionName(parser.parseString(2));
+            + cursor.parseString(1) + " is null and therefor cannot be tied to variant.");
+        variantOption.setOptionName(cursor.parseString(2));
     }
 }
@@ -2,7 +2,7 @@ package Models;
 
 import Entities.ProductVariant;
 import Interfaces.DeserializeEntityInterface;
-import Services.CSVParser;
+import Services.CSVCursor;
 import Utilities.LogService;
 
 import java.util.List;
@@ -13,14 +13,18 @@ import java.util.List;
  * entities.
  */
 public class DeserializeProductVariants implements DeserializeEntityInterface {
-    private CSVParser parser;
     private final LogService logger = new LogService(this.getClass().getName());
+    private final CSVCursor cursor = new CSVCursor(logger);
 
     @Override
     public ProductVariant deserialize(final String str) {
-        this.parser = new CSVParser(logger, str);
-        ProductVariant variant = new ProductVariant(parser.parseString(0));
-        deserializeFields(variant);
+        return deserialize(this.cursor.reset(str));
+    }
+
+    @Override
+    public ProductVariant deserialize(final CSVCursor cursor) {
+        ProductVariant variant = new ProductVariant(cursor.parseString(0));
+        deserializeFields(variant, cursor);
         variant.resetChangedState();
 
         return variant;
@@ -31,10 +35,10 @@ public class DeserializeProductVariants implements DeserializeEntityInterface {
         return this.logger.getLogs();
     }
 
-    private void deserializeFields(final ProductVariant variant) {
-        variant.setVariantName(parser.parseStringOrDefault(1, "null"));
-        variant.setVariantCost(parser.parseDouble(2));
-        variant.setSelectionRequired(parser.parseBoolean(3));
-        variant.setSelectionType(parser.parseString(4));
+    private void deserializeFields(final ProductVariant variant, final CSVCursor cursor) {
+        variant.setVariantName(cursor.parseStringOrDefault(1, "null"));
+        variant.setVariantCostCents(cursor.parseCents(2));
+        variant.setSelectionRequired(cursor.parseBoolean(3));
+        variant.setSelectionType(cursor.parseString(4));
     }
 }
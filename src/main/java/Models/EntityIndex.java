@@ -0,0 +1,22 @@
+package Models;
+
+import Entities.Entity;
+
+/**
+ * A secondary index kept by an {@code EntityStore}. The store calls it under its write lock every time an entity is
+ * stored, replaced or removed, so the index always matches the entities held by the model.
+ * @param <T> type of entity indexed.
+ */
+public interface EntityIndex<T extends Entity> {
+    /**
+     * Indexes the entity, replacing whatever was indexed under its ID.
+     */
+    void put(T entity);
+
+    /**
+     * Removes the entity indexed under the ID.
+     */
+    void remove(String entityID);
+
+    void clear();
+}
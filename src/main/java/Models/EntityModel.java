@@ -1,18 +1,38 @@
 package Models;
 
+import Constants.PersistenceMode;
+import Constants.StorageBackend;
+import Constants.SyncPolicy;
 import Entities.Entity;
 import Entities.ProductVariant;
 import Entities.ProductVariantOption;
+import Entities.SerializationSchema;
+import Entities.SerializationSchema.FieldKind;
 import Interfaces.DeserializeEntityInterface;
 import Interfaces.ViewActionObserver;
+import Models.Storage.BinaryStorageEngine;
+import Models.Storage.Compactable;
+import Models.Storage.CsvStorageEngine;
+import Models.Storage.EntityJournal;
+import Models.Storage.MemoryStorageEngine;
+import Models.Storage.PersistenceQueue;
+import Models.Storage.StorageCompactor;
+import Models.Storage.StorageEngine;
+import Services.CSVCursor;
 import Utilities.LogService;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 
 /**
@@ -25,20 +45,69 @@ import java.util.stream.Collectors;
  * functions are intended for simple record interactions; persisting a entity without any
  * dependency on another entity or model.
  * </p>
+ *
+ * <p>
+ * Records are kept by a {@code StorageEngine}; by default, a {@code CsvStorageEngine} over the model's CSV file.
+ * Another engine can be selected per model through {@link #setStorageBackend(StorageBackend)} or
+ * {@link #setStorageEngine(StorageEngine)} without changing the model itself. Engines replace whole files through
+ * {@code AtomicFiles}, so a crash while rewriting leaves the previous file intact.
+ * </p>
+ *
+ * <p>
+ * By default, every write goes straight to the storage engine. A model switched to {@code PersistenceMode.JOURNALED}
+ * appends its writes to an {@code EntityJournal} instead; the in-memory entities are the source of truth and the
+ * engine is only rewritten by {@link #checkpoint()}. A model switched to {@code PersistenceMode.ASYNC} updates its
+ * entities and notifies its observers right away, then hands the write to a {@code PersistenceQueue} whose writer
+ * thread persists it; {@link #whenPersisted()} tells the caller when that happened.
+ * </p>
+ *
+ * <p>
+ * {@link #upsertAll(Collection)}, {@link #insertAll(Collection)} and {@link #deleteAll(Collection)} group a batch of
+ * changes into a single commit: one write to the journal or one batch on the storage engine, after which observers
+ * are notified once with the whole batch.
+ * </p>
+ *
+ * <p>
+ * Storage engines that remove records by leaving tombstones behind are handed to the model's
+ * {@code StorageCompactor}, if one is set, after every delete; it compacts them in the background.
+ * </p>
+ *
+ * <p>
+ * A model can be used from several threads at once. Entities are held by an {@code EntityStore}, in the order they
+ * were added; reads by ID or position never block. Writes lock the stripes their entity IDs hash to, so writes to
+ * different entities rarely wait on each other; a batch locks every stripe it touches in ascending order. Loading,
+ * checkpointing and switching engine or persistence mode lock every stripe.
+ * </p>
  */
 public abstract class EntityModel<T extends Entity> {
-    private final ArrayList<ViewActionObserver> observers = new ArrayList<>();
-    protected HashMap<String, T> entities = new HashMap<>();
+    private static final int LOCK_STRIPES = 32;
+
+    private final CopyOnWriteArrayList<ViewActionObserver> observers = new CopyOnWriteArrayList<>();
+    private final ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+    protected EntityStore<T> entities = new EntityStore<>();
     protected Path filePath;
     protected LogService logger;
-    private int failedToParseEntities = 0;
+    private volatile PersistenceMode persistenceMode = PersistenceMode.REWRITE;
+    private volatile EntityJournal journal;
+    private PersistenceQueue persistenceQueue;
+    private volatile CompletableFuture<Void> lastWrite = CompletableFuture.completedFuture(null);
+    private volatile StorageEngine<T> storageEngine;
+    private volatile SyncPolicy syncPolicy = SyncPolicy.OS_DEFAULT;
+    private volatile Duration syncInterval = Duration.ZERO;
+    private volatile StorageCompactor compactor;
+    private final AtomicInteger failedToParseEntities = new AtomicInteger();
+
+    {
+        for (int i = 0; i < LOCK_STRIPES; i++)
+            this.locks[i] = new ReentrantLock();
+    }
 
     /**
      * Returns the number of entities that failed to load in.
      * @return {@code int}
      */
     public final int getFailedToParseCount() {
-        return failedToParseEntities;
+        return failedToParseEntities.get();
     }
 
     /**
@@ -54,9 +123,16 @@ public abstract class EntityModel<T extends Entity> {
         return Optional.ofNullable(entities.get(entityID));
     }
 
+    /**
+     * Finds the entity at the given position, in the order entities were added to the model.
+     * @param orderedEntityIndex {@code int} position of the entity.
+     * @return {@code Optional<T>} empty if there is no entity at that position.
+     */
     public final Optional<T> findEntity(final int orderedEntityIndex) {
-        List<T> entityList = this.entities.values().stream().toList();
-        return Optional.ofNullable(entityList.get(orderedEntityIndex));
+        List<T> entityList = this.entities.snapshot();
+        if (orderedEntityIndex < 0 || orderedEntityIndex >= entityList.size())
+            return Optional.empty();
+        return Optional.of(entityList.get(orderedEntityIndex));
     }
 
     public final T retrieve(final String entityID) {
@@ -64,8 +140,7 @@ public abstract class EntityModel<T extends Entity> {
     }
 
     public final T retrieve(final int orderedEntityIndex) {
-        List<T> entityList = this.entities.values().stream().toList();
-        return entityList.get(orderedEntityIndex);
+        return entities.get(orderedEntityIndex);
     }
 
     /**
@@ -88,8 +163,31 @@ public abstract class EntityModel<T extends Entity> {
 
 //    abstract public Entity getEntity(final String UID);
 
+    /**
+     * Returns the entities in the order they were added, as an immutable list that later writes do not affect.
+     * The list is shared until the model next changes, so calling this does not copy the model.
+     * @return {@code List<T>}
+     */
     public final List<T> getEntities() {
-        return entities.values().stream().toList();
+        return entities.snapshot();
+    }
+
+    /**
+     * Returns a read-only list following the model, for views such as table models that index into it directly.
+     * @return {@code List<T>}
+     * @see EntityStore#view()
+     */
+    public final List<T> getEntityView() {
+        return entities.view();
+    }
+
+    /**
+     * Returns the entities modified since they were last persisted.
+     * @return {@code List<T>}
+     * @see FlushScheduler
+     */
+    public final List<T> getChangedEntities() {
+        return entities.snapshot().stream().filter(Entity::hasChanged).toList();
     }
 
     public void upsert(final T entity) {
@@ -100,52 +198,244 @@ public abstract class EntityModel<T extends Entity> {
         processInsert(entity);
     }
 
+    public BatchResult<T> upsertAll(final Collection<T> batch) {
+        return processUpsertAll(batch);
+    }
+
+    public BatchResult<T> insertAll(final Collection<T> batch) {
+        return processInsertAll(batch);
+    }
+
+    public BatchResult<T> deleteAll(final Collection<T> batch) {
+        return processDeleteAll(batch);
+    }
+
     protected final void processUpsert(final T entity) {
-        OptionalInt dbIndex = getIndexFromList(entity.getID(), readCSVFile(filePath));
-        logger.logVerbose(dbIndex.isPresent() ?
+        ReentrantLock lock = lockOf(entity.getID());
+        lock.lock();
+        try {
+            upsertLocked(entity);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void upsertLocked(final T entity) {
+        if (persistenceMode != PersistenceMode.REWRITE) {
+            boolean exists = entities.containsKey(entity.getID());
+            logger.logVerbose(exists ?
+                    "Entity exists in database; updating record." : "Entity does not exist; inserting into database."
+            );
+            if (deferEntity(entity))
+                notifyObservers(exists ? List.of() : List.of(entity), exists ? List.of(entity) : List.of(), List.of());
+            return;
+        }
+
+        boolean exists = getStorageEngine().contains(entity.getID());
+        logger.logVerbose(exists ?
                 "Entity exists in database; updating record." : "Entity does not exist; inserting into database."
         );
 
-        if (persistEntity(entity, filePath, dbIndex)) {
-            entity.resetChangedState();
-            entities.put(entity.getID(), entity);
+        if (persistEntity(entity)) {
+            boolean modified = entities.put(entity.getID(), entity) != null;
             logger.logSuccess("Successfully upsert " + entity.getID() + " into database.");
+            notifyObservers(modified ? List.of() : List.of(entity), modified ? List.of(entity) : List.of(), List.of());
         }
     }
 
     protected final void processInsert(final T entity) {
-        OptionalInt dbIndex = getIndexFromList(entity.getID(), readCSVFile(filePath));
-        if (dbIndex.isPresent()) {
+        ReentrantLock lock = lockOf(entity.getID());
+        lock.lock();
+        try {
+            insertLocked(entity);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void insertLocked(final T entity) {
+        if (persistenceMode != PersistenceMode.REWRITE) {
+            if (entities.containsKey(entity.getID()))
+                logger.logWarning("Entity " + entity.getID() + " exists in database and therefor cannot be added.");
+            else if (deferEntity(entity))
+                notifyObservers(List.of(entity), List.of(), List.of());
+            return;
+        }
+
+        if (getStorageEngine().contains(entity.getID())) {
             logger.logWarning("Entity " + entity.getID() + " exists in database and therefor cannot be added.");
             return;
         }
 
-        if (persistEntity(entity, filePath, dbIndex)) {
-            entity.resetChangedState();
+        if (persistEntity(entity)) {
             entities.put(entity.getID(), entity);
             logger.logSuccess("Successfully upsert " + entity.getID() + " into database.");
+            notifyObservers(List.of(entity), List.of(), List.of());
         }
     }
 
     protected final void processDelete(final T entity) {
+        ReentrantLock lock = lockOf(entity.getID());
+        lock.lock();
+        try {
+            deleteLocked(entity);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void deleteLocked(final T entity) {
         if (!this.entities.containsKey(entity.getID())) {
             logger.logWarning("Entity " + entity.getID() + " does not exists in model and therefor cannot be deleted.");
             return;
         }
 
-        try {
-            List<String> dbContent = Files.readAllLines(this.filePath).stream()
-                    .filter(line -> !line.contains(entity.getID()))
-                    .toList();
+        if (persistenceMode == PersistenceMode.JOURNALED) {
+            try {
+                getJournal().appendDelete(entity.getID());
+                this.entities.remove(entity.getID(), entity);
+                notifyObservers(List.of(), List.of(), List.of(entity));
+            } catch (IOException ex) {
+                logger.logWarning("Encountered an exception (" + ex.getMessage() + ") in model " +
+                        "while attempting to journal the deletion of entity " + entity.getID() + ".\n" + ex);
+            }
+            return;
+        }
+        if (persistenceMode == PersistenceMode.ASYNC) {
+            enqueueWrite(Map.of(), List.of(entity.getID()));
+            this.entities.remove(entity.getID(), entity);
+            notifyObservers(List.of(), List.of(), List.of(entity));
+            return;
+        }
 
-            Files.write(this.filePath, dbContent, StandardCharsets.UTF_8);
+        try {
+            getStorageEngine().delete(entity.getID());
             this.entities.remove(entity.getID(), entity);
-        } catch (Exception ex) {
+            requestCompaction();
+            notifyObservers(List.of(), List.of(), List.of(entity));
+        } catch (IOException ex) {
             logger.logWarning("Encountered an exception (" + ex.getMessage() + ") in model " +
                     "while attempting to persist entity " + entity.getID() + ".\n" + ex);
         }
     }
 
+    /**
+     * Upserts every entity of the batch with a single commit. An entity listed more than once is written once,
+     * with its last occurrence.
+     * @param batch {@code Collection<T>} entities to be written.
+     * @return {@code BatchResult<T>} every entity written, or none if the commit failed.
+     */
+    protected final BatchResult<T> processUpsertAll(final Collection<T> batch) {
+        LinkedHashMap<String, T> pending = new LinkedHashMap<>();
+        batch.forEach(entity -> pending.put(entity.getID(), entity));
+        if (pending.isEmpty())
+            return BatchResult.empty();
+
+        List<ReentrantLock> held = lockAll(pending.keySet());
+        try {
+            List<T> inserted = new ArrayList<>();
+            List<T> modified = new ArrayList<>();
+            pending.values().forEach(entity -> (entities.containsKey(entity.getID()) ? modified : inserted).add(entity));
+
+            if (!commitBatch(pending))
+                return new BatchResult<>(List.of(), new ArrayList<>(pending.values()));
+            notifyObservers(inserted, modified, List.of());
+            return new BatchResult<>(new ArrayList<>(pending.values()), List.of());
+        } finally {
+            unlockAll(held);
+        }
+    }
+
+    /**
+     * Inserts every entity of the batch that does not exist yet with a single commit; existing entities are
+     * skipped with a warning and rejected.
+     * @param batch {@code Collection<T>} entities to be added.
+     * @return {@code BatchResult<T>}
+     */
+    protected final BatchResult<T> processInsertAll(final Collection<T> batch) {
+        List<ReentrantLock> held = lockAll(batch.stream().map(Entity::getID).toList());
+        try {
+            return insertAllLocked(batch);
+        } finally {
+            unlockAll(held);
+        }
+    }
+
+    private BatchResult<T> insertAllLocked(final Collection<T> batch) {
+        LinkedHashMap<String, T> pending = new LinkedHashMap<>();
+        List<T> rejected = new ArrayList<>();
+        for (T entity : batch) {
+            boolean exists = persistenceMode != PersistenceMode.REWRITE ?
+                    entities.containsKey(entity.getID()) : getStorageEngine().contains(entity.getID());
+            if (exists || pending.containsKey(entity.getID())) {
+                logger.logWarning("Entity " + entity.getID() + " exists in database and therefor cannot be added.");
+                rejected.add(entity);
+            } else {
+                pending.put(entity.getID(), entity);
+            }
+        }
+        if (pending.isEmpty())
+            return new BatchResult<>(List.of(), rejected);
+
+        if (!commitBatch(pending)) {
+            rejected.addAll(pending.values());
+            return new BatchResult<>(List.of(), rejected);
+        }
+        notifyObservers(new ArrayList<>(pending.values()), List.of(), List.of());
+        return new BatchResult<>(new ArrayList<>(pending.values()), rejected);
+    }
+
+    /**
+     * Deletes every entity of the batch with a single commit; entities missing from the model are skipped with
+     * a warning and rejected.
+     * @param batch {@code Collection<T>} entities to be deleted.
+     * @return {@code BatchResult<T>}
+     */
+    protected final BatchResult<T> processDeleteAll(final Collection<T> batch) {
+        List<ReentrantLock> held = lockAll(batch.stream().map(Entity::getID).toList());
+        try {
+            return deleteAllLocked(batch);
+        } finally {
+            unlockAll(held);
+        }
+    }
+
+    private BatchResult<T> deleteAllLocked(final Collection<T> batch) {
+        LinkedHashMap<String, T> pending = new LinkedHashMap<>();
+        List<T> rejected = new ArrayList<>();
+        for (T entity : batch) {
+            if (this.entities.containsKey(entity.getID()) && !pending.containsKey(entity.getID())) {
+                pending.put(entity.getID(), entity);
+            } else {
+                logger.logWarning("Entity " + entity.getID() + " does not exists in model and therefor cannot be deleted.");
+                rejected.add(entity);
+            }
+        }
+        if (pending.isEmpty())
+            return new BatchResult<>(List.of(), rejected);
+
+        try {
+            if (persistenceMode == PersistenceMode.JOURNALED)
+                getJournal().appendDeletes(pending.keySet());
+            else if (persistenceMode == PersistenceMode.ASYNC)
+                enqueueWrite(Map.of(), new ArrayList<>(pending.keySet()));
+            else
+                getStorageEngine().batch(Map.of(), pending.keySet());
+        } catch (IOException ex) {
+            logger.logWarning("Encountered an exception (" + ex.getMessage() + ") in model " +
+                    "while attempting to delete a batch of " + pending.size() + " entities.\n" + ex);
+            rejected.addAll(pending.values());
+            return new BatchResult<>(List.of(), rejected);
+        }
+
+        pending.keySet().forEach(this.entities::remove);
+        if (persistenceMode == PersistenceMode.REWRITE)
+            requestCompaction();
+        logger.logSuccess("Successfully deleted " + pending.size() + " entities from database.");
+        notifyObservers(List.of(), List.of(), new ArrayList<>(pending.values()));
+        return new BatchResult<>(new ArrayList<>(pending.values()), rejected);
+    }
+
     /**
      * Removes the requested entity from the database using a stream and filter.
      * @param entity {@code Entity} to be deleted.
@@ -170,42 +460,495 @@ public abstract class EntityModel<T extends Entity> {
 
     public final LogService getLogger() { return this.logger; }
 
+    public final PersistenceMode getPersistenceMode() { return this.persistenceMode; }
+
+    public final StorageEngine<T> getStorageEngine() {
+        StorageEngine<T> engine = this.storageEngine;
+        if (engine != null)
+            return engine;
+        synchronized (this.locks) {
+            if (this.storageEngine == null) {
+                engine = createDefaultStorageEngine();
+                engine.setSyncPolicy(this.syncPolicy, this.syncInterval);
+                this.storageEngine = engine;
+            }
+            return this.storageEngine;
+        }
+    }
+
+    /**
+     * Creates the storage engine a model keeps its records in until another is selected; by default, its CSV file.
+     * @return {@code StorageEngine<T>}
+     */
+    protected StorageEngine<T> createDefaultStorageEngine() {
+        return createStorageEngine(StorageBackend.CSV);
+    }
+
+    /**
+     * Selects one of the built-in storage engines for this model.
+     * @param backend {@code StorageBackend} to be used.
+     * @see #setStorageEngine(StorageEngine)
+     */
+    public final void setStorageBackend(final StorageBackend backend) {
+        setStorageEngine(createStorageEngine(backend));
+    }
+
+    /**
+     * Creates the storage engine used for a backend. Models with a storage format of their own override this.
+     * @param backend {@code StorageBackend}
+     * @return {@code StorageEngine<T>}
+     */
+    protected StorageEngine<T> createStorageEngine(final StorageBackend backend) {
+        return switch (backend) {
+            case CSV -> new CsvStorageEngine<>(this.filePath);
+            case BINARY -> new BinaryStorageEngine<>(this.filePath);
+            case MEMORY -> new MemoryStorageEngine<>();
+        };
+    }
+
+    /**
+     * Moves this model onto another storage engine. When the new engine holds no records, the model's loaded
+     * entities are copied into it so its data set carries over; otherwise, the model should be reloaded from it.
+     * The engine takes over the model's {@code SyncPolicy}.
+     * @param engine {@code StorageEngine<T>} to be used.
+     */
+    public final void setStorageEngine(final StorageEngine<T> engine) {
+        List<ReentrantLock> held = lockEverything();
+        try {
+            awaitPendingWrites();
+            engine.setSyncPolicy(this.syncPolicy, this.syncInterval);
+            if (engine.size() == 0 && !this.entities.isEmpty()) {
+                try {
+                    engine.replaceAll(serializeEntities());
+                } catch (IOException ex) {
+                    logger.logWarning("Encountered an exception (" + ex.getMessage() + ") in model " +
+                            "while attempting to copy its entities into a new storage engine.\n" + ex);
+                    return;
+                }
+            }
+            this.storageEngine = engine;
+        } finally {
+            unlockAll(held);
+        }
+    }
+
+    /**
+     * Returns a future completing once the last write handed to the persistence queue has been persisted; it
+     * completes exceptionally if that write failed. Right after a write in {@code ASYNC} mode, it is that write's
+     * future. In any other mode, writes are persisted before they return, so it is already complete.
+     * @return {@code CompletableFuture<Void>}
+     */
+    public final CompletableFuture<Void> whenPersisted() {
+        return this.lastWrite;
+    }
+
+    /**
+     * Sets the queue persisting this model's writes in {@code ASYNC} mode. Models sharing a queue have their writes
+     * persisted in the order they were made. Without one, the model starts a queue of its own.
+     * @param queue {@code PersistenceQueue} to be used.
+     */
+    public final void setPersistenceQueue(final PersistenceQueue queue) {
+        List<ReentrantLock> held = lockEverything();
+        try {
+            awaitPendingWrites();
+            synchronized (this.locks) {
+                this.persistenceQueue = queue;
+            }
+        } finally {
+            unlockAll(held);
+        }
+    }
+
+    /**
+     * Sets the compactor that removes the tombstones left in this model's storage by deletes.
+     * @param compactor {@code StorageCompactor} to be used; null to stop compacting.
+     */
+    public final void setCompactor(final StorageCompactor compactor) {
+        this.compactor = compactor;
+    }
+
+    /**
+     * Switches how this model persists its writes. Leaving {@code JOURNALED} mode performs a checkpoint so the CSV
+     * file is up-to-date before writes go back to rewriting it; leaving {@code ASYNC} mode waits for the queued
+     * writes to be persisted.
+     * @param mode {@code PersistenceMode} to be used.
+     */
+    public final void setPersistenceMode(final PersistenceMode mode) {
+        List<ReentrantLock> held = lockEverything();
+        try {
+            awaitPendingWrites();
+            if (this.persistenceMode == PersistenceMode.JOURNALED && mode != PersistenceMode.JOURNALED)
+                checkpoint();
+            this.persistenceMode = mode;
+        } finally {
+            unlockAll(held);
+        }
+    }
+
+    /**
+     * Sets when this model's writes are forced to disk, trading the latency of a write against how much of it a
+     * power failure can lose. Applies to the journal and to the storage engine, including engines selected later;
+     * by default, {@code OS_DEFAULT}.
+     * @param policy {@code SyncPolicy} to be used; {@code BATCHED} forces once a second.
+     */
+    public final void setSyncPolicy(final SyncPolicy policy) {
+        setSyncPolicy(policy, Duration.ofSeconds(1));
+    }
+
+    /**
+     * Sets when this model's writes are forced to disk.
+     * @param policy {@code SyncPolicy} to be used.
+     * @param interval {@code Duration} between forces with {@code BATCHED}; ignored otherwise.
+     * @see #setSyncPolicy(SyncPolicy)
+     */
+    public final void setSyncPolicy(final SyncPolicy policy, final Duration interval) {
+        List<ReentrantLock> held = lockEverything();
+        try {
+            getJournal().setSyncPolicy(policy, interval);
+            getStorageEngine().setSyncPolicy(policy, interval);
+            this.syncPolicy = policy;
+            this.syncInterval = interval == null ? Duration.ZERO : interval;
+        } finally {
+            unlockAll(held);
+        }
+    }
+
+    /**
+     * Folds the journal into the storage engine by rewriting it from the in-memory entities, then empties the
+     * journal. Does nothing when the journal is empty.
+     * @return {@code boolean} false if the storage engine could not be rewritten.
+     */
+    public final boolean checkpoint() {
+        List<ReentrantLock> held = lockEverything();
+        try {
+            awaitPendingWrites();
+            if (getJournal().isEmpty())
+                return true;
+
+            getStorageEngine().replaceAll(serializeEntities());
+            getJournal().truncate();
+            logger.logSuccess("Checkpoint folded the journal into " + this.filePath.getFileName() + ".");
+            return true;
+        } catch (IOException ex) {
+            logger.logWarning("Encountered an exception (" + ex.getMessage() + ") in model " +
+                    "while attempting to checkpoint " + this.filePath.getFileName() + ".\n" + ex);
+            return false;
+        } finally {
+            unlockAll(held);
+        }
+    }
+
+    /**
+     * Creates the deserializer this model rebuilds its entities with. Models returning one can be restored from a
+     * {@code ModelSnapshot}; by default, null.
+     * @return {@code DeserializeEntityInterface}
+     */
+    protected DeserializeEntityInterface createDeserializer() {
+        return null;
+    }
+
+    /**
+     * Files this model's records are read from: its storage engine's file and its journal.
+     */
+    final List<Path> sourceFiles() {
+        List<Path> files = new ArrayList<>(2);
+        if (getStorageEngine().getPath() != null)
+            files.add(getStorageEngine().getPath());
+        files.add(getJournal().getPath());
+        return files;
+    }
+
+    /**
+     * Writes the fields of every entity, in order, to a snapshot in their decoded form: the kind of every field,
+     * then the entity count and the fields of each entity.
+     */
+    @SuppressWarnings("unchecked")
+    final void writeSnapshot(final DataOutputStream out) throws IOException {
+        List<ReentrantLock> held = lockEverything();
+        try {
+            awaitPendingWrites();
+            List<T> entities = this.entities.snapshot();
+            SerializationSchema<Entity> schema = entities.isEmpty()
+                    ? null : (SerializationSchema<Entity>) entities.get(0).getSerializationSchema();
+            FieldKind[] kinds = schema == null ? new FieldKind[0] : schema.fieldKinds();
+            out.writeInt(kinds.length);
+            for (FieldKind kind : kinds)
+                out.writeByte(kind.ordinal());
+
+            out.writeInt(entities.size());
+            for (T entity : entities) {
+                if (entity.getSerializationSchema() != schema)
+                    throw new IOException("Entity #" + entity.getID() + " does not share the schema of the other "
+                            + "entities in " + this.getClass().getSimpleName() + ".");
+                schema.writeFields(entity, out);
+            }
+        } finally {
+            unlockAll(held);
+        }
+    }
+
+    /**
+     * Replaces this model's entities with those of a snapshot. The fields were written by this model, so they are
+     * not validated again and the journal is not replayed. Every entity is decoded before any is replaced, so a
+     * snapshot that cannot be read leaves the model as it was.
+     * @throws IOException if the snapshot could not be read, or one of its entities could not be rebuilt.
+     */
+    @SuppressWarnings("unchecked")
+    final void restoreSnapshot(final DataInputStream in) throws IOException {
+        DeserializeEntityInterface deserializer = createDeserializer();
+        FieldKind[] kinds = readFieldKinds(in);
+        int count = in.readInt();
+        if (count < 0)
+            throw new IOException("Negative entity count " + count + " in the snapshot of "
+                    + this.getClass().getSimpleName() + ".");
+
+        CSVCursor cursor = new CSVCursor(this.logger);
+        List<T> restored = new ArrayList<>(Math.min(count, 1 << 16));
+        for (int i = 0; i < count; i++) {
+            Entity entity = deserializer.deserialize(cursor.reset(in, kinds));
+            if (entity == null)
+                throw new IOException("Entity " + i + " in the snapshot of " + this.getClass().getSimpleName()
+                        + " could not be deserialized.");
+            restored.add((T) entity);
+        }
+
+        List<ReentrantLock> held = lockEverything();
+        try {
+            awaitPendingWrites();
+            this.entities.clear();
+            for (T entity : restored)
+                this.entities.put(entity.getID(), entity);
+            this.logger.addManyLogs(deserializer.getLogs().toArray(new LogMessage[0]));
+        } finally {
+            unlockAll(held);
+        }
+    }
+
+    private static FieldKind[] readFieldKinds(final DataInputStream in) throws IOException {
+        FieldKind[] all = FieldKind.values();
+        int length = in.readInt();
+        if (length < 0 || length > Byte.MAX_VALUE)
+            throw new IOException("Snapshot holds " + length + " fields per entity.");
+        FieldKind[] kinds = new FieldKind[length];
+        for (int i = 0; i < length; i++) {
+            int ordinal = in.readUnsignedByte();
+            if (ordinal >= all.length)
+                throw new IOException("Unknown field kind " + ordinal + " in the snapshot.");
+            kinds[i] = all[ordinal];
+        }
+        return kinds;
+    }
+
     /**
      * Allows service classes whose job is to serialize and deserialize entities to increment this
      * model's failed count.
      */
-    public final void incrementParserFail() { this.failedToParseEntities++; }
+    public final void incrementParserFail() { this.failedToParseEntities.incrementAndGet(); }
 
-    public final int getFailedEntities() { return this.failedToParseEntities; }
+    public final int getFailedEntities() { return this.failedToParseEntities.get(); }
 
-    protected final List<String> readCSVFile(final Path path) {
+    /**
+     * Loads every entity held by the storage engine, then replays the journal on top of them. Models in
+     * {@code REWRITE} mode fold a leftover journal into the engine so later writes are not shadowed by it.
+     * @param deserializerFactory {@code Supplier} creating the deserializer(s) to be used.
+     * @param lineIsValid {@code Predicate<String>} validation called for every record.
+     * @param parallel {@code boolean} whether the engine may deserialize records concurrently; {@code lineIsValid}
+     *                 must then be thread-safe.
+     */
+    protected final void loadRecords(final Supplier<? extends DeserializeEntityInterface> deserializerFactory,
+                                     final Predicate<String> lineIsValid, final boolean parallel) {
+        List<ReentrantLock> held = lockEverything();
         try {
-            return Files.readAllLines(path);
-        } catch (IOException e) {
-            logger.logWarning("Could not read file path \n'" + path + "' in entity model; file was corrupt.");
-            return List.of();
+            loadRecordsLocked(deserializerFactory, lineIsValid, parallel);
+        } finally {
+            unlockAll(held);
         }
     }
 
-    protected final OptionalInt getIndexFromList(final String UID, final List<String> content) {
-        for (int i = 0; i < content.size(); i++)
-            if (content.get(i).contains(UID))
-                return OptionalInt.of(i);
-        return OptionalInt.empty();
+    @SuppressWarnings("unchecked")
+    private void loadRecordsLocked(final Supplier<? extends DeserializeEntityInterface> deserializerFactory,
+                                   final Predicate<String> lineIsValid, final boolean parallel) {
+        awaitPendingWrites();
+        try {
+            StorageEngine.Loaded<T> loaded = getStorageEngine().load(deserializerFactory, lineIsValid, parallel);
+            loaded.entities().forEach(entity -> this.entities.put(entity.getID(), entity));
+            this.logger.addManyLogs(loaded.logs().toArray(new LogMessage[0]));
+        } catch (IOException ex) {
+            logger.logWarning("Could not read file path \n'" + this.filePath + "' in entity model; file was corrupt.");
+        }
+
+        if (getJournal().isEmpty())
+            return;
+
+        DeserializeEntityInterface deserializer = deserializerFactory.get();
+        getJournal().replay(
+                (entityID, record) -> {
+                    if (lineIsValid.test(record))
+                        this.entities.put(entityID, (T) deserializer.deserialize(record));
+                },
+                this.entities::remove
+        );
+        this.logger.addManyLogs(deserializer.getLogs().toArray(new LogMessage[0]));
+
+        if (persistenceMode != PersistenceMode.JOURNALED)
+            checkpoint();
     }
 
-    private boolean persistEntity(final Entity entity, final Path path, final OptionalInt dbIndex) {
+    /**
+     * Journals or queues the entity's write, depending on the persistence mode.
+     */
+    private boolean deferEntity(final T entity) {
         try {
-            List<String> dbContent = readCSVFile(path);
+            if (persistenceMode == PersistenceMode.JOURNALED)
+                getJournal().appendUpsert(entity.getID(), entity.serialize());
+            else
+                enqueueWrite(Map.of(entity.getID(), entity.serialize()), List.of());
+            entity.resetChangedState();
+            entities.put(entity.getID(), entity);
+            logger.logSuccess("Successfully upsert " + entity.getID() + " into database.");
+            return true;
+        } catch (IOException ex) {
+            logger.logWarning("Encountered an exception (" + ex.getMessage() + ") in model " +
+                    "while attempting to journal entity " + entity.getID() + ".\n" + ex);
+            return false;
+        }
+    }
+
+    /**
+     * Serializes the batch and writes it with a single journal append or a single pass over the CSV file.
+     * @return {@code boolean} false if nothing was written.
+     */
+    private boolean commitBatch(final LinkedHashMap<String, T> pending) {
+        // Reset before serializing: an entity edited while the batch is written stays changed for the next flush.
+        pending.values().forEach(Entity::resetChangedState);
+        LinkedHashMap<String, String> records = new LinkedHashMap<>();
+        pending.forEach((entityID, entity) -> records.put(entityID, entity.serialize()));
 
-            String newLine = entity.getSerializationChain().stream().map(fun -> fun.get().toString()).collect(Collectors.joining(","));
-            if (dbIndex.isPresent())
-                dbContent.set(dbIndex.getAsInt(), newLine);
+        try {
+            if (persistenceMode == PersistenceMode.JOURNALED)
+                getJournal().appendUpserts(records);
+            else if (persistenceMode == PersistenceMode.ASYNC)
+                enqueueWrite(records, List.of());
             else
-                dbContent.add(newLine);
+                getStorageEngine().batch(records, List.of());
+        } catch (IOException ex) {
+            logger.logWarning("Encountered an exception (" + ex.getMessage() + ") in model " +
+                    "while attempting to persist a batch of " + pending.size() + " entities.\n" + ex);
+            pending.values().forEach(Entity::markChanged);
+            return false;
+        }
+
+        pending.values().forEach(entity -> this.entities.put(entity.getID(), entity));
+        logger.logSuccess("Successfully upsert " + pending.size() + " entities into database.");
+        return true;
+    }
+
+    /**
+     * Notifies every observer once per kind of change.
+     */
+    private void notifyObservers(final List<T> inserted, final List<T> modified, final List<T> removed) {
+        for (ViewActionObserver observer : this.observers) {
+            if (!inserted.isEmpty())
+                observer.notifyNewEntities(inserted);
+            if (!modified.isEmpty())
+                observer.notifyModifiedEntities(modified);
+            if (!removed.isEmpty())
+                observer.notifyRemovedEntities(removed);
+        }
+    }
 
+    private void requestCompaction() {
+        if (this.compactor != null && getStorageEngine() instanceof Compactable storage)
+            this.compactor.requestCompaction(storage);
+    }
+
+    /**
+     * Hands a write to the persistence queue. A failed write is logged, as the model has already moved on.
+     */
+    private void enqueueWrite(final Map<String, String> upserts, final Collection<String> deletes) {
+        CompletableFuture<Void> write;
+        synchronized (this.locks) {
+            if (this.persistenceQueue == null)
+                this.persistenceQueue = new PersistenceQueue(this.getClass().getSimpleName() + "-writer");
+            write = this.persistenceQueue.enqueue(getStorageEngine(), upserts, deletes);
+            this.lastWrite = write;
+        }
+        write.whenComplete((ignored, ex) -> {
+            if (ex != null)
+                logger.logWarning("Encountered an exception (" + ex.getMessage() + ") in model " +
+                        "while persisting " + (upserts.size() + deletes.size()) + " queued writes.\n" + ex);
+            else if (!deletes.isEmpty())
+                requestCompaction();
+        });
+    }
+
+    /**
+     * Blocks until every write handed to the persistence queue has been persisted or has failed.
+     */
+    private void awaitPendingWrites() {
+        this.lastWrite.exceptionally(ex -> null).join();
+    }
+
+    private EntityJournal getJournal() {
+        EntityJournal entityJournal = this.journal;
+        if (entityJournal != null)
+            return entityJournal;
+        synchronized (this.locks) {
+            if (this.journal == null)
+                this.journal = new EntityJournal(this.filePath);
+            return this.journal;
+        }
+    }
+
+    /**
+     * Returns the lock of the stripe the entity ID hashes to.
+     */
+    private ReentrantLock lockOf(final String entityID) {
+        return this.locks[Math.floorMod(Objects.hashCode(entityID), LOCK_STRIPES)];
+    }
+
+    /**
+     * Locks the stripes of every entity ID in ascending stripe order, so two batches never wait on each other in
+     * a cycle.
+     * @return {@code List<ReentrantLock>} locks held, to be handed to {@link #unlockAll(List)}.
+     */
+    private List<ReentrantLock> lockAll(final Collection<String> entityIDs) {
+        boolean[] stripes = new boolean[LOCK_STRIPES];
+        entityIDs.forEach(entityID -> stripes[Math.floorMod(Objects.hashCode(entityID), LOCK_STRIPES)] = true);
+
+        List<ReentrantLock> held = new ArrayList<>();
+        for (int i = 0; i < LOCK_STRIPES; i++)
+            if (stripes[i]) {
+                this.locks[i].lock();
+                held.add(this.locks[i]);
+            }
+        return held;
+    }
+
+    private List<ReentrantLock> lockEverything() {
+        for (ReentrantLock lock : this.locks)
+            lock.lock();
+        return Arrays.asList(this.locks);
+    }
+
+    private static void unlockAll(final List<ReentrantLock> held) {
+        for (int i = held.size() - 1; i >= 0; i--)
+            held.get(i).unlock();
+    }
+
+    private LinkedHashMap<String, String> serializeEntities() {
+        LinkedHashMap<String, String> records = new LinkedHashMap<>();
+        this.entities.forEach((entityID, entity) -> records.put(entityID, entity.serialize()));
+        return records;
+    }
+
+    /**
+     * Writes the entity's record to the storage engine.
+     */
+    private boolean persistEntity(final T entity) {
+        try {
+            getStorageEngine().put(entity);
             entity.resetChangedState();
-            Files.write(path, dbContent, StandardCharsets.UTF_8);
             return true;
         } catch (IOException ex) {
             logger.logWarning("Encountered an exception (" + ex.getMessage() + ") in model " +
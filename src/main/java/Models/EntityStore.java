@@ -0,0 +1,159 @@
+package Models;
+
+import Entities.Entity;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiConsumer;
+
+/**
+ * <h2>Holds a model's entities in the order they were added.</h2>
+ *
+ * <p>
+ * Entities are held by an {@code EntityTable} keyed by the two longs of their ID; lookups by ID are optimistic
+ * and only block while a write is under way. The table keeps the order as well; replacing an entity keeps its
+ * position, removing one leaves a gap. Positional reads go straight to the table's order, so {@link #get(int)} and
+ * the list returned by {@link #view()} are constant time however often the store changes; the first positional
+ * read after a removal closes the gaps once. {@link #snapshot()} copies the entities on the first call after a
+ * change and shares the copy until the next one.
+ * </p>
+ *
+ * <p>
+ * Secondary indexes added through {@link #addIndex(EntityIndex)} are updated with every change to the store.
+ * </p>
+ * @param <T> type of entity held.
+ */
+public final class EntityStore<T extends Entity> {
+    private final EntityTable<T> table = new EntityTable<>();
+    private final List<T> view = new LiveView();
+    private final CopyOnWriteArrayList<EntityIndex<T>> indexes = new CopyOnWriteArrayList<>();
+    private volatile List<T> snapshot = List.of();
+
+    /**
+     * Adds a secondary index, filling it with the entities already held.
+     * @param index {@code EntityIndex<T>} to be maintained.
+     */
+    public synchronized void addIndex(final EntityIndex<T> index) {
+        this.table.values().forEach(index::put);
+        this.indexes.add(index);
+    }
+
+    public T get(final String entityID) {
+        return this.table.get(entityID);
+    }
+
+    /**
+     * Returns the entity at the given position, in insertion order.
+     * @param index {@code int} position of the entity.
+     * @return {@code T}
+     * @throws IndexOutOfBoundsException if there is no entity at that position.
+     */
+    public T get(final int index) {
+        T entity = this.table.at(index);
+        if (entity != null)
+            return entity;
+        synchronized (this) {
+            this.table.closeGaps();
+            return this.table.at(index);
+        }
+    }
+
+    public boolean containsKey(final String entityID) {
+        return this.table.get(entityID) != null;
+    }
+
+    public boolean containsValue(final T entity) {
+        return entity != null && this.table.get(entity.getID()) == entity;
+    }
+
+    public int size() {
+        return this.table.size();
+    }
+
+    public boolean isEmpty() {
+        return this.table.size() == 0;
+    }
+
+    /**
+     * Adds an entity at the end, or replaces the entity with the same ID in place.
+     * @return {@code T} the entity replaced; null if the entity was added.
+     */
+    public synchronized T put(final String entityID, final T entity) {
+        T previous = this.table.put(entityID, entity);
+        this.snapshot = null;
+        this.indexes.forEach(index -> index.put(entity));
+        return previous;
+    }
+
+    public synchronized T remove(final String entityID) {
+        T removed = this.table.remove(entityID, null);
+        if (removed != null) {
+            this.snapshot = null;
+            this.indexes.forEach(index -> index.remove(entityID));
+        }
+        return removed;
+    }
+
+    /**
+     * Removes the entity only if it is the one held under its ID.
+     * @return {@code boolean} true if removed.
+     */
+    public synchronized boolean remove(final String entityID, final T entity) {
+        if (entity == null || this.table.remove(entityID, entity) == null)
+            return false;
+        this.snapshot = null;
+        this.indexes.forEach(index -> index.remove(entityID));
+        return true;
+    }
+
+    public synchronized void clear() {
+        this.table.clear();
+        this.snapshot = List.of();
+        this.indexes.forEach(EntityIndex::clear);
+    }
+
+    /**
+     * Returns the entities in insertion order, as an immutable list that later changes do not affect.
+     * @return {@code List<T>}
+     */
+    public List<T> snapshot() {
+        List<T> entities = this.snapshot;
+        if (entities != null)
+            return entities;
+        synchronized (this) {
+            if (this.snapshot == null)
+                this.snapshot = List.copyOf(this.table.values());
+            return this.snapshot;
+        }
+    }
+
+    /**
+     * Returns a read-only list following the store: every read reflects the entities held at the time of the read.
+     * Iterate over {@link #snapshot()} instead when the store may change meanwhile.
+     * @return {@code List<T>}
+     */
+    public List<T> view() {
+        return this.view;
+    }
+
+    /**
+     * Calls the action for every entity, in insertion order.
+     */
+    public void forEach(final BiConsumer<String, T> action) {
+        snapshot().forEach(entity -> action.accept(entity.getID(), entity));
+    }
+
+    private final class LiveView extends AbstractList<T> implements RandomAccess {
+        @Override
+        public T get(final int index) {
+            return EntityStore.this.get(index);
+        }
+
+        @Override
+        public int size() {
+            return EntityStore.this.size();
+        }
+    }
+}
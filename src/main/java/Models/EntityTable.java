@@ -0,0 +1,311 @@
+package Models;
+
+import Entities.Entity;
+import Services.GUID;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * <h2>Open-addressing table of entities keyed by their 128-bit ID.</h2>
+ *
+ * <p>
+ * Compact IDs are held as their two longs in parallel arrays and probed linearly, so a lookup neither hashes the
+ * 36-character ID nor walks a node per entry. IDs without a compact form, written before IDs were time-ordered, are
+ * keyed by their string hash and confirmed against the entity's own ID. Removed slots are left as tombstones until
+ * the table is rebuilt, so an entry never moves while it is held.
+ * </p>
+ *
+ * <p>
+ * The table also remembers the order entities were added in; replacing an entity keeps its position. Lookups are
+ * optimistic reads that only take the read lock if a write happened meanwhile; writes must be made by one thread at
+ * a time, which {@code EntityStore} ensures.
+ * </p>
+ * @param <T> type of entity held.
+ */
+final class EntityTable<T extends Entity> {
+    private static final byte EMPTY = 0;
+    private static final byte COMPACT = 1;
+    private static final byte LEGACY = 2;
+    private static final byte DELETED = 3;
+    private static final int MIN_CAPACITY = 16;
+
+    private final StampedLock lock = new StampedLock();
+    private volatile Slots slots = new Slots(MIN_CAPACITY);
+    private volatile int size = 0;
+    private Object[] order = new Object[MIN_CAPACITY];
+    private int orderEnd = 0;
+
+    /**
+     * Slots of the table. Replaced as a whole when the table grows or is rebuilt.
+     */
+    private static final class Slots {
+        final long[] highs;
+        final long[] lows;
+        final byte[] kinds;
+        final Object[] values;
+        final int[] positions;
+        int used = 0;
+
+        Slots(final int capacity) {
+            this.highs = new long[capacity];
+            this.lows = new long[capacity];
+            this.kinds = new byte[capacity];
+            this.values = new Object[capacity];
+            this.positions = new int[capacity];
+        }
+
+        int mask() {
+            return this.kinds.length - 1;
+        }
+    }
+
+    int size() {
+        return this.size;
+    }
+
+    T get(final String entityID) {
+        if (entityID == null)
+            return null;
+        boolean compact = GUID.isCompact(entityID);
+        long high = compact ? GUID.highOf(entityID) : legacyKey(entityID);
+        long low = compact ? GUID.lowOf(entityID) : 0;
+
+        long stamp = this.lock.tryOptimisticRead();
+        T found = find(this.slots, entityID, compact, high, low);
+        if (this.lock.validate(stamp))
+            return found;
+
+        stamp = this.lock.readLock();
+        try {
+            return find(this.slots, entityID, compact, high, low);
+        } finally {
+            this.lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Adds an entity at the end, or replaces the entity with the same ID in place.
+     * @return {@code T} the entity replaced; null if the entity was added.
+     */
+    @SuppressWarnings("unchecked")
+    T put(final String entityID, final T entity) {
+        boolean compact = GUID.isCompact(entityID);
+        long high = compact ? GUID.highOf(entityID) : legacyKey(entityID);
+        long low = compact ? GUID.lowOf(entityID) : 0;
+
+        long stamp = this.lock.writeLock();
+        try {
+            Slots table = this.slots;
+            int slot = indexOf(table, entityID, compact, high, low);
+            if (slot >= 0) {
+                T previous = (T) table.values[slot];
+                table.values[slot] = entity;
+                this.order[table.positions[slot]] = entity;
+                return previous;
+            }
+
+            if ((table.used + 1) * 2 > table.kinds.length)
+                table = rebuild(Math.max(MIN_CAPACITY, Integer.highestOneBit(Math.max(this.size, 1)) * 4));
+            if (this.orderEnd == this.order.length)
+                table = compactOrder(table);
+            insert(table, compact ? COMPACT : LEGACY, high, low, entity, this.orderEnd);
+            this.order[this.orderEnd++] = entity;
+            this.size++;
+            return null;
+        } finally {
+            this.lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Removes the entity held under the ID; only if it is {@code expected} when that is not null.
+     * @return {@code T} the entity removed; null if none was.
+     */
+    @SuppressWarnings("unchecked")
+    T remove(final String entityID, final T expected) {
+        boolean compact = GUID.isCompact(entityID);
+        long high = compact ? GUID.highOf(entityID) : legacyKey(entityID);
+        long low = compact ? GUID.lowOf(entityID) : 0;
+
+        long stamp = this.lock.writeLock();
+        try {
+            Slots table = this.slots;
+            int slot = indexOf(table, entityID, compact, high, low);
+            if (slot < 0 || (expected != null && table.values[slot] != expected))
+                return null;
+
+            T removed = (T) table.values[slot];
+            table.kinds[slot] = DELETED;
+            table.values[slot] = null;
+            this.order[table.positions[slot]] = null;
+            this.size--;
+            return removed;
+        } finally {
+            this.lock.unlockWrite(stamp);
+        }
+    }
+
+    void clear() {
+        long stamp = this.lock.writeLock();
+        try {
+            this.slots = new Slots(MIN_CAPACITY);
+            this.order = new Object[MIN_CAPACITY];
+            this.orderEnd = 0;
+            this.size = 0;
+        } finally {
+            this.lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Returns the entity at a position among those held, in the order they were added, straight from the order;
+     * null if removals left gaps before {@link #closeGaps()} was called, as positions cannot be read through them.
+     * @throws IndexOutOfBoundsException if there is no entity at that position.
+     */
+    @SuppressWarnings("unchecked")
+    T at(final int index) {
+        long stamp = this.lock.tryOptimisticRead();
+        int size = this.size;
+        int end = this.orderEnd;
+        Object entity = entryAt(this.order, end, index);
+        if (!this.lock.validate(stamp)) {
+            stamp = this.lock.readLock();
+            try {
+                size = this.size;
+                end = this.orderEnd;
+                entity = entryAt(this.order, end, index);
+            } finally {
+                this.lock.unlockRead(stamp);
+            }
+        }
+
+        Objects.checkIndex(index, size);
+        return size == end ? (T) entity : null;
+    }
+
+    private static Object entryAt(final Object[] order, final int end, final int index) {
+        return index >= 0 && index < end && index < order.length ? order[index] : null;
+    }
+
+    /**
+     * Closes the gaps removals left in the order, so positions can be read straight from it again.
+     */
+    void closeGaps() {
+        long stamp = this.lock.writeLock();
+        try {
+            if (this.size != this.orderEnd)
+                rebuild(this.slots.kinds.length);
+        } finally {
+            this.lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Returns the entities in the order they were added. Must not be called during a write.
+     */
+    @SuppressWarnings("unchecked")
+    List<T> values() {
+        List<T> entities = new ArrayList<>(this.size);
+        for (int i = 0; i < this.orderEnd; i++)
+            if (this.order[i] != null)
+                entities.add((T) this.order[i]);
+        return entities;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T extends Entity> T find(final Slots table, final String entityID, final boolean compact,
+                                             final long high, final long low) {
+        int slot = indexOf(table, entityID, compact, high, low);
+        return slot < 0 ? null : (T) table.values[slot];
+    }
+
+    private static int indexOf(final Slots table, final String entityID, final boolean compact,
+                               final long high, final long low) {
+        int mask = table.mask();
+        for (int i = spread(high, low) & mask, probes = 0; probes <= mask; i = (i + 1) & mask, probes++) {
+            byte kind = table.kinds[i];
+            if (kind == EMPTY)
+                return -1;
+            if (matches(table, i, kind, entityID, compact, high, low))
+                return i;
+        }
+        return -1;
+    }
+
+    private static boolean matches(final Slots table, final int slot, final byte kind, final String entityID,
+                                   final boolean compact, final long high, final long low) {
+        if (kind != (compact ? COMPACT : LEGACY) || table.highs[slot] != high || table.lows[slot] != low)
+            return false;
+        if (compact)
+            return true;
+        Object value = table.values[slot];
+        return value != null && ((Entity) value).getID().equals(entityID);
+    }
+
+    /**
+     * Files an entity in the first free slot of its probe sequence; the key must not be held already.
+     */
+    private static void insert(final Slots table, final byte kind, final long high, final long low,
+                               final Object entity, final int position) {
+        int mask = table.mask();
+        int i = spread(high, low) & mask;
+        while (table.kinds[i] != EMPTY && table.kinds[i] != DELETED)
+            i = (i + 1) & mask;
+        if (table.kinds[i] == EMPTY)
+            table.used++;
+        table.highs[i] = high;
+        table.lows[i] = low;
+        table.values[i] = entity;
+        table.positions[i] = position;
+        table.kinds[i] = kind;
+    }
+
+    /**
+     * Grows the order when it is mostly live entities, or closes the gaps left by removed ones otherwise. Closing
+     * the gaps renumbers positions, so the table is rebuilt along with it.
+     */
+    private Slots compactOrder(final Slots table) {
+        if (this.size * 2 > this.order.length) {
+            this.order = Arrays.copyOf(this.order, this.order.length * 2);
+            return table;
+        }
+        return rebuild(table.kinds.length);
+    }
+
+    /**
+     * Refiles every live entity, in order, into fresh slots of the given capacity, dropping tombstones from both
+     * the slots and the order.
+     */
+    private Slots rebuild(final int capacity) {
+        Object[] live = new Object[Math.max(MIN_CAPACITY, Integer.highestOneBit(Math.max(this.size, 1)) * 2)];
+        Slots table = new Slots(capacity);
+        int position = 0;
+        for (int i = 0; i < this.orderEnd; i++) {
+            Object entity = this.order[i];
+            if (entity == null)
+                continue;
+            String entityID = ((Entity) entity).getID();
+            boolean compact = GUID.isCompact(entityID);
+            insert(table, compact ? COMPACT : LEGACY, compact ? GUID.highOf(entityID) : legacyKey(entityID),
+                    compact ? GUID.lowOf(entityID) : 0, entity, position);
+            live[position++] = entity;
+        }
+        this.order = live;
+        this.orderEnd = position;
+        this.slots = table;
+        return table;
+    }
+
+    private static long legacyKey(final String entityID) {
+        return entityID.hashCode() * 0x9E3779B97F4A7C15L;
+    }
+
+    private static int spread(final long high, final long low) {
+        long hash = (high ^ low) * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32));
+    }
+}
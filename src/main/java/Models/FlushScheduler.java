@@ -0,0 +1,102 @@
+package Models;
+
+import Entities.Entity;
+import Utilities.LogService;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <h2>Persists modified entities on a schedule.</h2>
+ *
+ * <p>
+ * Views may change an entity through its setters without writing it; the entity then reports
+ * {@code hasChanged()}. Every interval, the scheduler collects the changed entities of each registered model and
+ * writes them with one {@code upsertAll} per model, so a burst of edits, such as repricing the whole menu, costs a
+ * single write per model rather than one per edit. Models are flushed in the order they were registered; register
+ * a model before the models whose entities refer to it.
+ * </p>
+ *
+ * <p>
+ * Closing the scheduler stops the background thread and flushes one last time.
+ * </p>
+ */
+public final class FlushScheduler implements AutoCloseable {
+    public static final Duration DEFAULT_INTERVAL = Duration.ofSeconds(5);
+
+    private final CopyOnWriteArrayList<EntityModel<?>> models = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService executor;
+    private final LogService logger = new LogService(this.getClass().getName());
+
+    public FlushScheduler() {
+        this(DEFAULT_INTERVAL);
+    }
+
+    /**
+     * Creates a scheduler flushing its models from its own background thread.
+     * @param interval {@code Duration} between two flushes.
+     */
+    public FlushScheduler(final Duration interval) {
+        if (interval.isZero() || interval.isNegative())
+            throw new IllegalArgumentException("Flush interval must be positive.");
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "flush-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long millis = interval.toMillis();
+        this.executor.scheduleWithFixedDelay(this::flush, millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Adds models whose changed entities are flushed by this scheduler.
+     * @param entityModels {@code EntityModel<?>} models to be flushed, in order.
+     */
+    public void register(final EntityModel<?>... entityModels) {
+        this.models.addAll(List.of(entityModels));
+    }
+
+    /**
+     * Writes the changed entities of every registered model.
+     * @return {@code int} number of changed entities handed to the models.
+     */
+    public int flush() {
+        int flushed = 0;
+        for (EntityModel<?> model : this.models) {
+            try {
+                flushed += flushModel(model);
+            } catch (RuntimeException ex) {
+                this.logger.logWarning("Encountered an exception (" + ex.getMessage() + ") while flushing the " +
+                        "changed entities of " + model.getClass().getSimpleName() + ".\n" + ex);
+            }
+        }
+        if (flushed > 0)
+            this.logger.logVerbose("Flushed " + flushed + " changed entities.");
+        return flushed;
+    }
+
+    /**
+     * Stops the background thread, then flushes the changes made since the last flush.
+     */
+    @Override
+    public void close() {
+        this.executor.shutdown();
+        try {
+            this.executor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    private static <T extends Entity> int flushModel(final EntityModel<T> model) {
+        List<T> changed = model.getChangedEntities();
+        if (!changed.isEmpty())
+            model.upsertAll(changed);
+        return changed.size();
+    }
+}
@@ -0,0 +1,74 @@
+package Models;
+
+import Entities.Entity;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * <h2>Index from a parent entity's ID to the entities referencing it.</h2>
+ *
+ * <p>
+ * Each entity is filed under the parent IDs returned by {@code parentIDs}, such as a variant option under its
+ * variant or a product under each of its variants. Looking up the children of a parent costs as much as the children
+ * found rather than a scan over the model. The index remembers the parents each entity was filed under, so an entity
+ * re-linked and then upserted is moved rather than left under its old parents.
+ * </p>
+ * @param <T> type of entity indexed.
+ */
+final class ForeignKeyIndex<T extends Entity> implements EntityIndex<T> {
+    private final Function<T, Collection<String>> parentIDs;
+    private final HashMap<String, Map<String, T>> children = new HashMap<>();
+    private final HashMap<String, List<String>> parents = new HashMap<>();
+
+    /**
+     * @param parentIDs returns the IDs of the parents an entity references; never null.
+     */
+    ForeignKeyIndex(final Function<T, Collection<String>> parentIDs) {
+        this.parentIDs = parentIDs;
+    }
+
+    @Override
+    public synchronized void put(final T entity) {
+        remove(entity.getID());
+        List<String> entityParents = List.copyOf(this.parentIDs.apply(entity));
+        this.parents.put(entity.getID(), entityParents);
+        for (String parentID : entityParents)
+            this.children.computeIfAbsent(parentID, ignored -> new LinkedHashMap<>()).put(entity.getID(), entity);
+    }
+
+    @Override
+    public synchronized void remove(final String entityID) {
+        List<String> entityParents = this.parents.remove(entityID);
+        if (entityParents == null)
+            return;
+        for (String parentID : entityParents) {
+            Map<String, T> siblings = this.children.get(parentID);
+            if (siblings != null && siblings.remove(entityID) != null && siblings.isEmpty())
+                this.children.remove(parentID);
+        }
+    }
+
+    @Override
+    public synchronized void clear() {
+        this.children.clear();
+        this.parents.clear();
+    }
+
+    /**
+     * Entities filed under the parent, in the order they were indexed.
+     */
+    synchronized List<T> childrenOf(final String parentID) {
+        Map<String, T> found = this.children.get(parentID);
+        return found == null ? List.of() : List.copyOf(found.values());
+    }
+
+    synchronized boolean isChildOf(final String parentID, final String entityID) {
+        Map<String, T> found = this.children.get(parentID);
+        return found != null && found.containsKey(entityID);
+    }
+}
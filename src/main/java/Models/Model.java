@@ -1,21 +1,29 @@
 package Models;
 
-import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
 
 import Constants.LogLevel;
+import Constants.SyncPolicy;
 import Entities.Entity;
 import Interfaces.ViewActionObserver;
+import Models.Storage.Compactable;
+import Models.Storage.CsvStorageEngine;
+import Models.Storage.StorageCompactor;
+import Models.Storage.StorageEngine;
 
 
 /**
@@ -27,14 +35,26 @@ import Interfaces.ViewActionObserver;
  * <b>csvFilePath</b> a {@code String} to the file path as we will create the path/file here.
  * <b>expectedFields</b> {@code int} is the exact number of fields in a line we expect when validating a line.
  * </p>
+ *
+ * <p>
+ * Records are kept by a {@code StorageEngine}, a {@code CsvStorageEngine} over the CSV file unless another engine
+ * is set through {@link #setStorageEngine(StorageEngine)}.
+ * </p>
+ *
+ * <p>
+ * Writes are serialized by the model's lock, which is released even when a write fails.
+ * </p>
  */
 public class Model {
-    protected final File CSV_FILE;
     protected final Path CSV_PATH;
+    protected volatile StorageEngine<Entity> storage;
+    private StorageCompactor compactor;
+    private SyncPolicy syncPolicy = SyncPolicy.OS_DEFAULT;
+    private Duration syncInterval = Duration.ZERO;
     private final int EXPECTED_FIELDS;
-    private boolean modelLocked;
-    protected ArrayList<ViewActionObserver> observers = new ArrayList<>();
-    private final List<LogMessage> logMessages = new ArrayList<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    protected CopyOnWriteArrayList<ViewActionObserver> observers = new CopyOnWriteArrayList<>();
+    private final List<LogMessage> logMessages = Collections.synchronizedList(new ArrayList<>());
 
 
     /**
@@ -43,8 +63,8 @@ public class Model {
      * @param expectedFields {@code int} how many fields we are expecting when validating a line.
      */
     public Model(final String csvFilePath, final int expectedFields) {
-        this.CSV_FILE = new File(csvFilePath);
         this.CSV_PATH = Paths.get(csvFilePath);
+        this.storage = new CsvStorageEngine<>(this.CSV_PATH);
         this.EXPECTED_FIELDS = expectedFields;
     }
 
@@ -53,28 +73,23 @@ public class Model {
      * Edits an existing entity in this model. Requires to be overridden by its children.
      */
     public void editEntity(Entity entity) throws Exception {
-        if (modelLocked) { throw new Exception(LogLevel.WARNING + "Model is locked."); }
-        modelLocked = true;
-
-        // Confirms the line exists in the CSV file.
-        if (getIndexFromFile(entity.getID()).isPresent()) {
-            List<String> lines = Files.readAllLines(CSV_PATH);
-
-            // Create a new line based on the entity's ordered save list. Joins the results with a comma.
-            String newLine = entity.getSerializationChain().stream().map(fun -> fun.get().toString()).collect(Collectors.joining(","));
-
-            // Write to the file. Grabs the index in the file via getIndexFromFile.
-            lines.set(getIndexFromFile(entity.getID()).get(), newLine);
-            Files.write(CSV_PATH, lines, StandardCharsets.UTF_8);
-            entity.resetChangedState();
-            for (ViewActionObserver observer : this.observers) { observer.notifyModifiedEntity(entity); }
-            addLogMessage(LogLevel.SUCCESS, "Persisted changes to UID '" + entity.getID() + "'.");
-        } else {
-            addLogMessage(LogLevel.WARNING, "Could not persist changes to entity " + entity.getID() + " because no such entity was found in CSV. "
-                        + "Double-check the CSV file for the entity.");
-            throw new Exception(LogLevel.WARNING + "Could not find entity (" + entity.getID() + ") in CSV.");
+        lock.lock();
+        try {
+            // Confirms the record exists in storage.
+            if (storage.contains(entity.getID())) {
+                // Replaces the entity's record; the storage engine locates it through its index.
+                storage.put(entity);
+                entity.resetChangedState();
+                for (ViewActionObserver observer : this.observers) { observer.notifyModifiedEntity(entity); }
+                addLogMessage(LogLevel.SUCCESS, "Persisted changes to UID '" + entity.getID() + "'.");
+            } else {
+                addLogMessage(LogLevel.WARNING, "Could not persist changes to entity " + entity.getID() + " because no such entity was found in CSV. "
+                            + "Double-check the CSV file for the entity.");
+                throw new Exception(LogLevel.WARNING + "Could not find entity (" + entity.getID() + ") in CSV.");
+            }
+        } finally {
+            lock.unlock();
         }
-        modelLocked = false;
     }
 
 
@@ -83,17 +98,15 @@ public class Model {
      * @param entity Entity
      */
     public void deleteEntity(Entity entity) throws Exception {
-        if (modelLocked) { throw new Exception(LogLevel.WARNING + "Model is locked."); }
-        modelLocked = true;
-        
-        // Removes the requested entity from the database using a stream and filter.
-        // Acts like a while loop, building up the list that we'll need to replace the file anyway.
-        List<String> lines = Files.readAllLines(CSV_PATH).stream()
-            .filter(line -> !line.contains(entity.getID()))
-            .toList();
-
-        Files.write(CSV_PATH, lines, StandardCharsets.UTF_8);
-        modelLocked = false;
+        lock.lock();
+        try {
+            // Removes only the requested entity's record; the storage engine locates it through its index.
+            storage.delete(entity.getID());
+            if (compactor != null && storage instanceof Compactable compactable)
+                compactor.requestCompaction(compactable);
+        } finally {
+            lock.unlock();
+        }
     }
 
 
@@ -101,53 +114,84 @@ public class Model {
      * Adds an entity to the database.
      */
     public void addEntity(Entity entity) throws Exception {
-        if (modelLocked) { throw new Exception(LogLevel.WARNING + "Model is locked."); }
-        modelLocked = true;
-
-        List<String> lines = Files.readAllLines(CSV_PATH);
-
-        // Create a new line based on the entity's ordered save list. Joins the results with a comma.
-        String newLine = entity.getSerializationChain()
-                .stream().map(fun -> fun.get().toString())
-                .collect(Collectors.joining(","));
-        System.out.println(" >> NEWLINE: '" + newLine + "'.");
-
-        // Verify the line isn't null.
-        if (newLine.equals("")) {
-            addLogMessage(LogLevel.WARNING, "Could not persist entity " + entity.getID() + " because the payload was null. "
-                        + "Did you create a valid subtype with a defined save order?");
-            throw new Exception(LogLevel.WARNING + "Line is invalid.");
-        }
+        lock.lock();
+        try {
+            // Create a new line based on the entity's ordered save list. Joins the results with a comma.
+            String newLine = entity.serialize();
 
-        // Persist the entity.
-        lines.add(newLine);
+            // Verify the line isn't null.
+            if (newLine.equals("")) {
+                addLogMessage(LogLevel.WARNING, "Could not persist entity " + entity.getID() + " because the payload was null. "
+                            + "Did you create a valid subtype with a defined save order?");
+                throw new Exception(LogLevel.WARNING + "Line is invalid.");
+            }
 
-        Files.write(CSV_PATH, lines, StandardCharsets.UTF_8);
-        modelLocked = false;
+            // Persist the entity by adding its record to storage.
+            storage.put(entity.getID(), newLine);
+        } finally {
+            lock.unlock();
+        }
     }
 
 
     /**
-     * Retrieves an index from the file based on the UID passed to it.
+     * Retrieves an index from storage based on the UID passed to it; the position of its record in storage order,
+     * answered from the storage engine's index.
      * @param UID unique identifier
      * @return int
      */
     public Optional<Integer> getIndexFromFile(String UID) {
-        Optional<Integer> index;
-        
+        Optional<Integer> position = Optional.empty();
         try {
-            List<String> lines = Files.readAllLines(CSV_PATH);
-            for (int i = 0; i < lines.size(); i++) {
-                if (lines.get(i).contains(UID)) {
-                    index = Optional.of(i);
-                    System.out.println(" >> getIndexFromFile found index #" + index + ".\n\t" + i); // todo remove this line
-                    return index;
-                }
-            }
-        } catch (IOException ex) {
+            position = storage.positionOf(UID);
+        } catch (IOException | UncheckedIOException ex) {
+            addLogMessage(LogLevel.WARNING, "Could not read storage while looking for " + UID + ".\n" + ex);
+        }
+
+        if (position.isEmpty())
             addLogMessage(LogLevel.WARNING, "Corrupt data in model. Could not find index in CSV file for " + UID);
+        return position;
+    }
+
+    /**
+     * Moves this model onto another storage engine. The model should be reloaded from it afterwards. The engine
+     * takes over the model's {@code SyncPolicy}.
+     * @param engine {@code StorageEngine<Entity>} to be used.
+     */
+    public void setStorageEngine(final StorageEngine<Entity> engine) {
+        lock.lock();
+        try {
+            engine.setSyncPolicy(this.syncPolicy, this.syncInterval);
+            this.storage = engine;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+
+    /**
+     * Sets when this model's writes are forced to disk; by default, {@code OS_DEFAULT}.
+     * @param policy {@code SyncPolicy} to be used.
+     * @param interval {@code Duration} between forces with {@code BATCHED}; ignored otherwise.
+     */
+    public void setSyncPolicy(final SyncPolicy policy, final Duration interval) {
+        lock.lock();
+        try {
+            this.storage.setSyncPolicy(policy, interval);
+            this.syncPolicy = policy;
+            this.syncInterval = interval == null ? Duration.ZERO : interval;
+        } finally {
+            lock.unlock();
         }
-        return Optional.empty();
+    }
+
+
+    /**
+     * Sets the compactor that removes the tombstones left in storage by deletes.
+     * @param compactor {@code StorageCompactor} to be used; null to stop compacting.
+     */
+    public void setCompactor(final StorageCompactor compactor) {
+        this.compactor = compactor;
     }
 
 
@@ -236,10 +280,12 @@ public class Model {
      */
     public void saveReport(final String fileName) {
         final Path PATH = Paths.get(fileName);
-        List<String> fileContent = new ArrayList<>(this.logMessages.size());
-
-        for (LogMessage log : this.logMessages) {
-            fileContent.add(log.toString());
+        List<String> fileContent;
+        synchronized (this.logMessages) {
+            fileContent = new ArrayList<>(this.logMessages.size());
+            for (LogMessage log : this.logMessages) {
+                fileContent.add(log.toString());
+            }
         }
 
         try {
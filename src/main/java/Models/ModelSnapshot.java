@@ -0,0 +1,176 @@
+package Models;
+
+import Models.Storage.AtomicFiles;
+import Utilities.LogService;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <h2>Binary image of several models, used to skip parsing their files on startup.</h2>
+ *
+ * <p>
+ * {@link #write(List)} dumps the entities of every model, in order, into a single file along with the size and
+ * modification time of each file the models are read from. The fields of each entity are stored decoded, as
+ * written by {@code SerializationSchema.writeFields}, so restoring them parses no text. {@link #restore(List)} only
+ * loads the models from the image when every one of those files still has the same size and modification time,
+ * compared to the nanosecond where the file system records it, so checking the files does not read them. If they
+ * changed, or the image cannot be read, the snapshot is a miss: the models should be loaded from their files as
+ * usual.
+ * </p>
+ *
+ * <p>
+ * Models are written and restored in the order given, so a model must come after the models its entities refer
+ * to: variants, then variant options, then products. The file layout is:
+ * </p>
+ * <pre>
+ * [int magic][int model count]
+ * per model:  [UTF class name][int file count] per file: [UTF path][long size][long modified nanos]
+ * per model:  [int field count][byte kind per field][int entity count] per entity: [decoded fields]
+ * </pre>
+ */
+public final class ModelSnapshot {
+    private static final int MAGIC = 0x54534E33; // "TSN3"
+    private static final long MISSING = -1;
+
+    private final Path path;
+    private final LogService logger = new LogService(this.getClass().getName());
+
+    /**
+     * @param path {@code Path} to the snapshot file.
+     */
+    public ModelSnapshot(final Path path) {
+        this.path = path;
+    }
+
+    public Path getPath() {
+        return this.path;
+    }
+
+    public LogService getLogger() {
+        return this.logger;
+    }
+
+    /**
+     * Writes a snapshot of the models. Should be called once every write of the models has reached their files,
+     * such as on a clean shutdown. The file is written next to the snapshot and moved over it, so an interrupted
+     * write leaves the previous snapshot in place.
+     * @param models {@code List<EntityModel<?>>} models to be saved, in load order.
+     * @return {@code boolean} false if the snapshot could not be written.
+     */
+    public boolean write(final List<? extends EntityModel<?>> models) {
+        Path temporary = AtomicFiles.temporaryFor(this.path);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(models.size());
+            for (EntityModel<?> model : models) {
+                out.writeUTF(model.getClass().getName());
+                List<Path> files = model.sourceFiles();
+                out.writeInt(files.size());
+                for (Path file : files) {
+                    out.writeUTF(file.toString());
+                    writeFingerprint(out, file);
+                }
+            }
+            for (EntityModel<?> model : models)
+                model.writeSnapshot(out);
+        } catch (IOException ex) {
+            this.logger.logWarning("Could not write the model snapshot to " + this.path + ".\n" + ex);
+            return false;
+        }
+
+        try {
+            AtomicFiles.replace(temporary, this.path);
+            this.logger.logSuccess("Wrote a snapshot of " + models.size() + " models to " + this.path + ".");
+            return true;
+        } catch (IOException ex) {
+            this.logger.logWarning("Could not replace the model snapshot " + this.path + ".\n" + ex);
+            return false;
+        }
+    }
+
+    /**
+     * Loads the models from the snapshot when it was written for these models and none of their files changed
+     * since. The models must be given in the order they were written.
+     * @param models {@code List<EntityModel<?>>} models to be loaded, in load order.
+     * @return {@code boolean} true if every model was loaded from the snapshot; false if they should be loaded
+     *         from their files, in which case the models restored before the failure should be loaded again too.
+     */
+    public boolean restore(final List<? extends EntityModel<?>> models) {
+        if (!Files.isRegularFile(this.path))
+            return false;
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(this.path)))) {
+            if (in.readInt() != MAGIC || in.readInt() != models.size()) {
+                this.logger.logVerbose("Model snapshot " + this.path + " does not match the models; ignoring it.");
+                return false;
+            }
+            for (EntityModel<?> model : models) {
+                if (!in.readUTF().equals(model.getClass().getName()) || model.createDeserializer() == null) {
+                    this.logger.logVerbose("Model snapshot " + this.path + " does not match the models; ignoring it.");
+                    return false;
+                }
+                List<Path> files = model.sourceFiles();
+                if (in.readInt() != files.size())
+                    return false;
+                for (Path file : files)
+                    if (!in.readUTF().equals(file.toString()) || !fingerprintMatches(in, file)) {
+                        this.logger.logVerbose("Model snapshot " + this.path + " is out of date; " + file
+                                + " changed since it was written.");
+                        return false;
+                    }
+            }
+            for (EntityModel<?> model : models)
+                model.restoreSnapshot(in);
+        } catch (IOException | RuntimeException ex) {
+            this.logger.logWarning("Could not read the model snapshot " + this.path + "; ignoring it.\n" + ex);
+            return false;
+        }
+
+        this.logger.logSuccess("Restored " + models.size() + " models from the snapshot " + this.path + ".");
+        return true;
+    }
+
+    /**
+     * Removes the snapshot so the next start loads the models from their files.
+     */
+    public void invalidate() {
+        try {
+            Files.deleteIfExists(this.path);
+        } catch (IOException ex) {
+            this.logger.logWarning("Could not remove the model snapshot " + this.path + ".\n" + ex);
+        }
+    }
+
+    private static void writeFingerprint(final DataOutputStream out, final Path file) throws IOException {
+        if (!Files.isRegularFile(file)) {
+            out.writeLong(MISSING);
+            out.writeLong(MISSING);
+            return;
+        }
+        out.writeLong(Files.size(file));
+        out.writeLong(modifiedNanos(file));
+    }
+
+    /**
+     * Compares a fingerprint read from the snapshot with the file's attributes.
+     */
+    private static boolean fingerprintMatches(final DataInputStream in, final Path file) throws IOException {
+        long size = in.readLong();
+        long modified = in.readLong();
+        if (!Files.isRegularFile(file))
+            return size == MISSING;
+        return size == Files.size(file) && modified == modifiedNanos(file);
+    }
+
+    private static long modifiedNanos(final Path file) throws IOException {
+        return Files.getLastModifiedTime(file).to(TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,117 @@
+package Models;
+
+import Entities.Product;
+import Entities.ProductCategory;
+import Utilities.Money;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * <h2>Secondary indexes over the products of a {@code ProductModel}.</h2>
+ *
+ * <p>
+ * Products are indexed by category, by lower-cased name for prefix lookups and by price in cents. The index
+ * remembers the keys each product was filed under, so a product edited in place and then upserted is moved rather
+ * than left under its old keys. Edits that have not been written to the model yet are not reflected.
+ * </p>
+ */
+final class ProductIndex implements EntityIndex<Product> {
+    private final EnumMap<ProductCategory, Map<String, Product>> byCategory = new EnumMap<>(ProductCategory.class);
+    private final TreeMap<String, Map<String, Product>> byName = new TreeMap<>();
+    private final TreeMap<Long, Map<String, Product>> byPrice = new TreeMap<>();
+    private final HashMap<String, Keys> keys = new HashMap<>();
+
+    /**
+     * Keys a product is filed under.
+     */
+    private record Keys(ProductCategory category, String name, long priceCents) {
+        static Keys of(final Product product) {
+            ProductCategory category = product.getCategory() == null ?
+                    ProductCategory.UNASSIGNED : product.getCategory();
+            String name = product.getProductName() == null ? "" : normalize(product.getProductName());
+            return new Keys(category, name, product.getPriceCents());
+        }
+    }
+
+    @Override
+    public synchronized void put(final Product product) {
+        remove(product.getID());
+        Keys productKeys = Keys.of(product);
+        this.keys.put(product.getID(), productKeys);
+        addTo(this.byCategory, productKeys.category(), product);
+        addTo(this.byName, productKeys.name(), product);
+        addTo(this.byPrice, productKeys.priceCents(), product);
+    }
+
+    @Override
+    public synchronized void remove(final String productID) {
+        Keys productKeys = this.keys.remove(productID);
+        if (productKeys == null)
+            return;
+        removeFrom(this.byCategory, productKeys.category(), productID);
+        removeFrom(this.byName, productKeys.name(), productID);
+        removeFrom(this.byPrice, productKeys.priceCents(), productID);
+    }
+
+    @Override
+    public synchronized void clear() {
+        this.keys.clear();
+        this.byCategory.clear();
+        this.byName.clear();
+        this.byPrice.clear();
+    }
+
+    synchronized List<Product> byCategory(final ProductCategory category) {
+        Map<String, Product> products = this.byCategory.get(category);
+        return products == null ? List.of() : List.copyOf(products.values());
+    }
+
+    /**
+     * Products whose name starts with the prefix, ignoring case, sorted by name.
+     */
+    synchronized List<Product> byNamePrefix(final String prefix) {
+        String from = normalize(prefix);
+        return flatten(this.byName.subMap(from, true, from + Character.MAX_VALUE, false).values());
+    }
+
+    /**
+     * Products priced between the bounds, both included, sorted by price. The bounds are rounded to cents.
+     */
+    synchronized List<Product> byPriceRange(final double lowest, final double highest) {
+        long lowestCents = Money.ofDollars(lowest);
+        long highestCents = Money.ofDollars(highest);
+        if (lowestCents > highestCents)
+            return List.of();
+        NavigableMap<Long, Map<String, Product>> range = this.byPrice.subMap(lowestCents, true, highestCents, true);
+        return flatten(range.values());
+    }
+
+    private static String normalize(final String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    private static <K> void addTo(final Map<K, Map<String, Product>> index, final K key, final Product product) {
+        index.computeIfAbsent(key, ignored -> new LinkedHashMap<>()).put(product.getID(), product);
+    }
+
+    private static <K> void removeFrom(final Map<K, Map<String, Product>> index, final K key, final String productID) {
+        Map<String, Product> products = index.get(key);
+        if (products != null && products.remove(productID) != null && products.isEmpty())
+            index.remove(key);
+    }
+
+    private static List<Product> flatten(final Collection<Map<String, Product>> groups) {
+        List<Product> products = new ArrayList<>();
+        groups.forEach(group -> products.addAll(group.values()));
+        return products;
+    }
+}
@@ -1,23 +1,73 @@
 package Models;
 
 import Entities.Product;
+import Entities.ProductCategory;
+import Entities.ProductVariant;
 import Interfaces.DeserializeEntityInterface;
 import Services.IDGenerator;
 import Services.VariantService;
 import Utilities.LogService;
 
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 
 /**
  * A class to handle reading and writing of {@code Product} entities.
+ *
+ * Products are indexed by category, name, price and variant as they are loaded, upserted and deleted, so the
+ * {@code findBy} queries do not walk the whole catalog.
  */
 public class ProductModel extends EntityModel<Product> {
     private final VariantService variantService;
+    private final ProductIndex index = new ProductIndex();
+    private final ForeignKeyIndex<Product> byVariant = new ForeignKeyIndex<>(product ->
+            product.getVariants().stream().map(ProductVariant::getID).toList());
 
     public ProductModel(final VariantService variantService) {
         this.filePath = Paths.get("src/main/resources/ProductList.txt");
         this.logger = new LogService(this.getClass().getName());
         this.variantService = variantService;
+        this.entities.addIndex(this.index);
+        this.entities.addIndex(this.byVariant);
+    }
+
+    /**
+     * Returns the products assigned to the category.
+     * @param category {@code ProductCategory} to be matched.
+     * @return {@code List<Product>}
+     */
+    public List<Product> findByCategory(final ProductCategory category) {
+        return this.index.byCategory(category);
+    }
+
+    /**
+     * Returns the products whose name starts with the prefix, ignoring case, sorted by name.
+     * @param prefix {@code String} start of the name; an empty prefix matches every product.
+     * @return {@code List<Product>}
+     */
+    public List<Product> findByNamePrefix(final String prefix) {
+        return this.index.byNamePrefix(prefix);
+    }
+
+    /**
+     * Returns the products the variant is assigned to, as they were last written to the model.
+     * @param variantID {@code String} ID of the variant.
+     * @return {@code List<Product>}
+     */
+    public List<Product> findByVariant(final String variantID) {
+        return this.byVariant.childrenOf(variantID);
+    }
+
+    /**
+     * Returns the products priced between the bounds, both included, sorted by price.
+     * @param lowest {@code double} lowest price.
+     * @param highest {@code double} highest price.
+     * @return {@code List<Product>}
+     */
+    public List<Product> findByPriceRange(final double lowest, final double highest) {
+        return this.index.byPriceRange(lowest, highest);
     }
 
     /**
@@ -39,6 +89,28 @@ public class ProductModel extends EntityModel<Product> {
         }
     }
 
+    /**
+     * Persists a batch of {@code Product} entities with a single write. Products with variants that no longer
+     * exist are skipped, logging an exception and rejecting them, and the rest of the batch is still written.
+     * @param batch {@code Collection<Product>} to be modified.
+     * @return {@code BatchResult<Product>}
+     */
+    @Override
+    public BatchResult<Product> upsertAll(Collection<Product> batch) {
+        List<Product> validProducts = new ArrayList<>(batch.size());
+        List<Product> invalidProducts = new ArrayList<>();
+        for (Product entity : batch) {
+            if (variantService.validateVariantsTiedToProduct(entity)) {
+                validProducts.add(entity);
+            } else {
+                logger.logWarning("Could not upsert entity " + entity.getID() + "; not all variants "
+                        + "are valid on the product object.");
+                invalidProducts.add(entity);
+            }
+        }
+        return super.processUpsertAll(validProducts).withRejected(invalidProducts);
+    }
+
     @Override
     public void insert(Product entity) {
         super.processInsert(entity);
@@ -49,24 +121,22 @@ public class ProductModel extends EntityModel<Product> {
         super.processDelete(entity);
     }
 
+    @Override
+    protected DeserializeEntityInterface createDeserializer() {
+        return new DeserializeProduct(this.variantService);
+    }
+
     /**
      * Loads all the entities in this model. Required to call prior to using the model.
      */
     @Override
     public void loadEntities() {
-        DeserializeEntityInterface deserializeProducts = new DeserializeProduct(this.variantService);
         this.entities.clear();
-
-        readCSVFile(this.filePath).stream()
-                .filter(this::lineIsValid)
-                .map(deserializeProducts::deserialize)
-                .forEach(entity -> this.entities.put(entity.getID(), (Product) entity));
+        loadRecords(this::createDeserializer, this::lineIsValid, false);
 
         this.logger.logVerbose("Product model has finished loading entities." +
                 "\n\t• " + this.entities.size() + " successfully parsed." +
                 "\n\t• " + super.getFailedEntities() + " failed to parse.");
-
-        this.logger.addManyLogs(deserializeProducts.getLogs().toArray(new LogMessage[0]));
     }
 
     /**
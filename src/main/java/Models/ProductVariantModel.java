@@ -8,6 +8,9 @@ import Services.VariantService;
 import Utilities.LogService;
 
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -41,6 +44,28 @@ public class ProductVariantModel extends EntityModel<ProductVariant> {
         }
     }
 
+    /**
+     * Persists a batch of {@code ProductVariant} entities with a single write. Variants with options that no longer
+     * exist are skipped, logging an exception and rejecting them, and the rest of the batch is still written.
+     * @param batch {@code Collection<ProductVariant>} to be modified.
+     * @return {@code BatchResult<ProductVariant>}
+     */
+    @Override
+    public BatchResult<ProductVariant> upsertAll(Collection<ProductVariant> batch) {
+        List<ProductVariant> validVariants = new ArrayList<>(batch.size());
+        List<ProductVariant> invalidVariants = new ArrayList<>();
+        for (ProductVariant entity : batch) {
+            if (variantService.validateVariantOptionsTiedToVariant(entity)) {
+                validVariants.add(entity);
+            } else {
+                logger.logWarning("Could not upsert entity " + entity.getID() + "; not all variant options "
+                        + "are valid on the variant object.");
+                invalidVariants.add(entity);
+            }
+        }
+        return super.processUpsertAll(validVariants).withRejected(invalidVariants);
+    }
+
     @Override
     public void delete(ProductVariant entity) {
         super.processDelete(entity);
@@ -48,24 +73,32 @@ public class ProductVariantModel extends EntityModel<ProductVariant> {
         variantService.deleteVariantFromProducts(entity);
     }
 
+    @Override
+    public BatchResult<ProductVariant> deleteAll(Collection<ProductVariant> batch) {
+        BatchResult<ProductVariant> result = super.processDeleteAll(batch);
+        if (!result.committed().isEmpty()) {
+            variantService.deleteVariantOptionsFromVariants(result.committed());
+            variantService.deleteVariantsFromProducts(result.committed());
+        }
+        return result;
+    }
+
+    @Override
+    protected DeserializeEntityInterface createDeserializer() {
+        return new DeserializeProductVariants();
+    }
+
     /**
      * Loads all the entities in this model. Required to call prior to using the model.
      */
     @Override
     public void loadEntities() {
-        DeserializeEntityInterface deserializeVariants = new DeserializeProductVariants();
         this.entities.clear();
-
-        readCSVFile(this.filePath).stream()
-                .filter(this::lineIsValid)
-                .map(deserializeVariants::deserialize)
-                .forEach(entity -> this.entities.put(entity.getID(), (ProductVariant) entity));
+        loadRecords(this::createDeserializer, this::lineIsValid, false);
 
         this.logger.logVerbose("Product variant model has finished loading entities." +
                 "\n\t• " + this.entities.size() + " successfully parsed." +
                 "\n\t• " + super.getFailedEntities() + " failed to parse.");
-
-        this.logger.addManyLogs(deserializeVariants.getLogs().toArray(new LogMessage[0]));
     }
 
     /**
@@ -7,17 +7,43 @@ import Services.VariantService;
 import Utilities.LogService;
 
 import java.nio.file.Paths;
+import java.util.List;
 
 /**
  * A class to handle reading and writing of variant entities.
+ *
+ * Options are indexed by their parent variant as they are loaded, upserted and deleted, so the options of a variant
+ * are found without walking every option.
  */
 public class ProductVariantOptionModel extends EntityModel<ProductVariantOption> {
     private final VariantService variantService;
+    private final ForeignKeyIndex<ProductVariantOption> byVariant = new ForeignKeyIndex<>(option ->
+            option.getVariant() == null ? List.of() : List.of(option.getVariant().getID()));
 
     public ProductVariantOptionModel(VariantService variantService) {
         this.filePath = Paths.get("src/main/resources/ProductVariantOptions.txt");
         this.logger = new LogService(this.getClass().getName());
         this.variantService = variantService;
+        this.entities.addIndex(this.byVariant);
+    }
+
+    /**
+     * Returns the options stored under the variant, in the order they were written to the model.
+     * @param variantID {@code String} ID of the parent variant.
+     * @return {@code List<ProductVariantOption>}
+     */
+    public List<ProductVariantOption> findByVariant(final String variantID) {
+        return this.byVariant.childrenOf(variantID);
+    }
+
+    /**
+     * Checks whether the option is stored in this model under the variant.
+     * @param variantID {@code String} ID of the parent variant.
+     * @param optionID {@code String} ID of the option.
+     * @return {@code boolean} true if the option exists and belongs to the variant.
+     */
+    public boolean isOptionOf(final String variantID, final String optionID) {
+        return this.byVariant.isChildOf(variantID, optionID);
     }
 
     /**
@@ -39,24 +65,22 @@ public class ProductVariantOptionModel extends EntityModel<ProductVariantOption>
         super.processDelete(entity);
     }
 
+    @Override
+    protected DeserializeEntityInterface createDeserializer() {
+        return new DeserializeProductVariantOptions(this.variantService.variantModel());
+    }
+
     /**
      * Loads all the entities in this model. Required to call prior to using the model.
      */
     @Override
     public void loadEntities() {
-        DeserializeEntityInterface deserializeVariantOptions = new DeserializeProductVariantOptions(this.variantService.variantModel());
         this.entities.clear();
-
-        readCSVFile(this.filePath).stream()
-                .filter(this::lineIsValid)
-                .map(deserializeVariantOptions::deserialize)
-                .forEach(entity -> this.entities.put(entity.getID(), (ProductVariantOption) entity));
+        loadRecords(this::createDeserializer, this::lineIsValid, false);
 
         this.logger.logVerbose("Product variant model has finished loading entities." +
                 "\n\t• " + this.entities.size() + " successfully parsed." +
                 "\n\t• " + super.getFailedEntities() + " failed to parse.");
-
-        this.logger.addManyLogs(deserializeVariantOptions.getLogs().toArray(new LogMessage[0]));
     }
 
     /**
@@ -1,7 +1,5 @@
 package Models;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
 import java.util.Collection;
 import java.util.HashMap;
@@ -83,20 +81,15 @@ public class RestaurantModel extends Model {
      * @return boolean, returns false if any exceptions are encountered
      */
     public boolean loadEntities() {
-        int failedToParse = 0;
+        int[] failedToParse = { 0 };
 
-        try (BufferedReader reader = new BufferedReader(new FileReader(super.CSV_FILE))) {
-            String line = reader.readLine();
-
-            while (line != null) {
-                if (super.lineIsValid(line) && parseEntity(line)) {
-                } else {
+        try {
+            super.storage.scan(line -> {
+                if (!super.lineIsValid(line) || !parseEntity(line)) {
                     super.addLogMessage(LogLevel.WARNING, "Could not parse line \n'" + line + "'' in location model; line was invalid.");
-                    failedToParse++;
+                    failedToParse[0]++;
                 }
-
-                line = reader.readLine();
-            }
+            });
 
             return true;
         } catch (IOException ex) {
@@ -106,7 +99,7 @@ public class RestaurantModel extends Model {
             super.addLogMessage(LogLevel.VERBOSE,
                         "Model has finished loading entities."
                         + "\n\t" + this.entities.size() + " successfully entities parsed."
-                        + "\n\t" + failedToParse + " entities failed to parsed.", true);
+                        + "\n\t" + failedToParse[0] + " entities failed to parsed.", true);
         }
     }
 
@@ -0,0 +1,103 @@
+package Models.Storage;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * <h2>Replaces whole files without ever leaving them half-written.</h2>
+ *
+ * <p>
+ * The new content is written to a temporary file next to the target, forced to disk, then moved over the target in
+ * a single rename. A crash at any point leaves either the old file or the new one, never a truncated mix; at worst a
+ * stray temporary file remains, which the next replacement overwrites. The directory is forced after the rename, so
+ * the rename itself survives a power loss on file systems that support it.
+ * </p>
+ */
+public final class AtomicFiles {
+    public static final String TEMPORARY_EXTENSION = ".tmp";
+
+    private AtomicFiles() {}
+
+    /**
+     * Replaces the file with the lines, each followed by the platform's line separator, as {@code Files.write} does.
+     * @param target {@code Path} file to be replaced.
+     * @param lines {@code List<String>} new content.
+     * @throws IOException if the file could not be replaced; the old file is then left as it was.
+     */
+    public static void write(final Path target, final List<String> lines) throws IOException {
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        byte[] separator = System.lineSeparator().getBytes(StandardCharsets.UTF_8);
+        for (String line : lines) {
+            content.writeBytes(line.getBytes(StandardCharsets.UTF_8));
+            content.writeBytes(separator);
+        }
+        write(target, content.toByteArray());
+    }
+
+    /**
+     * Replaces the file with the bytes.
+     * @param target {@code Path} file to be replaced.
+     * @param content {@code byte[]} new content.
+     * @throws IOException if the file could not be replaced; the old file is then left as it was.
+     */
+    public static void write(final Path target, final byte[] content) throws IOException {
+        Path temporary = temporaryFor(target);
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.wrap(content);
+            while (buffer.hasRemaining())
+                channel.write(buffer);
+        }
+        replace(temporary, target);
+    }
+
+    /**
+     * Moves a fully written temporary file over the target. The temporary file is forced to disk first.
+     * @param temporary {@code Path} file holding the new content; must be on the same file system as the target.
+     * @param target {@code Path} file to be replaced.
+     * @throws IOException if the file could not be replaced.
+     */
+    public static void replace(final Path temporary, final Path target) throws IOException {
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        try {
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException ex) {
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        forceDirectory(target.toAbsolutePath().getParent());
+    }
+
+    /**
+     * Returns the temporary file used to replace the target.
+     * @param target {@code Path}
+     * @return {@code Path}
+     */
+    public static Path temporaryFor(final Path target) {
+        return target.resolveSibling(target.getFileName() + TEMPORARY_EXTENSION);
+    }
+
+    /**
+     * Forces a directory's entries to disk. Not every platform can open a directory; there, the rename is left to
+     * the operating system.
+     */
+    private static void forceDirectory(final Path directory) {
+        if (directory == null)
+            return;
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException ex) {
+            // Directories cannot be opened on this platform.
+        }
+    }
+}
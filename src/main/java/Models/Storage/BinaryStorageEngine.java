@@ -0,0 +1,300 @@
+package Models.Storage;
+
+import Constants.SyncPolicy;
+import Entities.Entity;
+import Interfaces.DeserializeEntityInterface;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * <h2>Keeps a model's records in an append-only binary record file.</h2>
+ *
+ * <p>
+ * The file sits next to the model's CSV file ({@code ProductList.txt.bin}) and starts with a 4-byte magic number,
+ * followed by one entry per write:
+ * </p>
+ * <pre>
+ * [int ID length][ID bytes][int record length][record bytes]
+ * </pre>
+ * <p>
+ * A delete is an entry with a record length of -1. Every write is a single append, so no write ever moves an
+ * existing record; a record's latest entry wins when the file is read. The bytes of replaced and deleted entries
+ * are only reclaimed by {@link #replaceAll(Map)}, which a model's checkpoint calls. A torn entry at the end of the
+ * file, left by an interrupted append, is dropped the next time the file is read; damage anywhere else fails the read
+ * without touching the file.
+ * </p>
+ * @param <T> type of entity held by the file.
+ */
+public final class BinaryStorageEngine<T extends Entity> implements StorageEngine<T> {
+    public static final String FILE_EXTENSION = ".bin";
+    private static final int MAGIC = 0x54425231; // "TBR1"
+    private static final int TOMBSTONE = -1;
+
+    private final Path path;
+    private final FileSync sync;
+    private final LinkedHashMap<String, Slot> index = new LinkedHashMap<>();
+    private boolean loaded = false;
+
+    /**
+     * Position of a record's bytes within the file.
+     */
+    private record Slot(long offset, int length) {}
+
+    /**
+     * Creates an engine for the given model file. The binary file is not created until the first write.
+     * @param modelPath {@code Path} to the model's CSV file.
+     */
+    public BinaryStorageEngine(final Path modelPath) {
+        this.path = modelPath.resolveSibling(modelPath.getFileName() + FILE_EXTENSION);
+        this.sync = new FileSync(this.path);
+    }
+
+    @Override
+    public Path getPath() {
+        return this.path;
+    }
+
+    @Override
+    public void setSyncPolicy(final SyncPolicy policy, final Duration interval) {
+        this.sync.setPolicy(policy, interval);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public synchronized Loaded<T> load(final Supplier<? extends DeserializeEntityInterface> deserializerFactory,
+                          final Predicate<String> lineIsValid, final boolean parallel) throws IOException {
+        byte[] content = readIndex();
+        DeserializeEntityInterface deserializer = deserializerFactory.get();
+        List<T> entities = new ArrayList<>(this.index.size());
+
+        for (Slot slot : this.index.values()) {
+            String record = new String(content, (int) slot.offset(), slot.length(), StandardCharsets.UTF_8);
+            if (lineIsValid.test(record))
+                entities.add((T) deserializer.deserialize(record));
+        }
+        return new Loaded<>(entities, deserializer.getLogs());
+    }
+
+    @Override
+    public synchronized Optional<String> get(final String entityID) throws IOException {
+        ensureLoaded();
+        Slot slot = this.index.get(entityID);
+        if (slot == null)
+            return Optional.empty();
+
+        try (FileChannel channel = FileChannel.open(this.path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(slot.length());
+            while (buffer.hasRemaining())
+                if (channel.read(buffer, slot.offset() + buffer.position()) < 0)
+                    break;
+            return Optional.of(new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Override
+    public synchronized boolean contains(final String entityID) {
+        ensureLoadedUnchecked();
+        return this.index.containsKey(entityID);
+    }
+
+    @Override
+    public synchronized int size() {
+        ensureLoadedUnchecked();
+        return this.index.size();
+    }
+
+    /**
+     * Returns the position of the record among the indexed records, without reading the file.
+     */
+    @Override
+    public synchronized Optional<Integer> positionOf(final String entityID) {
+        ensureLoadedUnchecked();
+        int position = 0;
+        for (String indexedID : this.index.keySet()) {
+            if (indexedID.equals(entityID))
+                return Optional.of(position);
+            position++;
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public synchronized void put(final String entityID, final String record) throws IOException {
+        batch(Map.of(entityID, record), List.of());
+    }
+
+    @Override
+    public synchronized boolean delete(final String entityID) throws IOException {
+        if (!contains(entityID))
+            return false;
+        batch(Map.of(), List.of(entityID));
+        return true;
+    }
+
+    /**
+     * Appends every entry of the batch with a single write.
+     */
+    @Override
+    public synchronized void batch(final Map<String, String> upserts, final Collection<String> deletes) throws IOException {
+        ensureLoaded();
+        try (FileChannel channel = FileChannel.open(this.path, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            long end = channel.size();
+            ByteArrayOutputStream entries = new ByteArrayOutputStream();
+            if (end == 0)
+                entries.writeBytes(intBytes(MAGIC));
+
+            LinkedHashMap<String, Slot> written = new LinkedHashMap<>();
+            for (Map.Entry<String, String> upsert : upserts.entrySet()) {
+                byte[] record = upsert.getValue().getBytes(StandardCharsets.UTF_8);
+                writeEntry(entries, upsert.getKey(), record);
+                written.put(upsert.getKey(), new Slot(end + entries.size() - record.length, record.length));
+            }
+            for (String entityID : deletes)
+                if (this.index.containsKey(entityID) || written.containsKey(entityID)) {
+                    writeEntry(entries, entityID, null);
+                    written.put(entityID, null);
+                }
+
+            ByteBuffer buffer = ByteBuffer.wrap(entries.toByteArray());
+            while (buffer.hasRemaining())
+                end += channel.write(buffer, end);
+            this.sync.written(channel);
+
+            written.forEach((entityID, slot) -> {
+                if (slot == null)
+                    this.index.remove(entityID);
+                else
+                    this.index.put(entityID, slot);
+            });
+        }
+    }
+
+    @Override
+    public synchronized void scan(final Consumer<String> visitor) throws IOException {
+        byte[] content = readIndex();
+        for (Slot slot : this.index.values())
+            visitor.accept(new String(content, (int) slot.offset(), slot.length(), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Writes the records to a new file without any replaced or deleted entries, then moves it over the old one.
+     */
+    @Override
+    public synchronized void replaceAll(final Map<String, String> records) throws IOException {
+        ByteArrayOutputStream entries = new ByteArrayOutputStream();
+        LinkedHashMap<String, Slot> rebuilt = new LinkedHashMap<>();
+        entries.writeBytes(intBytes(MAGIC));
+        for (Map.Entry<String, String> record : records.entrySet()) {
+            byte[] bytes = record.getValue().getBytes(StandardCharsets.UTF_8);
+            writeEntry(entries, record.getKey(), bytes);
+            rebuilt.put(record.getKey(), new Slot(entries.size() - bytes.length, bytes.length));
+        }
+
+        AtomicFiles.write(this.path, entries.toByteArray());
+
+        this.index.clear();
+        this.index.putAll(rebuilt);
+        this.loaded = true;
+    }
+
+    private void ensureLoaded() throws IOException {
+        if (!this.loaded)
+            readIndex();
+    }
+
+    private void ensureLoadedUnchecked() {
+        try {
+            ensureLoaded();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not index " + this.path + ".", ex);
+        }
+    }
+
+    /**
+     * Reads the file and rebuilds the index from its entries. Only a torn entry at the end of the file, one
+     * declaring more bytes than are left, is truncated; any other damage fails the read and leaves the file and
+     * the index as they were.
+     * @return {@code byte[]} content of the file.
+     */
+    private byte[] readIndex() throws IOException {
+        if (!Files.exists(this.path)) {
+            this.index.clear();
+            this.loaded = true;
+            return new byte[0];
+        }
+
+        byte[] content = Files.readAllBytes(this.path);
+        ByteBuffer buffer = ByteBuffer.wrap(content);
+        if (content.length < Integer.BYTES || buffer.getInt() != MAGIC)
+            throw new IOException(this.path.getFileName() + " is not a binary record file.");
+
+        LinkedHashMap<String, Slot> entries = new LinkedHashMap<>();
+        int validEnd = buffer.position();
+        while (buffer.remaining() >= Integer.BYTES) {
+            int idLength = buffer.getInt();
+            if (idLength < 0)
+                throw corruptEntry(validEnd, "ID length " + idLength);
+            if (buffer.remaining() < idLength + Integer.BYTES)
+                break;
+            String entityID = new String(content, buffer.position(), idLength, StandardCharsets.UTF_8);
+            buffer.position(buffer.position() + idLength);
+
+            int recordLength = buffer.getInt();
+            if (recordLength == TOMBSTONE) {
+                entries.remove(entityID);
+            } else {
+                if (recordLength < 0)
+                    throw corruptEntry(validEnd, "record length " + recordLength);
+                if (buffer.remaining() < recordLength)
+                    break;
+                entries.put(entityID, new Slot(buffer.position(), recordLength));
+                buffer.position(buffer.position() + recordLength);
+            }
+            validEnd = buffer.position();
+        }
+
+        if (validEnd < content.length)
+            try (FileChannel channel = FileChannel.open(this.path, StandardOpenOption.WRITE)) {
+                channel.truncate(validEnd);
+            }
+        this.index.clear();
+        this.index.putAll(entries);
+        this.loaded = true;
+        return content;
+    }
+
+    private IOException corruptEntry(final int offset, final String detail) {
+        return new IOException(this.path.getFileName() + " has a corrupt entry at byte " + offset + " (" + detail + ").");
+    }
+
+    private static void writeEntry(final ByteArrayOutputStream entries, final String entityID, final byte[] record) {
+        byte[] id = entityID.getBytes(StandardCharsets.UTF_8);
+        entries.writeBytes(intBytes(id.length));
+        entries.writeBytes(id);
+        entries.writeBytes(intBytes(record == null ? TOMBSTONE : record.length));
+        if (record != null)
+            entries.writeBytes(record);
+    }
+
+    private static byte[] intBytes(final int value) {
+        return ByteBuffer.allocate(Integer.BYTES).putInt(value).array();
+    }
+}
@@ -0,0 +1,294 @@
+package Models.Storage;
+
+import Entities.Check;
+import Entities.CheckLineItem;
+import Services.CSVCursor;
+import Services.GUID;
+import Utilities.LogService;
+import Utilities.Money;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * <h2>Converts checks between their CSV record and their compact binary entry.</h2>
+ *
+ * <p>
+ * A binary check entry holds:
+ * </p>
+ * <pre>
+ * [ID]
+ * [long purchase date, epoch millis]
+ * [varint customers served]
+ * [zigzag varint subtotal cents][zigzag varint total cents][zigzag varint COGS cents]
+ * [varint line item count]{[varint product index][varint quantity]}
+ * </pre>
+ * <p>
+ * Money is stored as fixed-point cents and each product is referenced by its index in a {@link Dictionary} rather
+ * than by its 36-character ID. Both sides of a conversion share a {@code CheckRow}, so converting a CSV record never
+ * needs the product table.
+ * </p>
+ *
+ * <p>
+ * An ID is written as {@code [varint 0][long high][long low]} when it is a compact {@code GUID}, and as
+ * {@code [varint length][ID bytes]} otherwise. No ID is empty, so files written before compact IDs still read.
+ * </p>
+ */
+public final class CheckRecordCodec {
+    private CheckRecordCodec() {}
+
+    /**
+     * A decoded check, as held by either format.
+     * @param id {@code String} ID of the check.
+     * @param purchaseMillis {@code long} purchase date in epoch millis.
+     * @param customersServed {@code int} customers served.
+     * @param subtotalCents {@code long} subtotal in cents.
+     * @param totalCents {@code long} total in cents.
+     * @param cogsCents {@code long} cost of goods sold in cents.
+     * @param productIDs {@code String[]} ID of the product of each line item.
+     * @param quantities {@code int[]} quantity of each line item.
+     */
+    public record CheckRow(String id, long purchaseMillis, int customersServed, long subtotalCents, long totalCents,
+                           long cogsCents, String[] productIDs, int[] quantities) {}
+
+    /**
+     * Assigns each product ID a small index, in the order the IDs are first seen.
+     */
+    public static final class Dictionary {
+        private final List<String> productIDs = new ArrayList<>();
+        private final HashMap<String, Integer> indexes = new HashMap<>();
+
+        /**
+         * Registers a product ID.
+         * @param productID {@code String}
+         * @return {@code int} index of the ID.
+         */
+        public int add(final String productID) {
+            return this.indexes.computeIfAbsent(productID, id -> {
+                this.productIDs.add(id);
+                return this.productIDs.size() - 1;
+            });
+        }
+
+        /**
+         * Returns the index of a product ID; -1 if it is not registered.
+         * @param productID {@code String}
+         * @return {@code int}
+         */
+        public int indexOf(final String productID) {
+            return this.indexes.getOrDefault(productID, -1);
+        }
+
+        public String get(final int index) {
+            return this.productIDs.get(index);
+        }
+
+        public int size() {
+            return this.productIDs.size();
+        }
+
+        public void clear() {
+            this.productIDs.clear();
+            this.indexes.clear();
+        }
+    }
+
+    /**
+     * Takes the fields of a check straight from the entity.
+     * @param check {@code Check}
+     * @return {@code CheckRow}
+     */
+    public static CheckRow fromCheck(final Check check) {
+        List<CheckLineItem> lineItems = new ArrayList<>(check.getPurchases());
+        String[] productIDs = new String[lineItems.size()];
+        int[] quantities = new int[lineItems.size()];
+        for (int i = 0; i < lineItems.size(); i++) {
+            productIDs[i] = lineItems.get(i).getProduct().getID();
+            quantities[i] = lineItems.get(i).getQuantity();
+        }
+
+        return new CheckRow(check.getID(), check.getPurchaseDate().getTime(),
+                check.getNumberServed(), check.getSubtotalCents(), check.getTotalCents(),
+                check.getCOGSCents(), productIDs, quantities);
+    }
+
+    /**
+     * Parses a check's CSV record.
+     * @param cursor {@code CSVCursor} positioned on the record.
+     * @param logger {@code LogService} receiving warnings about malformed fields.
+     * @return {@code CheckRow}
+     */
+    public static CheckRow fromCsv(final CSVCursor cursor, final LogService logger) {
+        long purchaseMillis;
+        try {
+            purchaseMillis = Instant.parse(cursor.parseString(1)).toEpochMilli();
+        } catch (DateTimeParseException ex) {
+            logger.logWarning("Failed to parse purchase date of check " + cursor.parseString(0) + "; defaulting to now.");
+            purchaseMillis = System.currentTimeMillis();
+        }
+
+        List<String> purchases = new ArrayList<>();
+        cursor.forEachListItem(6, purchases::add);
+        String[] productIDs = new String[purchases.size()];
+        int[] quantities = new int[purchases.size()];
+        for (int i = 0; i < purchases.size(); i++) {
+            String purchase = purchases.get(i);
+            int separator = purchase.indexOf('=');
+            productIDs[i] = separator < 0 ? purchase : purchase.substring(0, separator);
+            try {
+                quantities[i] = separator < 0 ? 1 : Integer.parseInt(purchase.substring(separator + 1));
+            } catch (NumberFormatException ex) {
+                logger.logWarning("Failed to parse the quantity of purchase '" + purchase + "' on check "
+                        + cursor.parseString(0) + ".");
+            }
+        }
+
+        return new CheckRow(cursor.parseString(0), purchaseMillis, cursor.parseInteger(2), cursor.parseCents(3),
+                cursor.parseCents(4), cursor.parseCents(5), productIDs, quantities);
+    }
+
+    /**
+     * Formats a check as the CSV record {@code Check::serialize} would write.
+     * @param row {@code CheckRow}
+     * @return {@code String}
+     */
+    public static String toCsv(final CheckRow row) {
+        StringBuilder record = new StringBuilder(128)
+                .append(row.id()).append(',')
+                .append(Instant.ofEpochMilli(row.purchaseMillis())).append(',')
+                .append(row.customersServed()).append(',');
+        Money.append(record, row.subtotalCents()).append(',');
+        Money.append(record, row.totalCents()).append(',');
+        Money.append(record, row.cogsCents()).append(",[");
+        for (int i = 0; i < row.productIDs().length; i++) {
+            if (i > 0)
+                record.append('|');
+            record.append(row.productIDs()[i]).append('=').append(row.quantities()[i]);
+        }
+        return record.append(']').toString();
+    }
+
+    /**
+     * Writes a check's binary entry. Every product of the check must already be registered in {@code dictionary}.
+     * @param out {@code ByteArrayOutputStream} receiving the entry.
+     * @param row {@code CheckRow}
+     * @param dictionary {@code Dictionary} holding the check's products.
+     */
+    public static void encode(final ByteArrayOutputStream out, final CheckRow row, final Dictionary dictionary) {
+        writeID(out, row.id());
+        out.writeBytes(ByteBuffer.allocate(Long.BYTES).putLong(row.purchaseMillis()).array());
+        writeVarLong(out, row.customersServed());
+        writeVarLong(out, zigzag(row.subtotalCents()));
+        writeVarLong(out, zigzag(row.totalCents()));
+        writeVarLong(out, zigzag(row.cogsCents()));
+        writeVarLong(out, row.productIDs().length);
+        for (int i = 0; i < row.productIDs().length; i++) {
+            writeVarLong(out, dictionary.indexOf(row.productIDs()[i]));
+            writeVarLong(out, row.quantities()[i]);
+        }
+    }
+
+    /**
+     * Reads a check's binary entry.
+     * @param in {@code ByteBuffer} positioned on the entry.
+     * @param dictionary {@code Dictionary} resolving the check's products.
+     * @return {@code CheckRow}
+     * @throws java.nio.BufferUnderflowException if the entry is truncated.
+     * @throws IllegalStateException if the entry is malformed.
+     */
+    public static CheckRow decode(final ByteBuffer in, final Dictionary dictionary) {
+        String id = readID(in);
+        long purchaseMillis = in.getLong();
+        int customersServed = (int) readVarLong(in);
+        long subtotalCents = unzigzag(readVarLong(in));
+        long totalCents = unzigzag(readVarLong(in));
+        long cogsCents = unzigzag(readVarLong(in));
+
+        long lineItems = readVarLong(in);
+        if (lineItems < 0 || lineItems > Integer.MAX_VALUE)
+            throw new IllegalStateException("Malformed line item count " + lineItems + ".");
+        if (lineItems > in.remaining())
+            throw new BufferUnderflowException();
+        String[] productIDs = new String[(int) lineItems];
+        int[] quantities = new int[(int) lineItems];
+        for (int i = 0; i < lineItems; i++) {
+            productIDs[i] = dictionary.get((int) readVarLong(in));
+            quantities[i] = (int) readVarLong(in);
+        }
+        return new CheckRow(id, purchaseMillis, customersServed, subtotalCents, totalCents, cogsCents,
+                productIDs, quantities);
+    }
+
+    /**
+     * Writes an entity ID in 17 bytes when it has a compact form.
+     */
+    static void writeID(final ByteArrayOutputStream out, final String id) {
+        GUID guid = GUID.tryParse(id);
+        if (guid == null) {
+            writeString(out, id);
+            return;
+        }
+        writeVarLong(out, 0);
+        out.writeBytes(guid.toBytes());
+    }
+
+    static String readID(final ByteBuffer in) {
+        if (!in.hasRemaining())
+            throw new BufferUnderflowException();
+        if (in.get(in.position()) != 0)
+            return readString(in);
+        in.get();
+        return new GUID(in.getLong(), in.getLong()).toString();
+    }
+
+    static void writeString(final ByteArrayOutputStream out, final String str) {
+        byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, bytes.length);
+        out.writeBytes(bytes);
+    }
+
+    static String readString(final ByteBuffer in) {
+        long length = readVarLong(in);
+        if (length < 0 || length > Integer.MAX_VALUE)
+            throw new IllegalStateException("Malformed string length " + length + ".");
+        if (length > in.remaining())
+            throw new BufferUnderflowException();
+        byte[] bytes = new byte[(int) length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static void writeVarLong(final ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    static long readVarLong(final ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0)
+                return value;
+        }
+        throw new IllegalStateException("Malformed varint.");
+    }
+
+    private static long zigzag(final long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(final long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
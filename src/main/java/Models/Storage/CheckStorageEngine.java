@@ -0,0 +1,387 @@
+package Models.Storage;
+
+import Constants.SyncPolicy;
+import Entities.Check;
+import Entities.CheckLineItem;
+import Entities.Product;
+import Entities.ProductVariantSelected;
+import Interfaces.DeserializeEntityInterface;
+import Models.Storage.CheckRecordCodec.CheckRow;
+import Services.CSVCursor;
+import Utilities.LogService;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * <h2>Keeps check history in a compact binary file.</h2>
+ *
+ * <p>
+ * The file sits next to the transaction CSV file ({@code TransactionList.txt.bin}) and starts with a 4-byte magic
+ * number, followed by entries tagged with a single byte:
+ * </p>
+ * <pre>
+ * P [ID]             registers the next product index
+ * C [check entry]    see {@code CheckRecordCodec}
+ * D [ID]             deletes a check
+ * </pre>
+ * <p>
+ * IDs are written by {@link CheckRecordCodec#writeID}: 16 bytes for compact {@code GUID}s, their text otherwise.
+ * </p>
+ * <p>
+ * Each product ID is written once, the first time a check references it; checks then reference it by index. Checks
+ * are decoded straight into entities, without going through their CSV record. Like {@code BinaryStorageEngine},
+ * every write is a single append and {@link #replaceAll(Map)} compacts the file.
+ * </p>
+ *
+ * <p>
+ * Records handed to and returned by the {@code String} operations are CSV records, so the engine can be swapped
+ * with any other. {@link #importCsv(Path)} and {@link #exportCsv(Path)} convert whole files.
+ * </p>
+ */
+public final class CheckStorageEngine implements StorageEngine<Check> {
+    private static final int MAGIC = 0x54434B31; // "TCK1"
+    private static final byte PRODUCT = 'P';
+    private static final byte CHECK = 'C';
+    private static final byte DELETE = 'D';
+
+    private final Path path;
+    private final FileSync sync;
+    private final Function<String, Product> productLookup;
+    private final CheckRecordCodec.Dictionary dictionary = new CheckRecordCodec.Dictionary();
+    private final LinkedHashMap<String, Slot> index = new LinkedHashMap<>();
+    private final LogService logger = new LogService(this.getClass().getName());
+    private final CSVCursor cursor = new CSVCursor(logger);
+    private boolean loaded = false;
+
+    /**
+     * Position of a check entry within the file, tag excluded.
+     */
+    private record Slot(long offset, int length) {}
+
+    /**
+     * Creates an engine for the given transaction file. The binary file is not created until the first write.
+     * @param modelPath {@code Path} to the transaction CSV file.
+     * @param productLookup {@code Function<String, Product>} resolves a product ID when loading checks; may return
+     *                      null, in which case the line item is skipped.
+     */
+    public CheckStorageEngine(final Path modelPath, final Function<String, Product> productLookup) {
+        this.path = modelPath.resolveSibling(modelPath.getFileName() + BinaryStorageEngine.FILE_EXTENSION);
+        this.sync = new FileSync(this.path);
+        this.productLookup = productLookup;
+    }
+
+    @Override
+    public Path getPath() {
+        return this.path;
+    }
+
+    @Override
+    public void setSyncPolicy(final SyncPolicy policy, final Duration interval) {
+        this.sync.setPolicy(policy, interval);
+    }
+
+    /**
+     * Decodes every check straight from the file. Entries are validated while they are read, so neither the
+     * deserializer nor the line validation is used.
+     */
+    @Override
+    public synchronized Loaded<Check> load(final Supplier<? extends DeserializeEntityInterface> deserializerFactory,
+                              final Predicate<String> lineIsValid, final boolean parallel) throws IOException {
+        LinkedHashMap<String, CheckRow> rows = new LinkedHashMap<>();
+        readIndex(rows);
+        LogService loadLogger = new LogService(this.getClass().getName());
+        Product[] products = new Product[this.dictionary.size()];
+        for (int i = 0; i < products.length; i++)
+            products[i] = this.productLookup.apply(this.dictionary.get(i));
+
+        List<Check> checks = new ArrayList<>(rows.size());
+        for (CheckRow row : rows.values()) {
+            Check check = new Check(row.id());
+            check.setPurchaseDate(new Date(row.purchaseMillis()));
+            check.setCustomersServed(row.customersServed());
+            for (int i = 0; i < row.productIDs().length; i++) {
+                Product product = products[this.dictionary.indexOf(row.productIDs()[i])];
+                if (product == null)
+                    loadLogger.logWarning("When loading check " + row.id() + ", the product " + row.productIDs()[i]
+                            + " does not exist and therefor cannot be tied to the check.");
+                else
+                    check.addLineItem(new CheckLineItem(product, new ProductVariantSelected(product), row.quantities()[i]));
+            }
+            check.setSubtotalCents(row.subtotalCents());
+            check.setTotalCents(row.totalCents());
+            check.setCOGSCents(row.cogsCents());
+            check.resetChangedState();
+            checks.add(check);
+        }
+        return new Loaded<>(checks, loadLogger.getLogs());
+    }
+
+    @Override
+    public synchronized Optional<String> get(final String entityID) throws IOException {
+        ensureLoaded();
+        Slot slot = this.index.get(entityID);
+        if (slot == null)
+            return Optional.empty();
+
+        try (FileChannel channel = FileChannel.open(this.path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(slot.length());
+            while (buffer.hasRemaining())
+                if (channel.read(buffer, slot.offset() + buffer.position()) < 0)
+                    break;
+            return Optional.of(CheckRecordCodec.toCsv(CheckRecordCodec.decode(buffer.flip(), this.dictionary)));
+        }
+    }
+
+    @Override
+    public synchronized boolean contains(final String entityID) {
+        ensureLoadedUnchecked();
+        return this.index.containsKey(entityID);
+    }
+
+    @Override
+    public synchronized int size() {
+        ensureLoadedUnchecked();
+        return this.index.size();
+    }
+
+    /**
+     * Returns the position of the record among the indexed records, without reading the file.
+     */
+    @Override
+    public synchronized Optional<Integer> positionOf(final String entityID) {
+        ensureLoadedUnchecked();
+        int position = 0;
+        for (String indexedID : this.index.keySet()) {
+            if (indexedID.equals(entityID))
+                return Optional.of(position);
+            position++;
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Encodes the check straight from the entity rather than parsing its CSV record.
+     */
+    @Override
+    public synchronized void put(final Check entity) throws IOException {
+        append(List.of(CheckRecordCodec.fromCheck(entity)), List.of());
+    }
+
+    @Override
+    public synchronized void put(final String entityID, final String record) throws IOException {
+        append(List.of(parse(record)), List.of());
+    }
+
+    @Override
+    public synchronized boolean delete(final String entityID) throws IOException {
+        if (!contains(entityID))
+            return false;
+        append(List.of(), List.of(entityID));
+        return true;
+    }
+
+    @Override
+    public synchronized void batch(final Map<String, String> upserts, final Collection<String> deletes) throws IOException {
+        List<CheckRow> rows = new ArrayList<>(upserts.size());
+        upserts.values().forEach(record -> rows.add(parse(record)));
+        append(rows, deletes);
+    }
+
+    @Override
+    public synchronized void scan(final Consumer<String> visitor) throws IOException {
+        LinkedHashMap<String, CheckRow> rows = new LinkedHashMap<>();
+        readIndex(rows);
+        rows.values().forEach(row -> visitor.accept(CheckRecordCodec.toCsv(row)));
+    }
+
+    /**
+     * Writes the checks to a new file, registering only the products they reference, then moves it over the old one.
+     */
+    @Override
+    public synchronized void replaceAll(final Map<String, String> records) throws IOException {
+        List<CheckRow> rows = new ArrayList<>(records.size());
+        records.values().forEach(record -> rows.add(parse(record)));
+
+        this.dictionary.clear();
+        this.index.clear();
+        ByteArrayOutputStream entries = new ByteArrayOutputStream();
+        entries.writeBytes(ByteBuffer.allocate(Integer.BYTES).putInt(MAGIC).array());
+        writeEntries(entries, 0, rows, List.of());
+
+        AtomicFiles.write(this.path, entries.toByteArray());
+        this.loaded = true;
+    }
+
+    /**
+     * Replaces the content of this engine with the records of a check CSV file.
+     * @param csvPath {@code Path} to the CSV file.
+     * @return {@code int} number of checks imported.
+     * @throws IOException if either file could not be read or written.
+     */
+    public synchronized int importCsv(final Path csvPath) throws IOException {
+        LinkedHashMap<String, String> records = new LinkedHashMap<>();
+        for (String line : Files.readAllLines(csvPath, StandardCharsets.UTF_8)) {
+            int comma = line.indexOf(',');
+            if (comma > 0)
+                records.put(line.substring(0, comma), line);
+        }
+        replaceAll(records);
+        return records.size();
+    }
+
+    /**
+     * Writes every check of this engine to a CSV file, in the format {@code Check::serialize} uses.
+     * @param csvPath {@code Path} to the CSV file.
+     * @throws IOException if either file could not be read or written.
+     */
+    public synchronized void exportCsv(final Path csvPath) throws IOException {
+        List<String> lines = new ArrayList<>(size());
+        scan(lines::add);
+        AtomicFiles.write(csvPath, lines);
+    }
+
+    private CheckRow parse(final String record) {
+        return CheckRecordCodec.fromCsv(this.cursor.reset(record), this.logger);
+    }
+
+    /**
+     * Appends the entries of a batch, along with the products they introduce, with a single write.
+     */
+    private void append(final List<CheckRow> rows, final Collection<String> deletes) throws IOException {
+        ensureLoaded();
+        try (FileChannel channel = FileChannel.open(this.path, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            long end = channel.size();
+            ByteArrayOutputStream entries = new ByteArrayOutputStream();
+            if (end == 0)
+                entries.writeBytes(ByteBuffer.allocate(Integer.BYTES).putInt(MAGIC).array());
+            writeEntries(entries, end, rows, deletes);
+
+            ByteBuffer buffer = ByteBuffer.wrap(entries.toByteArray());
+            while (buffer.hasRemaining())
+                end += channel.write(buffer, end);
+            this.sync.written(channel);
+        } catch (IOException ex) {
+            this.loaded = false; // The index already holds the failed entries; rebuild it from the file.
+            throw ex;
+        }
+    }
+
+    /**
+     * Encodes the entries and updates the dictionary and index as if they were written at {@code base}.
+     */
+    private void writeEntries(final ByteArrayOutputStream entries, final long base, final List<CheckRow> rows,
+                              final Collection<String> deletes) {
+        for (CheckRow row : rows) {
+            for (String productID : row.productIDs()) {
+                if (this.dictionary.indexOf(productID) >= 0)
+                    continue;
+                this.dictionary.add(productID);
+                entries.write(PRODUCT);
+                CheckRecordCodec.writeID(entries, productID);
+            }
+
+            entries.write(CHECK);
+            int start = entries.size();
+            CheckRecordCodec.encode(entries, row, this.dictionary);
+            this.index.put(row.id(), new Slot(base + start, entries.size() - start));
+        }
+
+        for (String entityID : deletes) {
+            if (this.index.remove(entityID) == null)
+                continue;
+            entries.write(DELETE);
+            CheckRecordCodec.writeID(entries, entityID);
+        }
+    }
+
+    private void ensureLoaded() throws IOException {
+        if (!this.loaded)
+            readIndex(null);
+    }
+
+    private void ensureLoadedUnchecked() {
+        try {
+            ensureLoaded();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not index " + this.path + ".", ex);
+        }
+    }
+
+    /**
+     * Reads the file and rebuilds the dictionary and index from its entries. Only a torn entry at the end of the
+     * file, one needing more bytes than are left, is truncated; an unknown tag or a malformed entry fails the read,
+     * leaving the file alone and the index unloaded.
+     * @param rows {@code LinkedHashMap<String, CheckRow>} receives every live check as it is decoded; may be null.
+     */
+    private void readIndex(final LinkedHashMap<String, CheckRow> rows) throws IOException {
+        this.dictionary.clear();
+        this.index.clear();
+        this.loaded = false;
+        if (!Files.exists(this.path)) {
+            this.loaded = true;
+            return;
+        }
+
+        byte[] content = Files.readAllBytes(this.path);
+        ByteBuffer buffer = ByteBuffer.wrap(content);
+        if (content.length < Integer.BYTES || buffer.getInt() != MAGIC)
+            throw new IOException(this.path.getFileName() + " is not a binary check file.");
+
+        int validEnd = buffer.position();
+        try {
+            while (buffer.hasRemaining()) {
+                int entryStart = buffer.position();
+                byte tag = buffer.get();
+                if (tag == PRODUCT) {
+                    this.dictionary.add(CheckRecordCodec.readID(buffer));
+                } else if (tag == CHECK) {
+                    int start = buffer.position();
+                    CheckRow row = CheckRecordCodec.decode(buffer, this.dictionary);
+                    this.index.put(row.id(), new Slot(start, buffer.position() - start));
+                    if (rows != null)
+                        rows.put(row.id(), row);
+                } else if (tag == DELETE) {
+                    String entityID = CheckRecordCodec.readID(buffer);
+                    this.index.remove(entityID);
+                    if (rows != null)
+                        rows.remove(entityID);
+                } else {
+                    throw new IOException(this.path.getFileName() + " has an unknown entry tag " + tag +
+                            " at byte " + entryStart + ".");
+                }
+                validEnd = buffer.position();
+            }
+        } catch (BufferUnderflowException ex) {
+            // A torn entry: it runs past the end of the file. Everything before it is kept.
+        } catch (IndexOutOfBoundsException | IllegalStateException ex) {
+            throw new IOException(this.path.getFileName() + " has a malformed entry after byte " + validEnd + ".", ex);
+        }
+
+        if (validEnd < content.length)
+            try (FileChannel channel = FileChannel.open(this.path, StandardOpenOption.WRITE)) {
+                channel.truncate(validEnd);
+            }
+        this.loaded = true;
+    }
+}
@@ -0,0 +1,25 @@
+package Models.Storage;
+
+import java.io.IOException;
+
+/**
+ * <h2>Storage that leaves tombstones behind when records are removed.</h2>
+ *
+ * <p>
+ * Implementations must allow {@link #compact()} to run on a thread other than the one writing to them.
+ * </p>
+ */
+public interface Compactable {
+    /**
+     * Returns the share of the stored entries that are tombstones.
+     * @return {@code double} between 0 and 1.
+     */
+    double tombstoneRatio();
+
+    /**
+     * Rewrites the storage without its tombstones.
+     * @return {@code boolean} false if nothing was compacted, such as when a write was made during compaction.
+     * @throws IOException if the storage could not be rewritten.
+     */
+    boolean compact() throws IOException;
+}
@@ -0,0 +1,128 @@
+package Models.Storage;
+
+import Constants.SyncPolicy;
+import Entities.Entity;
+import Interfaces.DeserializeEntityInterface;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * <h2>Keeps a model's records in its CSV file; the default engine.</h2>
+ *
+ * <p>
+ * Each record is one line of the file. Reads and writes go through a {@code RecordFile}, so they are positioned
+ * with its primary index rather than by scanning the file, and parallel loads are handed to a
+ * {@code MappedChunkLoader}. Removed records are left in the file as tombstones until it is compacted.
+ * </p>
+ * @param <T> type of entity held by the file.
+ */
+public final class CsvStorageEngine<T extends Entity> implements StorageEngine<T>, Compactable {
+    private final RecordFile recordFile;
+
+    public CsvStorageEngine(final Path path) {
+        this.recordFile = new RecordFile(path);
+    }
+
+    @Override
+    public Path getPath() {
+        return this.recordFile.getPath();
+    }
+
+    @Override
+    public void setSyncPolicy(final SyncPolicy policy, final Duration interval) {
+        this.recordFile.setSyncPolicy(policy, interval);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Loaded<T> load(final Supplier<? extends DeserializeEntityInterface> deserializerFactory,
+                          final Predicate<String> lineIsValid, final boolean parallel) throws IOException {
+        if (parallel) {
+            synchronized (this.recordFile) {
+                MappedChunkLoader.Result<T> result = new MappedChunkLoader<T>(getPath(), deserializerFactory, lineIsValid).load();
+                this.recordFile.adopt(result.index(), result.lineCount(), result.tombstoneCount());
+                return new Loaded<>(result.entities(), result.logs());
+            }
+        }
+
+        DeserializeEntityInterface deserializer = deserializerFactory.get();
+        List<T> entities = new ArrayList<>();
+        for (String line : this.recordFile.load())
+            if (lineIsValid.test(line))
+                entities.add((T) deserializer.deserialize(line));
+        return new Loaded<>(entities, deserializer.getLogs());
+    }
+
+    @Override
+    public Optional<String> get(final String entityID) throws IOException {
+        return this.recordFile.read(entityID);
+    }
+
+    @Override
+    public boolean contains(final String entityID) {
+        return this.recordFile.contains(entityID);
+    }
+
+    @Override
+    public int size() {
+        return this.recordFile.size();
+    }
+
+    /**
+     * Returns the line of the record, read from the file's index.
+     */
+    @Override
+    public Optional<Integer> positionOf(final String entityID) {
+        return this.recordFile.pointer(entityID).map(RecordFile.RecordPointer::lineNumber);
+    }
+
+    @Override
+    public void put(final String entityID, final String record) throws IOException {
+        this.recordFile.write(entityID, record);
+    }
+
+    @Override
+    public boolean delete(final String entityID) throws IOException {
+        return this.recordFile.remove(entityID);
+    }
+
+    @Override
+    public void batch(final Map<String, String> upserts, final Collection<String> deletes) throws IOException {
+        synchronized (this.recordFile) {
+            if (!upserts.isEmpty())
+                this.recordFile.writeAll(upserts);
+            if (!deletes.isEmpty())
+                this.recordFile.removeAll(deletes);
+        }
+    }
+
+    @Override
+    public void scan(final Consumer<String> visitor) throws IOException {
+        this.recordFile.load().forEach(visitor);
+    }
+
+    @Override
+    public double tombstoneRatio() {
+        return this.recordFile.tombstoneRatio();
+    }
+
+    @Override
+    public boolean compact() throws IOException {
+        return this.recordFile.compact();
+    }
+
+    @Override
+    public void replaceAll(final Map<String, String> records) throws IOException {
+        this.recordFile.rewrite(new ArrayList<>(records.values()));
+    }
+}
@@ -0,0 +1,194 @@
+package Models.Storage;
+
+import Constants.SyncPolicy;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * <h2>Append-only write-ahead log for a single model.</h2>
+ *
+ * <p>
+ * Rather than writing to the model's storage engine on every change, a journaled model appends one record per
+ * mutation to a file sitting next to its CSV file ({@code ProductList.txt.journal}). Each record is a single line:
+ * </p>
+ * <pre>
+ * U,{ID},{serialized entity}
+ * D,{ID}
+ * </pre>
+ * <p>
+ * When loading, the records are replayed on top of the loaded entities through {@link #replay(BiConsumer, Consumer)}.
+ * The journal is only emptied by a checkpoint, which folds the journal back into the model's storage engine.
+ * </p>
+ *
+ * <p>
+ * How soon an append reaches the disk is set by its {@code SyncPolicy}, applied through a {@code FileSync}.
+ * </p>
+ */
+public final class EntityJournal {
+    public static final String FILE_EXTENSION = ".journal";
+    private static final char UPSERT = 'U';
+    private static final char DELETE = 'D';
+
+    private final Path journalPath;
+    private final FileSync sync;
+    private int recordCount = -1;
+
+    /**
+     * Creates a journal for the given model file. The journal is not created on disk until the first record
+     * is appended.
+     * @param modelPath {@code Path} to the model's CSV file.
+     */
+    public EntityJournal(final Path modelPath) {
+        this.journalPath = modelPath.resolveSibling(modelPath.getFileName() + FILE_EXTENSION);
+        this.sync = new FileSync(this.journalPath);
+    }
+
+    public Path getPath() {
+        return this.journalPath;
+    }
+
+    /**
+     * Sets when appends are forced to disk.
+     * @param policy {@code SyncPolicy} to be used.
+     * @param interval {@code Duration} between forces with {@code BATCHED}; ignored otherwise.
+     */
+    public void setSyncPolicy(final SyncPolicy policy, final Duration interval) {
+        this.sync.setPolicy(policy, interval);
+    }
+
+    public SyncPolicy getSyncPolicy() {
+        return this.sync.getPolicy();
+    }
+
+    /**
+     * Appends an upsert record for the entity.
+     * @param entityID {@code String} ID of the entity.
+     * @param record {@code String} serialized entity.
+     * @throws IOException if the journal could not be written to.
+     */
+    public synchronized void appendUpsert(final String entityID, final String record) throws IOException {
+        append(UPSERT + "," + entityID + "," + record);
+    }
+
+    /**
+     * Appends a delete record for the entity.
+     * @param entityID {@code String} ID of the entity.
+     * @throws IOException if the journal could not be written to.
+     */
+    public synchronized void appendDelete(final String entityID) throws IOException {
+        append(DELETE + "," + entityID);
+    }
+
+    /**
+     * Appends an upsert record for every entity of a batch with a single write.
+     * @param records {@code Map<String, String>} serialized entities keyed by their ID, in the order to be replayed.
+     * @throws IOException if the journal could not be written to.
+     */
+    public synchronized void appendUpserts(final Map<String, String> records) throws IOException {
+        List<String> batch = new ArrayList<>(records.size());
+        records.forEach((entityID, record) -> batch.add(UPSERT + "," + entityID + "," + record));
+        append(batch);
+    }
+
+    /**
+     * Appends a delete record for every entity of a batch with a single write.
+     * @param entityIDs {@code Collection<String>} IDs of the entities.
+     * @throws IOException if the journal could not be written to.
+     */
+    public synchronized void appendDeletes(final Collection<String> entityIDs) throws IOException {
+        append(entityIDs.stream().map(entityID -> DELETE + "," + entityID).toList());
+    }
+
+    /**
+     * Returns the number of records appended since the last checkpoint.
+     * @return {@code int}
+     */
+    public synchronized int size() {
+        if (this.recordCount < 0)
+            this.recordCount = readLines().size();
+        return this.recordCount;
+    }
+
+    public synchronized boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Replays every record of this journal, in the order they were appended.
+     * @param upsert {@code BiConsumer<String, String>} receives the ID and serialized entity of an upsert record.
+     * @param delete {@code Consumer<String>} receives the ID of a delete record.
+     */
+    public synchronized void replay(final BiConsumer<String, String> upsert, final Consumer<String> delete) {
+        replay(readLines(), upsert, delete);
+    }
+
+    /**
+     * Empties the journal. Called once its records have been folded into the model's storage engine.
+     * @throws IOException if the journal could not be removed.
+     */
+    public synchronized void truncate() throws IOException {
+        Files.deleteIfExists(this.journalPath);
+        this.recordCount = 0;
+    }
+
+    private void replay(final List<String> journalLines, final BiConsumer<String, String> upsert,
+                        final Consumer<String> delete) {
+        for (String record : journalLines) {
+            if (record.length() < 3 || record.charAt(1) != ',')
+                continue;
+
+            int idEnd = record.indexOf(',', 2);
+            String entityID = record.substring(2, idEnd < 0 ? record.length() : idEnd);
+            if (record.charAt(0) == UPSERT && idEnd > 0)
+                upsert.accept(entityID, record.substring(idEnd + 1));
+            else if (record.charAt(0) == DELETE)
+                delete.accept(entityID);
+        }
+    }
+
+    private void append(final String record) throws IOException {
+        append(List.of(record));
+    }
+
+    private void append(final List<String> records) throws IOException {
+        if (records.isEmpty())
+            return;
+
+        StringBuilder batch = new StringBuilder();
+        records.forEach(record -> batch.append(record).append(System.lineSeparator()));
+        ByteBuffer bytes = StandardCharsets.UTF_8.encode(batch.toString());
+        try (FileChannel channel = FileChannel.open(this.journalPath,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.WRITE)) {
+            while (bytes.hasRemaining())
+                channel.write(bytes);
+            this.sync.written(channel);
+        }
+        if (this.recordCount >= 0)
+            this.recordCount += records.size();
+    }
+
+    private List<String> readLines() {
+        try {
+            if (!Files.exists(this.journalPath))
+                return List.of();
+            return Files.readAllLines(this.journalPath, StandardCharsets.UTF_8).stream()
+                    .filter(line -> !line.isBlank())
+                    .toList();
+        } catch (IOException ex) {
+            return List.of();
+        }
+    }
+}
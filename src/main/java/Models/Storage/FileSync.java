@@ -0,0 +1,88 @@
+package Models.Storage;
+
+import Constants.SyncPolicy;
+import Utilities.LogService;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <h2>Forces the writes made to a file to disk as its {@code SyncPolicy} asks.</h2>
+ *
+ * <p>
+ * Journals and storage engines call {@link #written(FileChannel)} after every write they make in place. With
+ * {@code ALWAYS}, the write is forced before the call returns. With {@code BATCHED}, the first write after a force
+ * schedules the next one on a shared daemon thread, so every write of an interval is forced at once. Files replaced
+ * through {@code AtomicFiles} are forced by the replacement itself.
+ * </p>
+ */
+final class FileSync {
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(task -> {
+        Thread thread = new Thread(task, "storage-sync");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Path path;
+    private final LogService logger = new LogService(this.getClass().getName());
+    private SyncPolicy policy = SyncPolicy.OS_DEFAULT;
+    private Duration interval = Duration.ZERO;
+    private boolean scheduled = false;
+
+    FileSync(final Path path) {
+        this.path = path;
+    }
+
+    /**
+     * Sets when writes are forced to disk.
+     * @param policy {@code SyncPolicy} to be used.
+     * @param interval {@code Duration} between forces with {@code BATCHED}; ignored otherwise.
+     */
+    synchronized void setPolicy(final SyncPolicy policy, final Duration interval) {
+        if (policy == SyncPolicy.BATCHED && (interval == null || interval.isNegative() || interval.isZero()))
+            throw new IllegalArgumentException("A batched sync policy needs a positive interval.");
+        this.policy = policy;
+        this.interval = interval == null ? Duration.ZERO : interval;
+    }
+
+    synchronized SyncPolicy getPolicy() {
+        return this.policy;
+    }
+
+    /**
+     * Called once a write made through the channel is complete, before the channel is closed.
+     * @param channel {@code FileChannel} the write was made through.
+     * @throws IOException if the write could not be forced.
+     */
+    synchronized void written(final FileChannel channel) throws IOException {
+        if (this.policy == SyncPolicy.ALWAYS)
+            channel.force(false);
+        else if (this.policy == SyncPolicy.BATCHED && !this.scheduled) {
+            this.scheduled = true;
+            SCHEDULER.schedule(this::sync, this.interval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Forces every write made since the last force to disk. Forcing any channel of a file forces all of the file's
+     * written data, so the file does not need to stay open between writes.
+     */
+    private synchronized void sync() {
+        this.scheduled = false;
+        if (!Files.exists(this.path))
+            return;
+        try (FileChannel channel = FileChannel.open(this.path, StandardOpenOption.WRITE)) {
+            channel.force(false);
+        } catch (IOException ex) {
+            this.logger.logWarning("Encountered an exception (" + ex.getMessage() + ") while forcing " +
+                    this.path.getFileName() + " to disk.\n" + ex);
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package Models.Storage;
+
+import Entities.Entity;
+import Interfaces.DeserializeEntityInterface;
+import Models.LogMessage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * <h2>Loads a model's CSV file in parallel.</h2>
+ *
+ * <p>
+ * The file is split into newline-aligned chunks. Each chunk is memory-mapped with {@code FileChannel.map} and
+ * deserialized on the common fork-join pool by its own deserializer, since deserializers and their loggers are not
+ * thread-safe. The chunks are then merged in file order, along with the primary index of every record they held,
+ * so the result matches a sequential load of the file. Tombstones left by removed records are skipped.
+ * </p>
+ *
+ * <p>
+ * The line validator is called from the pool's threads; any state it touches, such as a model's parse-failure
+ * count, must be thread-safe.
+ * </p>
+ * @param <T> type of entity held by the file.
+ */
+public final class MappedChunkLoader<T extends Entity> {
+    private static final int MIN_CHUNK_SIZE = 64 * 1024;
+    private static final int MAX_CHUNK_SIZE = 64 * 1024 * 1024;
+    private static final byte NEW_LINE = '\n';
+    private static final byte CARRIAGE_RETURN = '\r';
+
+    private final Path path;
+    private final Supplier<? extends DeserializeEntityInterface> deserializerFactory;
+    private final Predicate<String> lineIsValid;
+    private final ForkJoinPool pool;
+
+    /**
+     * Outcome of a load.
+     * @param entities {@code List<T>} deserialized entities, in file order.
+     * @param index {@code HashMap<String, RecordPointer>} position of every record holding an ID.
+     * @param lineCount {@code int} number of lines in the file, tombstones included.
+     * @param tombstoneCount {@code int} number of tombstones in the file.
+     * @param logs {@code List<LogMessage>} logs collected by the chunks' deserializers.
+     */
+    public record Result<T>(List<T> entities, HashMap<String, RecordFile.RecordPointer> index, int lineCount,
+                            int tombstoneCount, List<LogMessage> logs) {}
+
+    private record Chunk<T>(List<T> entities, List<String> ids, List<RecordFile.RecordPointer> pointers,
+                            int lineCount, int tombstoneCount, List<LogMessage> logs) {}
+
+    public MappedChunkLoader(final Path path, final Supplier<? extends DeserializeEntityInterface> deserializerFactory,
+                             final Predicate<String> lineIsValid) {
+        this(path, deserializerFactory, lineIsValid, ForkJoinPool.commonPool());
+    }
+
+    public MappedChunkLoader(final Path path, final Supplier<? extends DeserializeEntityInterface> deserializerFactory,
+                             final Predicate<String> lineIsValid, final ForkJoinPool pool) {
+        this.path = path;
+        this.deserializerFactory = deserializerFactory;
+        this.lineIsValid = lineIsValid;
+        this.pool = pool;
+    }
+
+    /**
+     * Maps, splits and deserializes the file.
+     * @return {@code Result<T>} the merged chunks; empty when the file does not exist.
+     * @throws IOException if the file could not be read or a chunk failed to load.
+     */
+    public Result<T> load() throws IOException {
+        HashMap<String, RecordFile.RecordPointer> index = new HashMap<>();
+        List<T> entities = new ArrayList<>();
+        List<LogMessage> logs = new ArrayList<>();
+        if (!Files.exists(this.path))
+            return new Result<>(entities, index, 0, 0, logs);
+
+        try (FileChannel channel = FileChannel.open(this.path, StandardOpenOption.READ)) {
+            List<Callable<Chunk<T>>> tasks = new ArrayList<>();
+            for (long[] bounds : split(channel))
+                tasks.add(() -> loadChunk(channel, bounds[0], bounds[1]));
+
+            int lineCount = 0;
+            int tombstoneCount = 0;
+            for (Future<Chunk<T>> future : this.pool.invokeAll(tasks)) {
+                Chunk<T> chunk = future.get();
+                entities.addAll(chunk.entities());
+                logs.addAll(chunk.logs());
+                for (int i = 0; i < chunk.ids().size(); i++) {
+                    RecordFile.RecordPointer pointer = chunk.pointers().get(i);
+                    index.put(chunk.ids().get(i), new RecordFile.RecordPointer(
+                            lineCount + pointer.lineNumber(), pointer.byteOffset(), pointer.length()));
+                }
+                lineCount += chunk.lineCount();
+                tombstoneCount += chunk.tombstoneCount();
+            }
+
+            return new Result<>(entities, index, lineCount, tombstoneCount, logs);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while loading " + this.path.getFileName() + ".", ex);
+        } catch (ExecutionException ex) {
+            throw new IOException("Failed to load a chunk of " + this.path.getFileName() + ".", ex.getCause());
+        }
+    }
+
+    /**
+     * Splits the file into chunks that each end right after a line terminator, or at the end of the file.
+     */
+    private List<long[]> split(final FileChannel channel) throws IOException {
+        long size = channel.size();
+        long target = size / (Math.max(1, this.pool.getParallelism()) * 4L);
+        long chunkSize = Math.min(MAX_CHUNK_SIZE, Math.max(MIN_CHUNK_SIZE, target));
+
+        List<long[]> chunks = new ArrayList<>();
+        long start = 0;
+        while (start < size) {
+            long end = Math.min(size, start + chunkSize);
+            if (end < size)
+                end = nextLineStart(channel, end, size);
+            chunks.add(new long[] { start, end });
+            start = end;
+        }
+        return chunks;
+    }
+
+    private long nextLineStart(final FileChannel channel, long position, final long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(8 * 1024);
+        while (position < size) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0)
+                break;
+            for (int i = 0; i < read; i++)
+                if (buffer.get(i) == NEW_LINE)
+                    return position + i + 1;
+            position += read;
+        }
+        return size;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Chunk<T> loadChunk(final FileChannel channel, final long start, final long end) throws IOException {
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        DeserializeEntityInterface deserializer = this.deserializerFactory.get();
+        List<T> entities = new ArrayList<>();
+        List<String> ids = new ArrayList<>();
+        List<RecordFile.RecordPointer> pointers = new ArrayList<>();
+        byte[] line = new byte[256];
+        int lineCount = 0;
+        int tombstoneCount = 0;
+        int limit = buffer.limit();
+        int lineStart = 0;
+
+        for (int i = 0; i <= limit; i++) {
+            if (i != limit && buffer.get(i) != NEW_LINE)
+                continue;
+            if (i == limit && lineStart == limit)
+                break;
+
+            int length = ((i > lineStart && buffer.get(i - 1) == CARRIAGE_RETURN) ? i - 1 : i) - lineStart;
+            if (length > 0 && buffer.get(lineStart) == RecordFile.TOMBSTONE) {
+                tombstoneCount++;
+                lineCount++;
+                lineStart = i + 1;
+                continue;
+            }
+            if (line.length < length)
+                line = new byte[Math.max(length, line.length * 2)];
+            buffer.get(lineStart, line, 0, length);
+            String record = new String(line, 0, length, StandardCharsets.UTF_8);
+
+            int comma = record.indexOf(',');
+            if (comma > 0) {
+                ids.add(record.substring(0, comma));
+                pointers.add(new RecordFile.RecordPointer(lineCount, start + lineStart, length));
+            }
+            if (this.lineIsValid.test(record))
+                entities.add((T) deserializer.deserialize(record));
+
+            lineCount++;
+            lineStart = i + 1;
+        }
+
+        return new Chunk<>(entities, ids, pointers, lineCount, tombstoneCount, deserializer.getLogs());
+    }
+}
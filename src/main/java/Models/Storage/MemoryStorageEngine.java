@@ -0,0 +1,87 @@
+package Models.Storage;
+
+import Entities.Entity;
+import Interfaces.DeserializeEntityInterface;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * <h2>Keeps a model's records in memory only.</h2>
+ *
+ * <p>
+ * Nothing is written to disk, so the records are lost when the program exits. Intended for tests and for
+ * measuring a model without the cost of its storage.
+ * </p>
+ * @param <T> type of entity held by the engine.
+ */
+public final class MemoryStorageEngine<T extends Entity> implements StorageEngine<T> {
+    private final LinkedHashMap<String, String> records = new LinkedHashMap<>();
+
+    @Override
+    public Path getPath() {
+        return null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public synchronized Loaded<T> load(final Supplier<? extends DeserializeEntityInterface> deserializerFactory,
+                          final Predicate<String> lineIsValid, final boolean parallel) {
+        DeserializeEntityInterface deserializer = deserializerFactory.get();
+        List<T> entities = new ArrayList<>(this.records.size());
+        for (String record : this.records.values())
+            if (lineIsValid.test(record))
+                entities.add((T) deserializer.deserialize(record));
+        return new Loaded<>(entities, deserializer.getLogs());
+    }
+
+    @Override
+    public synchronized Optional<String> get(final String entityID) {
+        return Optional.ofNullable(this.records.get(entityID));
+    }
+
+    @Override
+    public synchronized boolean contains(final String entityID) {
+        return this.records.containsKey(entityID);
+    }
+
+    @Override
+    public synchronized int size() {
+        return this.records.size();
+    }
+
+    @Override
+    public synchronized void put(final String entityID, final String record) {
+        this.records.put(entityID, record);
+    }
+
+    @Override
+    public synchronized boolean delete(final String entityID) {
+        return this.records.remove(entityID) != null;
+    }
+
+    @Override
+    public synchronized void batch(final Map<String, String> upserts, final Collection<String> deletes) {
+        this.records.putAll(upserts);
+        deletes.forEach(this.records::remove);
+    }
+
+    @Override
+    public synchronized void scan(final Consumer<String> visitor) {
+        this.records.values().forEach(visitor);
+    }
+
+    @Override
+    public synchronized void replaceAll(final Map<String, String> records) {
+        this.records.clear();
+        this.records.putAll(records);
+    }
+}
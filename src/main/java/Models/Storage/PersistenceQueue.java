@@ -0,0 +1,143 @@
+package Models.Storage;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * <h2>Writes records to storage engines from a single background thread.</h2>
+ *
+ * <p>
+ * Models hand their writes to {@link #enqueue(StorageEngine, Map, Collection)} and carry on; the records must be
+ * serialized by the caller, so later changes to an entity do not leak into a write that is still queued. The writer
+ * thread takes every write queued so far, merges the consecutive writes aimed at the same engine and applies them
+ * with one {@code StorageEngine.batch} call. Writes are applied in the order they were queued, so a write's future
+ * completing means every write queued before it was applied as well.
+ * </p>
+ *
+ * <p>
+ * An engine used through a queue should only be written to by the queue's thread.
+ * </p>
+ */
+public final class PersistenceQueue implements AutoCloseable {
+    private static final Write END_OF_QUEUE = new Write(null, Map.of(), List.of(), null);
+
+    private final LinkedBlockingQueue<Write> queue = new LinkedBlockingQueue<>();
+    private final Thread writer;
+    private boolean closed = false;
+
+    /**
+     * A queued write; its future completes once the write has been applied to the engine.
+     */
+    private record Write(StorageEngine<?> engine, Map<String, String> upserts, Collection<String> deletes,
+                         CompletableFuture<Void> persisted) {}
+
+    /**
+     * Creates a queue and starts its writer thread.
+     * @param name {@code String} name of the writer thread.
+     */
+    public PersistenceQueue(final String name) {
+        this.writer = new Thread(this::drain, name);
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Queues a write.
+     * @param engine {@code StorageEngine<?>} to be written to.
+     * @param upserts {@code Map<String, String>} serialized entities keyed by ID.
+     * @param deletes {@code Collection<String>} IDs of the entities to be removed.
+     * @return {@code CompletableFuture<Void>} completes once the write is persisted; completes exceptionally with
+     *         the {@code IOException} raised by the engine if it could not be.
+     */
+    public synchronized CompletableFuture<Void> enqueue(final StorageEngine<?> engine,
+                                                        final Map<String, String> upserts,
+                                                        final Collection<String> deletes) {
+        CompletableFuture<Void> persisted = new CompletableFuture<>();
+        if (this.closed) {
+            persisted.completeExceptionally(new IOException("Persistence queue is closed."));
+            return persisted;
+        }
+        this.queue.add(new Write(engine, upserts, deletes, persisted));
+        return persisted;
+    }
+
+    /**
+     * Returns the number of writes waiting for the writer thread.
+     * @return {@code int}
+     */
+    public int pendingWrites() {
+        return this.queue.size();
+    }
+
+    /**
+     * Stops accepting writes and waits for the ones already queued to be persisted.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (this.closed)
+                return;
+            this.closed = true;
+            this.queue.add(END_OF_QUEUE);
+        }
+        try {
+            this.writer.join();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void drain() {
+        List<Write> writes = new ArrayList<>();
+        boolean open = true;
+        while (open) {
+            try {
+                writes.add(this.queue.take());
+            } catch (InterruptedException ex) {
+                continue;
+            }
+            this.queue.drainTo(writes);
+            open = !writes.remove(END_OF_QUEUE);
+
+            int start = 0;
+            for (int i = 1; i <= writes.size(); i++)
+                if (i == writes.size() || writes.get(i).engine() != writes.get(start).engine()) {
+                    apply(writes.subList(start, i));
+                    start = i;
+                }
+            writes.clear();
+        }
+    }
+
+    /**
+     * Merges consecutive writes to the same engine into one batch; the last write of an ID wins.
+     */
+    private void apply(final List<Write> writes) {
+        LinkedHashMap<String, String> upserts = new LinkedHashMap<>();
+        LinkedHashSet<String> deletes = new LinkedHashSet<>();
+        for (Write write : writes) {
+            write.upserts().forEach((entityID, record) -> {
+                deletes.remove(entityID);
+                upserts.put(entityID, record);
+            });
+            write.deletes().forEach(entityID -> {
+                upserts.remove(entityID);
+                deletes.add(entityID);
+            });
+        }
+
+        try {
+            writes.get(0).engine().batch(upserts, deletes);
+            writes.forEach(write -> write.persisted().complete(null));
+        } catch (IOException | RuntimeException ex) {
+            writes.forEach(write -> write.persisted().completeExceptionally(ex));
+        }
+    }
+}
@@ -0,0 +1,574 @@
+package Models.Storage;
+
+import Constants.SyncPolicy;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * <h2>A line-based record file with a primary index.</h2>
+ *
+ * <p>
+ * Each non-blank line of the file is a record whose first comma-separated field is the ID of the entity it holds.
+ * When the file is loaded, every record's position is stored in an ID to {@link RecordPointer} index, so reading,
+ * replacing or removing a record goes straight to its bytes instead of scanning the file for the ID. The index is
+ * kept up-to-date by every write made through this class.
+ * </p>
+ *
+ * <p>
+ * A replacement of the same byte length is written in place, and new records are appended to the end of the file.
+ * A replacement of another length would move every byte following it, so the file is never patched in place then:
+ * the content in front of the record is copied to a temporary file, followed by the patched tail, and the copy is
+ * moved over the file through {@code AtomicFiles}. A crash leaves either the old file or the new one.
+ * </p>
+ *
+ * <p>
+ * {@link #writeAll(Map)} applies a whole batch of changes with one pass over the file: the tail following the
+ * first resized record is read once and patched in memory, and every new record is appended with a single write.
+ * When a record of the batch is resized, its new records are written to the same temporary file, so the whole
+ * batch is committed by the one replacement.
+ * </p>
+ *
+ * <p>
+ * Writes made in place are forced to disk as the file's {@code SyncPolicy} asks; see {@link #setSyncPolicy}.
+ * </p>
+ *
+ * <p>
+ * A removed record is not cut out of the file; its bytes are overwritten in place with a tombstone, a line of the
+ * same length starting with {@code #}, which loads skip. Removing therefore never moves the rest of the file.
+ * {@link #compact()} drops the tombstones once {@link #tombstoneRatio()} makes it worthwhile; it builds the compacted
+ * file without holding the file's lock, so writes made meanwhile are not blocked by it.
+ * </p>
+ *
+ * <p>
+ * Every public method is synchronized, so the file can be compacted from a background thread while it is in use.
+ * </p>
+ */
+public final class RecordFile {
+    private static final byte NEW_LINE = '\n';
+    private static final byte CARRIAGE_RETURN = '\r';
+    static final byte TOMBSTONE = '#';
+
+    private final Path path;
+    private final FileSync sync;
+    private final HashMap<String, RecordPointer> index = new HashMap<>();
+    private int lineCount = 0;
+    private int tombstoneCount = 0;
+    private long modCount = 0;
+    private boolean loaded = false;
+
+    /**
+     * Position of a single record within the file.
+     * @param lineNumber {@code int} zero-based line of the record.
+     * @param byteOffset {@code long} offset of the record's first byte.
+     * @param length {@code int} length of the record in bytes, excluding its line terminator.
+     */
+    public record RecordPointer(int lineNumber, long byteOffset, int length) {}
+
+    /**
+     * A pending replacement of an indexed record.
+     */
+    private record Edit(String entityID, RecordPointer pointer, byte[] replacement) {}
+
+    public RecordFile(final Path path) {
+        this.path = path;
+        this.sync = new FileSync(path);
+    }
+
+    public Path getPath() {
+        return this.path;
+    }
+
+    /**
+     * Sets when writes made in place are forced to disk.
+     * @param policy {@code SyncPolicy} to be used.
+     * @param interval {@code Duration} between forces with {@code BATCHED}; ignored otherwise.
+     */
+    public void setSyncPolicy(final SyncPolicy policy, final Duration interval) {
+        this.sync.setPolicy(policy, interval);
+    }
+
+    /**
+     * Reads every line of the file and rebuilds the index in the same pass.
+     * @return {@code List<String>} lines of the file, blank lines included and tombstones excluded.
+     * @throws IOException if the file could not be read.
+     */
+    public synchronized List<String> load() throws IOException {
+        byte[] content = Files.exists(this.path) ? Files.readAllBytes(this.path) : new byte[0];
+        this.index.clear();
+        this.lineCount = 0;
+        this.tombstoneCount = 0;
+        this.loaded = true;
+        this.modCount++;
+
+        List<String> lines = new ArrayList<>();
+        int lineStart = 0;
+
+        for (int i = 0; i <= content.length; i++) {
+            if (i != content.length && content[i] != NEW_LINE)
+                continue;
+            if (i == content.length && lineStart == content.length)
+                break;
+
+            int lineEnd = (i > lineStart && content[i - 1] == CARRIAGE_RETURN) ? i - 1 : i;
+            if (lineEnd > lineStart && content[lineStart] == TOMBSTONE) {
+                tombstoneCount++;
+                lineCount++;
+                lineStart = i + 1;
+                continue;
+            }
+            String line = new String(content, lineStart, lineEnd - lineStart, StandardCharsets.UTF_8);
+            indexRecord(line, lineStart, lineEnd - lineStart);
+            lines.add(line);
+            lineCount++;
+            lineStart = i + 1;
+        }
+
+        return lines;
+    }
+
+    /**
+     * Replaces the content of the file with the given lines and rebuilds the index from them.
+     * @param lines {@code List<String>} new content of the file.
+     * @throws IOException if the file could not be written to.
+     */
+    public synchronized void rewrite(final List<String> lines) throws IOException {
+        AtomicFiles.write(this.path, lines);
+        this.index.clear();
+        this.lineCount = 0;
+        this.tombstoneCount = 0;
+        this.loaded = true;
+        this.modCount++;
+
+        long offset = 0;
+        int separatorLength = System.lineSeparator().getBytes(StandardCharsets.UTF_8).length;
+        for (String line : lines) {
+            int length = line.getBytes(StandardCharsets.UTF_8).length;
+            indexRecord(line, offset, length);
+            offset += length + separatorLength;
+            lineCount++;
+        }
+    }
+
+    /**
+     * Takes over an index built outside this class, such as by a {@code MappedChunkLoader}, instead of
+     * reading the file again.
+     * @param index {@code Map<String, RecordPointer>} position of every record.
+     * @param lineCount {@code int} number of lines in the file, tombstones included.
+     * @param tombstoneCount {@code int} number of tombstones in the file.
+     */
+    public synchronized void adopt(final Map<String, RecordPointer> index, final int lineCount,
+                                   final int tombstoneCount) {
+        this.index.clear();
+        this.index.putAll(index);
+        this.lineCount = lineCount;
+        this.tombstoneCount = tombstoneCount;
+        this.loaded = true;
+        this.modCount++;
+    }
+
+    public synchronized boolean contains(final String entityID) {
+        ensureLoadedUnchecked();
+        return this.index.containsKey(entityID);
+    }
+
+    public synchronized Optional<RecordPointer> pointer(final String entityID) {
+        ensureLoadedUnchecked();
+        return Optional.ofNullable(this.index.get(entityID));
+    }
+
+    /**
+     * Returns the number of indexed records.
+     * @return {@code int}
+     */
+    public synchronized int size() {
+        ensureLoadedUnchecked();
+        return this.index.size();
+    }
+
+    /**
+     * Reads a single record straight from its offset.
+     * @param entityID {@code String} ID of the entity.
+     * @return {@code Optional<String>} the record, or empty when the ID is not indexed.
+     * @throws IOException if the file could not be read.
+     */
+    public synchronized Optional<String> read(final String entityID) throws IOException {
+        Optional<RecordPointer> pointer = pointer(entityID);
+        if (pointer.isEmpty())
+            return Optional.empty();
+
+        try (FileChannel channel = FileChannel.open(this.path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(pointer.get().length());
+            readFully(channel, buffer, pointer.get().byteOffset());
+            return Optional.of(new String(buffer.array(), StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Writes a record; replaces the existing record with the same ID or appends a new one.
+     * @param entityID {@code String} ID of the entity.
+     * @param record {@code String} serialized entity.
+     * @throws IOException if the file could not be written to.
+     */
+    public synchronized void write(final String entityID, final String record) throws IOException {
+        ensureLoaded();
+        this.modCount++;
+        byte[] bytes = record.getBytes(StandardCharsets.UTF_8);
+        RecordPointer pointer = this.index.get(entityID);
+        if (pointer != null && pointer.length() != bytes.length) {
+            replaceWithEdits(new ArrayList<>(List.of(new Edit(entityID, pointer, bytes))), List.of(), List.of());
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(this.path, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            if (pointer == null)
+                append(channel, entityID, bytes);
+            else
+                writeFully(channel, ByteBuffer.wrap(bytes), pointer.byteOffset());
+            this.sync.written(channel);
+        }
+    }
+
+    /**
+     * Removes a record by overwriting it with a tombstone.
+     * @param entityID {@code String} ID of the entity.
+     * @return {@code boolean} false if no record exists for the ID.
+     * @throws IOException if the file could not be written to.
+     */
+    public synchronized boolean remove(final String entityID) throws IOException {
+        return removeAll(List.of(entityID)) == 1;
+    }
+
+    /**
+     * Writes a batch of records in one pass over the file; each replaces the existing record with the same ID or
+     * is appended as a new one.
+     * @param records {@code Map<String, String>} serialized entities keyed by their ID.
+     * @throws IOException if the file could not be written to.
+     */
+    public synchronized void writeAll(final Map<String, String> records) throws IOException {
+        ensureLoaded();
+        this.modCount++;
+        List<Edit> edits = new ArrayList<>();
+        List<String> appendedIDs = new ArrayList<>();
+        List<byte[]> appended = new ArrayList<>();
+        boolean resized = false;
+
+        for (Map.Entry<String, String> record : records.entrySet()) {
+            byte[] bytes = record.getValue().getBytes(StandardCharsets.UTF_8);
+            RecordPointer pointer = this.index.get(record.getKey());
+            if (pointer == null) {
+                appendedIDs.add(record.getKey());
+                appended.add(bytes);
+            } else {
+                edits.add(new Edit(record.getKey(), pointer, bytes));
+                resized |= pointer.length() != bytes.length;
+            }
+        }
+        if (edits.isEmpty() && appended.isEmpty())
+            return;
+        if (resized) {
+            replaceWithEdits(edits, appendedIDs, appended);
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(this.path, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            for (Edit edit : edits)
+                writeFully(channel, ByteBuffer.wrap(edit.replacement()), edit.pointer().byteOffset());
+            if (!appended.isEmpty())
+                indexAppended(appendedIDs, appendAll(channel, channel.size(), appended));
+            this.sync.written(channel);
+        }
+    }
+
+    /**
+     * Removes a batch of records by overwriting each with a tombstone; no other byte of the file is moved.
+     * @param entityIDs {@code Collection<String>} IDs of the entities.
+     * @return {@code int} number of records removed; IDs without a record are skipped.
+     * @throws IOException if the file could not be written to.
+     */
+    public synchronized int removeAll(final Collection<String> entityIDs) throws IOException {
+        ensureLoaded();
+        int removed = 0;
+        try (FileChannel channel = FileChannel.open(this.path, StandardOpenOption.WRITE)) {
+            for (String entityID : new LinkedHashSet<>(entityIDs)) {
+                RecordPointer pointer = this.index.remove(entityID);
+                if (pointer == null)
+                    continue;
+                byte[] tombstone = new byte[pointer.length()];
+                Arrays.fill(tombstone, (byte) ' ');
+                tombstone[0] = TOMBSTONE;
+                writeFully(channel, ByteBuffer.wrap(tombstone), pointer.byteOffset());
+                removed++;
+            }
+            this.sync.written(channel);
+        } finally {
+            this.tombstoneCount += removed;
+            this.modCount++;
+        }
+        return removed;
+    }
+
+    /**
+     * Returns the share of the file's lines that are tombstones.
+     * @return {@code double} between 0 and 1.
+     */
+    public synchronized double tombstoneRatio() {
+        ensureLoadedUnchecked();
+        return this.lineCount == 0 ? 0 : (double) this.tombstoneCount / this.lineCount;
+    }
+
+    /**
+     * Rewrites the file without its tombstones. The compacted copy is built from a snapshot of the file without
+     * holding its lock; it only replaces the file if no write was made in the meantime, otherwise it is discarded.
+     * @return {@code boolean} true if the file was compacted.
+     * @throws IOException if the file could not be read or replaced.
+     */
+    public boolean compact() throws IOException {
+        byte[] content;
+        long snapshot;
+        synchronized (this) {
+            ensureLoaded();
+            if (this.tombstoneCount == 0 || !Files.exists(this.path))
+                return false;
+            content = Files.readAllBytes(this.path);
+            snapshot = this.modCount;
+        }
+
+        byte[] separator = System.lineSeparator().getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream compacted = new ByteArrayOutputStream(content.length);
+        HashMap<String, RecordPointer> compactedIndex = new HashMap<>();
+        int compactedLines = 0;
+        int lineStart = 0;
+        for (int i = 0; i <= content.length; i++) {
+            if (i != content.length && content[i] != NEW_LINE)
+                continue;
+            if (i == content.length && lineStart == content.length)
+                break;
+
+            int lineEnd = (i > lineStart && content[i - 1] == CARRIAGE_RETURN) ? i - 1 : i;
+            if (lineEnd == lineStart || content[lineStart] != TOMBSTONE) {
+                for (int comma = lineStart; comma < lineEnd; comma++)
+                    if (content[comma] == ',') {
+                        if (comma > lineStart)
+                            compactedIndex.put(new String(content, lineStart, comma - lineStart, StandardCharsets.UTF_8),
+                                    new RecordPointer(compactedLines, compacted.size(), lineEnd - lineStart));
+                        break;
+                    }
+                compacted.write(content, lineStart, lineEnd - lineStart);
+                compacted.writeBytes(separator);
+                compactedLines++;
+            }
+            lineStart = i + 1;
+        }
+
+        Path temporary = this.path.resolveSibling(this.path.getFileName() + ".compact");
+        Files.write(temporary, compacted.toByteArray());
+        synchronized (this) {
+            if (snapshot != this.modCount) {
+                Files.deleteIfExists(temporary);
+                return false;
+            }
+            AtomicFiles.replace(temporary, this.path);
+            this.index.clear();
+            this.index.putAll(compactedIndex);
+            this.lineCount = compactedLines;
+            this.tombstoneCount = 0;
+            this.modCount++;
+        }
+        return true;
+    }
+
+    /**
+     * Loads the index on first use. If the file cannot be read, the index stays unloaded and the error is thrown,
+     * so a write never mistakes the records it could not see for new ones.
+     */
+    private void ensureLoaded() throws IOException {
+        if (!this.loaded)
+            load();
+    }
+
+    private void ensureLoadedUnchecked() {
+        try {
+            ensureLoaded();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not index " + this.path + ".", ex);
+        }
+    }
+
+    private void indexRecord(final String line, final long offset, final int length) {
+        int comma = line.indexOf(',');
+        if (comma > 0)
+            this.index.put(line.substring(0, comma), new RecordPointer(lineCount, offset, length));
+    }
+
+    private void append(final FileChannel channel, final String entityID, final byte[] bytes) throws IOException {
+        long end = channel.size();
+        byte[] separator = System.lineSeparator().getBytes(StandardCharsets.UTF_8);
+        boolean needsLeadingSeparator = end > 0 && terminatorLength(channel, end - 1) == 0;
+
+        ByteBuffer buffer = ByteBuffer.allocate(bytes.length + separator.length * (needsLeadingSeparator ? 2 : 1));
+        if (needsLeadingSeparator)
+            buffer.put(separator);
+        long offset = end + buffer.position();
+        buffer.put(bytes).put(separator).flip();
+        writeFully(channel, buffer, end);
+
+        this.index.put(entityID, new RecordPointer(lineCount++, offset, bytes.length));
+    }
+
+    /**
+     * Writes the records at {@code end}, each followed by a line separator, with a single write.
+     * @return {@code List<RecordPointer>} position of each record; the caller adds them to the index.
+     */
+    private List<RecordPointer> appendAll(final FileChannel channel, final long end, final List<byte[]> records)
+            throws IOException {
+        byte[] separator = System.lineSeparator().getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        if (end > 0 && terminatorLength(channel, end - 1) == 0)
+            buffer.write(separator);
+
+        List<RecordPointer> pointers = new ArrayList<>(records.size());
+        for (int i = 0; i < records.size(); i++) {
+            pointers.add(new RecordPointer(lineCount + i, end + buffer.size(), records.get(i).length));
+            buffer.write(records.get(i));
+            buffer.write(separator);
+        }
+        writeFully(channel, ByteBuffer.wrap(buffer.toByteArray()), end);
+        return pointers;
+    }
+
+    private void indexAppended(final List<String> entityIDs, final List<RecordPointer> pointers) {
+        for (int i = 0; i < pointers.size(); i++)
+            this.index.put(entityIDs.get(i), pointers.get(i));
+        lineCount += pointers.size();
+    }
+
+    /**
+     * Applies every edit, then appends the new records, in a copy of the file that is moved over it. The content in
+     * front of the first edited record is copied as is; the tail following it is read once, patched in memory and
+     * written once. The index is only updated once the copy has replaced the file; until then, a failure leaves both
+     * the file and the index as they were.
+     */
+    private void replaceWithEdits(final List<Edit> edits, final List<String> appendedIDs,
+                                  final List<byte[]> appended) throws IOException {
+        edits.sort(Comparator.comparingLong(edit -> edit.pointer().byteOffset()));
+        long start = edits.get(0).pointer().byteOffset();
+        HashMap<String, RecordPointer> replaced = new HashMap<>();
+        long[] offsets = new long[edits.size()];
+        long[] byteDeltas = new long[edits.size()];
+        List<RecordPointer> appendedPointers;
+
+        Path temporary = AtomicFiles.temporaryFor(this.path);
+        try {
+            try (FileChannel source = FileChannel.open(this.path, StandardOpenOption.READ);
+                 FileChannel copy = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                         StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                for (long copied = 0; copied < start; )
+                    copied += source.transferTo(copied, start - copied, copy);
+
+                ByteBuffer tail = ByteBuffer.allocate((int) Math.max(0, source.size() - start));
+                readFully(source, tail, start);
+                byte[] content = tail.array();
+
+                ByteArrayOutputStream patched = new ByteArrayOutputStream(content.length);
+                long byteDelta = 0;
+                int position = 0;
+                for (int i = 0; i < edits.size(); i++) {
+                    Edit edit = edits.get(i);
+                    RecordPointer pointer = edit.pointer();
+                    int recordStart = (int) (pointer.byteOffset() - start);
+                    int span = pointer.length();
+                    patched.write(content, position, recordStart - position);
+                    patched.write(edit.replacement());
+                    replaced.put(edit.entityID(), new RecordPointer(pointer.lineNumber(),
+                            pointer.byteOffset() + byteDelta, edit.replacement().length));
+                    byteDelta += edit.replacement().length - span;
+                    position = recordStart + span;
+                    offsets[i] = pointer.byteOffset();
+                    byteDeltas[i] = byteDelta;
+                }
+                patched.write(content, position, content.length - position);
+                writeFully(copy, ByteBuffer.wrap(patched.toByteArray()), start);
+
+                appendedPointers = appended.isEmpty() ? List.of() : appendAll(copy, start + patched.size(), appended);
+            }
+            AtomicFiles.replace(temporary, this.path);
+        } catch (IOException ex) {
+            Files.deleteIfExists(temporary);
+            throw ex;
+        }
+
+        edits.forEach(edit -> this.index.remove(edit.entityID()));
+        this.index.replaceAll((id, pointer) -> {
+            int preceding = precedingEdit(offsets, pointer.byteOffset());
+            return preceding < 0 ? pointer : new RecordPointer(pointer.lineNumber(),
+                    pointer.byteOffset() + byteDeltas[preceding], pointer.length());
+        });
+        this.index.putAll(replaced);
+        indexAppended(appendedIDs, appendedPointers);
+    }
+
+    /**
+     * Returns the index of the last edit positioned before {@code offset}; -1 if there is none.
+     */
+    private static int precedingEdit(final long[] offsets, final long offset) {
+        int low = 0;
+        int high = offsets.length - 1;
+        int result = -1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (offsets[middle] < offset) {
+                result = middle;
+                low = middle + 1;
+            } else
+                high = middle - 1;
+        }
+        return result;
+    }
+
+    /**
+     * Returns the length of the line terminator starting at {@code position}; 0 if there is none.
+     */
+    private int terminatorLength(final FileChannel channel, final long position) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(2);
+        int read = channel.read(buffer, position);
+        if (read <= 0)
+            return 0;
+        if (buffer.get(0) == NEW_LINE)
+            return 1;
+        return (read == 2 && buffer.get(0) == CARRIAGE_RETURN && buffer.get(1) == NEW_LINE) ? 2 : 0;
+    }
+
+    private static void readFully(final FileChannel channel, final ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0)
+                break;
+            position += read;
+        }
+    }
+
+    private static void writeFully(final FileChannel channel, final ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining())
+            position += channel.write(buffer, position);
+    }
+}
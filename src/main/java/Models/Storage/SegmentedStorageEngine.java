@@ -0,0 +1,435 @@
+package Models.Storage;
+
+import Constants.SyncPolicy;
+import Entities.Entity;
+import Interfaces.DeserializeEntityInterface;
+import Models.LogMessage;
+import Services.IDGenerator;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * <h2>Keeps a model's records in one CSV segment per business day.</h2>
+ *
+ * <p>
+ * Segments sit in a directory named after the model's file ({@code TransactionList/2024-03-01.txt}), and a record
+ * belongs to the local day of its timestamp. Only today's segment takes writes; the segments of earlier days are
+ * closed, so writing or deleting one of their records fails. Today's segment becomes closed by itself once the
+ * clock passes midnight.
+ * </p>
+ *
+ * <p>
+ * The engine only opens the segments of its window, set through {@link #setWindow(LocalDate, LocalDate)}, plus
+ * today's segment; older segments stay on disk until a window covering them is loaded. Every read, including
+ * {@link #contains(String)} and {@link #size()}, therefore only covers the open segments.
+ * </p>
+ *
+ * <p>
+ * The first time the engine is used, a model file written before segmenting, if any, is split into segments.
+ * The segments are written to a staging directory that is renamed into place once complete, and the model file is
+ * then renamed with a {@code .migrated} extension, so it is neither split twice nor mistaken for current history.
+ * </p>
+ *
+ * <p>
+ * Every method touching the open segments is synchronized, so today's segment can be compacted from a background
+ * thread.
+ * </p>
+ * @param <T> type of entity held by the segments.
+ */
+public final class SegmentedStorageEngine<T extends Entity> implements StorageEngine<T>, Compactable {
+    private static final String SEGMENT_EXTENSION = ".txt";
+    public static final String MIGRATED_EXTENSION = ".migrated";
+
+    private final Path legacyPath;
+    private final Path directory;
+    private final Function<String, Instant> timestampOf;
+    private final Clock clock;
+    private final TreeMap<LocalDate, CsvStorageEngine<T>> segments = new TreeMap<>();
+    private final HashMap<String, LocalDate> days = new HashMap<>();
+    private LocalDate firstDay;
+    private LocalDate lastDay;
+    private boolean opened = false;
+    private SyncPolicy syncPolicy = SyncPolicy.OS_DEFAULT;
+    private Duration syncInterval = Duration.ZERO;
+
+    /**
+     * Creates an engine for the given model file. No segment is read until the engine is first used.
+     * @param modelPath {@code Path} to the model's CSV file.
+     * @param timestampOf {@code Function<String, Instant>} reads the timestamp of a record; returns null when the
+     *                    record has none.
+     * @param clock {@code Clock} deciding the current business day and its time zone.
+     */
+    public SegmentedStorageEngine(final Path modelPath, final Function<String, Instant> timestampOf,
+                                  final Clock clock) {
+        String fileName = modelPath.getFileName().toString();
+        int extension = fileName.lastIndexOf('.');
+        this.legacyPath = modelPath;
+        this.directory = modelPath.resolveSibling(extension > 0 ? fileName.substring(0, extension) : fileName + ".d");
+        this.timestampOf = timestampOf;
+        this.clock = clock;
+    }
+
+    /**
+     * Returns the directory holding the segments.
+     * @return {@code Path}
+     */
+    @Override
+    public Path getPath() {
+        return this.directory;
+    }
+
+    /**
+     * Applies the policy to every open segment, and to every segment opened later.
+     */
+    @Override
+    public synchronized void setSyncPolicy(final SyncPolicy policy, final Duration interval) {
+        for (CsvStorageEngine<T> segment : this.segments.values())
+            segment.setSyncPolicy(policy, interval);
+        this.syncPolicy = policy;
+        this.syncInterval = interval;
+    }
+
+    /**
+     * Restricts the segments opened by the next load to a range of days, today's segment aside. A null bound
+     * leaves that side of the range open.
+     * @param firstDay {@code LocalDate} first day to be opened, inclusive.
+     * @param lastDay {@code LocalDate} last day to be opened, inclusive.
+     */
+    public synchronized void setWindow(final LocalDate firstDay, final LocalDate lastDay) {
+        this.firstDay = firstDay;
+        this.lastDay = lastDay;
+        this.opened = false;
+    }
+
+    /**
+     * Returns the business day currently taking writes.
+     * @return {@code LocalDate}
+     */
+    public LocalDate today() {
+        return LocalDate.now(this.clock);
+    }
+
+    /**
+     * Returns the days that have a segment on disk, whether open or not.
+     * @return {@code TreeSet<LocalDate>} in chronological order.
+     * @throws IOException if the directory could not be listed.
+     */
+    public TreeSet<LocalDate> segmentDays() throws IOException {
+        TreeSet<LocalDate> segmentDays = new TreeSet<>();
+        if (!Files.isDirectory(this.directory))
+            return segmentDays;
+
+        try (Stream<Path> files = Files.list(this.directory)) {
+            files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.endsWith(SEGMENT_EXTENSION))
+                    .forEach(name -> {
+                        try {
+                            segmentDays.add(LocalDate.parse(name.substring(0, name.length() - SEGMENT_EXTENSION.length())));
+                        } catch (DateTimeParseException ignored) {}
+                    });
+        }
+        return segmentDays;
+    }
+
+    /**
+     * Returns the business day a record belongs to; null if the record has no readable timestamp.
+     * @param record {@code String}
+     * @return {@code LocalDate}
+     */
+    public LocalDate dayOf(final String record) {
+        Instant timestamp = this.timestampOf.apply(record);
+        return timestamp == null ? null : dayOf(timestamp);
+    }
+
+    public LocalDate dayOf(final Instant timestamp) {
+        return LocalDate.ofInstant(timestamp, this.clock.getZone());
+    }
+
+    @Override
+    public synchronized Loaded<T> load(final Supplier<? extends DeserializeEntityInterface> deserializerFactory,
+                          final Predicate<String> lineIsValid, final boolean parallel) throws IOException {
+        splitLegacyFile();
+        this.segments.clear();
+        this.days.clear();
+
+        List<T> entities = new ArrayList<>();
+        List<LogMessage> logs = new ArrayList<>();
+        for (LocalDate day : windowDays()) {
+            CsvStorageEngine<T> segment = newSegment(day);
+            this.segments.put(day, segment);
+            Loaded<T> loaded = segment.load(deserializerFactory, lineIsValid, parallel);
+            loaded.entities().forEach(entity -> this.days.put(entity.getID(), day));
+            entities.addAll(loaded.entities());
+            logs.addAll(loaded.logs());
+        }
+        this.opened = true;
+        return new Loaded<>(entities, logs);
+    }
+
+    @Override
+    public synchronized Optional<String> get(final String entityID) throws IOException {
+        ensureOpen();
+        LocalDate day = this.days.get(entityID);
+        return day == null ? Optional.empty() : this.segments.get(day).get(entityID);
+    }
+
+    @Override
+    public synchronized boolean contains(final String entityID) {
+        ensureOpen();
+        return this.days.containsKey(entityID);
+    }
+
+    @Override
+    public synchronized int size() {
+        ensureOpen();
+        return this.days.size();
+    }
+
+    @Override
+    public synchronized void put(final String entityID, final String record) throws IOException {
+        batch(Map.of(entityID, record), List.of());
+    }
+
+    @Override
+    public synchronized boolean delete(final String entityID) throws IOException {
+        if (!contains(entityID))
+            return false;
+        batch(Map.of(), List.of(entityID));
+        return true;
+    }
+
+    /**
+     * Writes the batch to today's segment. The whole batch is refused when any of its records belongs to a closed
+     * segment.
+     */
+    @Override
+    public synchronized void batch(final Map<String, String> upserts, final Collection<String> deletes) throws IOException {
+        ensureOpen();
+        LocalDate today = today();
+        for (Map.Entry<String, String> upsert : upserts.entrySet()) {
+            LocalDate day = dayOf(upsert.getValue());
+            if (day == null)
+                throw new IOException("Record " + upsert.getKey() + " has no business day.");
+            requireWritable(upsert.getKey(), day, today);
+            requireWritable(upsert.getKey(), this.days.getOrDefault(upsert.getKey(), today), today);
+        }
+        List<String> removed = new ArrayList<>();
+        for (String entityID : deletes)
+            if (this.days.containsKey(entityID)) {
+                requireWritable(entityID, this.days.get(entityID), today);
+                removed.add(entityID);
+            }
+
+        Files.createDirectories(this.directory);
+        todaySegment(today).batch(upserts, removed);
+        upserts.keySet().forEach(entityID -> this.days.put(entityID, today));
+        removed.forEach(this.days::remove);
+    }
+
+    @Override
+    public synchronized void scan(final Consumer<String> visitor) throws IOException {
+        ensureOpen();
+        for (CsvStorageEngine<T> segment : this.segments.values())
+            segment.scan(visitor);
+    }
+
+    /**
+     * Rewrites today's segment and creates the segments of closed days that do not exist yet. A closed segment
+     * that already exists is left untouched; the records given for its day must be the ones it holds, otherwise
+     * nothing is written. Segments outside the window that no record refers to are left as they are.
+     */
+    @Override
+    public synchronized void replaceAll(final Map<String, String> records) throws IOException {
+        ensureOpen();
+        LocalDate today = today();
+        TreeMap<LocalDate, LinkedHashMap<String, String>> byDay = new TreeMap<>();
+        for (Map.Entry<String, String> record : records.entrySet()) {
+            LocalDate day = dayOf(record.getValue());
+            if (day == null)
+                throw new IOException("Record " + record.getKey() + " has no business day.");
+            byDay.computeIfAbsent(day, key -> new LinkedHashMap<>()).put(record.getKey(), record.getValue());
+        }
+
+        Set<LocalDate> affected = new TreeSet<>(byDay.keySet());
+        affected.addAll(this.segments.keySet());
+        affected.add(today);
+        for (LocalDate day : affected) {
+            if (day.equals(today) || !Files.exists(segmentPath(day)))
+                continue;
+            Set<String> expected = byDay.getOrDefault(day, new LinkedHashMap<>()).keySet();
+            if (!this.segments.containsKey(day))
+                openSegment(day);
+            if (!recordsOf(day).equals(expected))
+                throw new IOException("Segment " + segmentPath(day).getFileName() + " is closed and cannot be changed.");
+        }
+
+        Files.createDirectories(this.directory);
+        for (LocalDate day : affected) {
+            if (!day.equals(today) && Files.exists(segmentPath(day)))
+                continue;
+            LinkedHashMap<String, String> dayRecords = byDay.getOrDefault(day, new LinkedHashMap<>());
+            if (!day.equals(today) && dayRecords.isEmpty())
+                continue;
+
+            CsvStorageEngine<T> segment = this.segments.computeIfAbsent(day,
+                    this::newSegment);
+            segment.replaceAll(dayRecords);
+            this.days.values().removeIf(day::equals);
+            dayRecords.keySet().forEach(entityID -> this.days.put(entityID, day));
+        }
+    }
+
+    /**
+     * Only today's segment takes deletes, so it is the only one that can hold tombstones.
+     */
+    @Override
+    public synchronized double tombstoneRatio() {
+        CsvStorageEngine<T> segment = this.segments.get(today());
+        return segment == null ? 0 : segment.tombstoneRatio();
+    }
+
+    @Override
+    public boolean compact() throws IOException {
+        CsvStorageEngine<T> segment;
+        synchronized (this) {
+            segment = this.segments.get(today());
+        }
+        return segment != null && segment.compact();
+    }
+
+    private void requireWritable(final String entityID, final LocalDate day, final LocalDate today)
+            throws IOException {
+        if (!day.equals(today))
+            throw new IOException("Record " + entityID + " belongs to the closed segment " +
+                    segmentPath(day).getFileName() + ".");
+    }
+
+    private CsvStorageEngine<T> todaySegment(final LocalDate today) {
+        return this.segments.computeIfAbsent(today, day -> newSegment(day));
+    }
+
+    private CsvStorageEngine<T> newSegment(final LocalDate day) {
+        CsvStorageEngine<T> segment = new CsvStorageEngine<>(segmentPath(day));
+        segment.setSyncPolicy(this.syncPolicy, this.syncInterval);
+        return segment;
+    }
+
+    private Path segmentPath(final LocalDate day) {
+        return this.directory.resolve(day + SEGMENT_EXTENSION);
+    }
+
+    private Set<String> recordsOf(final LocalDate day) {
+        Set<String> entityIDs = new HashSet<>();
+        this.days.forEach((entityID, recordDay) -> {
+            if (recordDay.equals(day))
+                entityIDs.add(entityID);
+        });
+        return entityIDs;
+    }
+
+    /**
+     * Returns the days to be opened: every segment on disk within the window, and today.
+     */
+    private TreeSet<LocalDate> windowDays() throws IOException {
+        TreeSet<LocalDate> windowDays = new TreeSet<>();
+        for (LocalDate day : segmentDays())
+            if ((this.firstDay == null || !day.isBefore(this.firstDay)) && (this.lastDay == null || !day.isAfter(this.lastDay)))
+                windowDays.add(day);
+        windowDays.add(today());
+        return windowDays;
+    }
+
+    /**
+     * Opens the segments of the window without deserializing them, indexing the ID of every record.
+     */
+    private void ensureOpen() {
+        if (this.opened)
+            return;
+        this.opened = true;
+        this.segments.clear();
+        this.days.clear();
+        try {
+            splitLegacyFile();
+            for (LocalDate day : windowDays())
+                openSegment(day);
+        } catch (IOException ignored) {
+            // Segments that could not be read are treated as empty, as a missing CSV file is.
+        }
+    }
+
+    private void openSegment(final LocalDate day) throws IOException {
+        CsvStorageEngine<T> segment = newSegment(day);
+        this.segments.put(day, segment);
+        segment.scan(line -> {
+            int comma = line.indexOf(',');
+            if (comma > 0 && IDGenerator.isValidGUID(line.substring(0, comma)))
+                this.days.put(line.substring(0, comma), day);
+        });
+    }
+
+    /**
+     * Splits the model's file into segments the first time the engine is used, that is, when the segment
+     * directory does not exist yet. Lines without a readable timestamp go to today's segment, so corrupt lines are
+     * still counted when it is loaded. A split interrupted before its staging directory was renamed is started over.
+     */
+    private void splitLegacyFile() throws IOException {
+        if (Files.isDirectory(this.directory))
+            return;
+        if (!Files.exists(this.legacyPath)) {
+            Files.createDirectories(this.directory);
+            return;
+        }
+
+        TreeMap<LocalDate, List<String>> byDay = new TreeMap<>();
+        for (String line : Files.readAllLines(this.legacyPath, StandardCharsets.UTF_8)) {
+            if (line.isBlank())
+                continue;
+            LocalDate day = dayOf(line);
+            byDay.computeIfAbsent(day == null ? today() : day, key -> new ArrayList<>()).add(line);
+        }
+
+        Path staging = AtomicFiles.temporaryFor(this.directory);
+        deleteDirectory(staging);
+        Files.createDirectories(staging);
+        for (Map.Entry<LocalDate, List<String>> segment : byDay.entrySet())
+            AtomicFiles.write(staging.resolve(segment.getKey() + SEGMENT_EXTENSION), segment.getValue());
+        Files.move(staging, this.directory, StandardCopyOption.ATOMIC_MOVE);
+        Files.move(this.legacyPath, this.legacyPath.resolveSibling(this.legacyPath.getFileName() + MIGRATED_EXTENSION),
+                StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static void deleteDirectory(final Path directory) throws IOException {
+        if (!Files.exists(directory))
+            return;
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList())
+                Files.delete(file);
+        }
+    }
+}
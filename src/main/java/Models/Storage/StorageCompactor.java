@@ -0,0 +1,85 @@
+package Models.Storage;
+
+import Utilities.LogService;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * <h2>Compacts storage on a background thread once enough of it is tombstones.</h2>
+ *
+ * <p>
+ * Models hand their storage to {@link #requestCompaction(Compactable)} after removing records. Storage whose
+ * tombstone ratio has reached the threshold is compacted on the compactor's own daemon thread, so the thread that
+ * removed the records never waits for the rewrite. Requests for storage that is already queued are merged.
+ * </p>
+ */
+public final class StorageCompactor implements AutoCloseable {
+    public static final double DEFAULT_THRESHOLD = 0.25;
+
+    private final double threshold;
+    private final ExecutorService executor;
+    private final ConcurrentHashMap<Compactable, CompletableFuture<Boolean>> pending = new ConcurrentHashMap<>();
+    private final LogService logger = new LogService(this.getClass().getName());
+
+    public StorageCompactor() {
+        this(DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * Creates a compactor with its own background thread.
+     * @param threshold {@code double} tombstone ratio, between 0 and 1, from which storage is compacted.
+     */
+    public StorageCompactor(final double threshold) {
+        if (threshold < 0 || threshold > 1)
+            throw new IllegalArgumentException("Tombstone threshold must be between 0 and 1.");
+        this.threshold = threshold;
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "storage-compactor");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+    }
+
+    public double getThreshold() {
+        return this.threshold;
+    }
+
+    /**
+     * Queues the storage for compaction if its tombstone ratio has reached the threshold.
+     * @param storage {@code Compactable} storage that had records removed.
+     * @return {@code CompletableFuture<Boolean>} completes with true once the storage is compacted; completes with
+     *         false right away if the storage is under the threshold or holds no tombstones.
+     */
+    public CompletableFuture<Boolean> requestCompaction(final Compactable storage) {
+        double ratio = storage.tombstoneRatio();
+        if (ratio == 0 || ratio < this.threshold)
+            return CompletableFuture.completedFuture(false);
+
+        return this.pending.computeIfAbsent(storage, key -> CompletableFuture.supplyAsync(() -> {
+            this.pending.remove(key);
+            try {
+                boolean compacted = key.compact();
+                if (compacted)
+                    this.logger.logVerbose("Compacted storage in the background.");
+                return compacted;
+            } catch (IOException ex) {
+                this.logger.logWarning("Encountered an exception (" + ex.getMessage() + ") while compacting " +
+                        "storage in the background.\n" + ex);
+                return false;
+            }
+        }, this.executor));
+    }
+
+    /**
+     * Stops the background thread. Compactions already queued are dropped.
+     */
+    @Override
+    public void close() {
+        this.executor.shutdownNow();
+    }
+}
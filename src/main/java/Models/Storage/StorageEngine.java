@@ -0,0 +1,145 @@
+package Models.Storage;
+
+import Constants.SyncPolicy;
+import Entities.Entity;
+import Interfaces.DeserializeEntityInterface;
+import Models.LogMessage;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * <h2>Where a model keeps the records of its entities.</h2>
+ *
+ * <p>
+ * A record is an entity's serialized form, keyed by the entity's ID. Engines only store and return records; the
+ * model supplies the deserializer and line validation when loading, so an engine can be swapped without touching
+ * the model using it. Every write made through an engine is persisted by the time the call returns, unless the
+ * engine states otherwise.
+ * </p>
+ *
+ * <p>
+ * Models call their engine from several threads at once, so an engine guards its own state; the built-in engines
+ * synchronize every method that reads or writes their index or file.
+ * </p>
+ * @param <T> type of entity held by the engine.
+ */
+public interface StorageEngine<T extends Entity> {
+    /**
+     * Outcome of a load.
+     * @param entities {@code List<T>} deserialized entities, in storage order.
+     * @param logs {@code List<LogMessage>} logs collected by the deserializers.
+     */
+    record Loaded<T>(List<T> entities, List<LogMessage> logs) {}
+
+    /**
+     * Returns the file holding the records; null for engines that do not persist to a file.
+     * @return {@code Path}
+     */
+    Path getPath();
+
+    /**
+     * Sets when the writes this engine makes in place are forced to disk. Engines that do not persist to a file
+     * ignore it.
+     * @param policy {@code SyncPolicy} to be used.
+     * @param interval {@code Duration} between forces with {@code BATCHED}; ignored otherwise.
+     */
+    default void setSyncPolicy(final SyncPolicy policy, final Duration interval) {}
+
+    /**
+     * Reads and deserializes every valid record.
+     * @param deserializerFactory {@code Supplier} creating the deserializer(s) to be used.
+     * @param lineIsValid {@code Predicate<String>} validation called for every record.
+     * @param parallel {@code boolean} hint that records may be deserialized concurrently, in which case each thread
+     *                 gets its own deserializer and {@code lineIsValid} must be thread-safe. Engines are free to
+     *                 ignore it.
+     * @return {@code Loaded<T>} the entities.
+     * @throws IOException if the records could not be read.
+     */
+    Loaded<T> load(Supplier<? extends DeserializeEntityInterface> deserializerFactory, Predicate<String> lineIsValid,
+                   boolean parallel) throws IOException;
+
+    /**
+     * Reads a single record.
+     * @param entityID {@code String} ID of the entity.
+     * @return {@code Optional<String>} the record, or empty when none exists for the ID.
+     * @throws IOException if the record could not be read.
+     */
+    Optional<String> get(String entityID) throws IOException;
+
+    boolean contains(String entityID);
+
+    /**
+     * Returns the number of records held.
+     * @return {@code int}
+     */
+    int size();
+
+    /**
+     * Returns the position of a record in storage order, such as its line in a CSV file. Engines keeping an index
+     * answer from it; by default every record is scanned.
+     * @param entityID {@code String} ID of the entity.
+     * @return {@code Optional<Integer>} the position, or empty when none exists for the ID.
+     * @throws IOException if the records could not be read.
+     */
+    default Optional<Integer> positionOf(final String entityID) throws IOException {
+        int[] position = { 0, -1 };
+        scan(record -> {
+            if (position[1] < 0 && record.startsWith(entityID + ","))
+                position[1] = position[0];
+            position[0]++;
+        });
+        return position[1] < 0 ? Optional.empty() : Optional.of(position[1]);
+    }
+
+    /**
+     * Writes a record; replaces the existing record with the same ID or adds a new one.
+     * @param entityID {@code String} ID of the entity.
+     * @param record {@code String} serialized entity.
+     * @throws IOException if the record could not be written.
+     */
+    void put(String entityID, String record) throws IOException;
+
+    default void put(final T entity) throws IOException {
+        put(entity.getID(), entity.serialize());
+    }
+
+    /**
+     * Removes a record.
+     * @param entityID {@code String} ID of the entity.
+     * @return {@code boolean} false if no record exists for the ID.
+     * @throws IOException if the record could not be removed.
+     */
+    boolean delete(String entityID) throws IOException;
+
+    /**
+     * Applies a batch of writes and deletions as a single commit.
+     * @param upserts {@code Map<String, String>} records keyed by ID, written in iteration order.
+     * @param deletes {@code Collection<String>} IDs of the records to be removed.
+     * @throws IOException if the batch could not be written.
+     */
+    void batch(Map<String, String> upserts, Collection<String> deletes) throws IOException;
+
+    /**
+     * Hands every stored record to {@code visitor}, in storage order. Engines holding unkeyed content, such as a
+     * CSV file's corrupt lines, include it so callers can count it.
+     * @param visitor {@code Consumer<String>} receives each record.
+     * @throws IOException if the records could not be read.
+     */
+    void scan(Consumer<String> visitor) throws IOException;
+
+    /**
+     * Replaces every record held by the engine.
+     * @param records {@code Map<String, String>} the new records keyed by ID, in storage order.
+     * @throws IOException if the records could not be written.
+     */
+    void replaceAll(Map<String, String> records) throws IOException;
+}
@@ -1,23 +1,52 @@
 package Models;
 
+import Constants.StorageBackend;
 import Entities.Check;
-import Interfaces.DeserializeEntityInterface;
+import Models.Storage.CheckStorageEngine;
+import Models.Storage.SegmentedStorageEngine;
+import Models.Storage.StorageEngine;
 import Services.IDGenerator;
 import Services.VariantService;
 import Utilities.LogService;
 
 import java.nio.file.Paths;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 /**
  * A class to handle reading and writing of {@code Check} entities.
+ *
+ * Checks are kept in one segment per business day by default, so a write only touches today's segment and a load
+ * can be limited to the days it needs through {@link #loadEntities(LocalDate, LocalDate)}. Checks of earlier days
+ * are closed and can no longer be changed or deleted.
+ *
+ * With lazy loading enabled, each check is loaded as a stub holding its ID, purchase date and raw record; its line
+ * items and totals are deserialized the first time they are read.
  */
 public class TransactionModel extends EntityModel<Check> {
     private final VariantService variantService;
+    private final Clock clock;
+    private volatile boolean lazyLoading = false;
 
     public TransactionModel(final VariantService variantService) {
+        this(variantService, Clock.systemDefaultZone());
+    }
+
+    /**
+     * @param variantService {@code VariantService}
+     * @param clock {@code Clock} deciding the current business day and its time zone.
+     */
+    public TransactionModel(final VariantService variantService, final Clock clock) {
         this.filePath = Paths.get("src/main/resources/TransactionList.txt");
         this.logger = new LogService(this.getClass().getName());
         this.variantService = variantService;
+        this.clock = clock;
     }
 
     /**
@@ -31,37 +60,159 @@ public class TransactionModel extends EntityModel<Check> {
      */
     @Override
     public void upsert(Check entity) {
-        super.processUpsert(entity);
+        if (isWritable(entity))
+            super.processUpsert(entity);
     }
 
     @Override
     public void insert(Check entity) {
-        super.processInsert(entity);
+        if (isWritable(entity))
+            super.processInsert(entity);
     }
 
     @Override
     public void delete(Check entity) {
-        super.processDelete(entity);
+        if (isWritable(entity))
+            super.processDelete(entity);
+    }
+
+    @Override
+    public BatchResult<Check> upsertAll(Collection<Check> batch) {
+        Map<Boolean, List<Check>> writable = partitionWritable(batch);
+        return super.processUpsertAll(writable.get(true)).withRejected(writable.get(false));
+    }
+
+    @Override
+    public BatchResult<Check> insertAll(Collection<Check> batch) {
+        Map<Boolean, List<Check>> writable = partitionWritable(batch);
+        return super.processInsertAll(writable.get(true)).withRejected(writable.get(false));
+    }
+
+    @Override
+    public BatchResult<Check> deleteAll(Collection<Check> batch) {
+        Map<Boolean, List<Check>> writable = partitionWritable(batch);
+        return super.processDeleteAll(writable.get(true)).withRejected(writable.get(false));
+    }
+
+    /**
+     * Enables or disables lazy loading of checks. Takes effect on the next load; not used by the {@code BINARY}
+     * backend, which decodes its own records.
+     * @param lazyLoading {@code boolean} true to load checks as stubs.
+     */
+    public void setLazyLoading(final boolean lazyLoading) {
+        this.lazyLoading = lazyLoading;
+    }
+
+    /**
+     * Checks are segmented by business day unless another backend is selected.
+     */
+    @Override
+    protected StorageEngine<Check> createDefaultStorageEngine() {
+        return new SegmentedStorageEngine<>(this.filePath, TransactionModel::purchaseInstant, this.clock);
+    }
+
+    /**
+     * Checks use their own compact binary format, {@code CheckStorageEngine}, rather than the generic binary
+     * record file.
+     */
+    @Override
+    protected StorageEngine<Check> createStorageEngine(final StorageBackend backend) {
+        if (backend != StorageBackend.BINARY)
+            return super.createStorageEngine(backend);
+        return new CheckStorageEngine(this.filePath, productID ->
+                this.variantService == null || this.variantService.productModel() == null ?
+                        null : this.variantService.productModel().retrieve(productID));
     }
 
     /**
      * Loads all the entities in this model. Required to call prior to using the model.
+     *
+     * Check history grows every day, so each segment is memory-mapped and deserialized in parallel chunks rather
+     * than line by line.
      */
     @Override
     public void loadEntities() {
-        DeserializeEntityInterface deserializeProducts = new DeserializeProduct(this.variantService);
+        loadEntities(null, null);
+    }
+
+    /**
+     * Loads the checks of a range of business days, along with today's checks. Segments outside the range stay on
+     * disk; with any other storage backend, the whole history is loaded.
+     * @param firstDay {@code LocalDate} first day to be loaded, inclusive; null for no lower bound.
+     * @param lastDay {@code LocalDate} last day to be loaded, inclusive; null for no upper bound.
+     */
+    public void loadEntities(final LocalDate firstDay, final LocalDate lastDay) {
+        if (getStorageEngine() instanceof SegmentedStorageEngine<Check> segments)
+            segments.setWindow(firstDay, lastDay);
+
+        ProductModel productModel = this.variantService == null ? null : this.variantService.productModel();
         this.entities.clear();
 
-        readCSVFile(this.filePath).stream()
-                .filter(this::lineIsValid)
-                .map(deserializeProducts::deserialize)
-                .forEach(entity -> this.entities.put(entity.getID(), (Check) entity));
+        if (this.lazyLoading)
+            loadRecords(() -> DeserializeCheck.deferred(this::materialize), this::lineIsValid, true);
+        else
+            loadRecords(() -> new DeserializeCheck(productModel), this::lineIsValid, true);
 
         this.logger.logVerbose("Transaction model has finished loading entities." +
                 "\n\t• " + this.entities.size() + " successfully parsed." +
                 "\n\t• " + super.getFailedEntities() + " failed to parse.");
+    }
+
+    /**
+     * Loads the checks of the last given number of business days, today included.
+     * @param days {@code int} number of days to be loaded; 1 loads today's checks only.
+     */
+    public void loadRecentDays(final int days) {
+        LocalDate today = LocalDate.now(this.clock);
+        loadEntities(today.minusDays(Math.max(days, 1) - 1), today);
+    }
+
+    /**
+     * Fully deserializes the raw record of a stub check, keeping the deserializer's warnings in this model's logs.
+     */
+    private Check materialize(final String record) {
+        ProductModel productModel = this.variantService == null ? null : this.variantService.productModel();
+        DeserializeCheck deserializer = new DeserializeCheck(productModel);
+        Check check = deserializer.deserialize(record);
+        this.logger.addManyLogs(deserializer.getLogs().toArray(new LogMessage[0]));
+        return check;
+    }
+
+    /**
+     * Refuses changes to checks of a closed business day when checks are segmented by day.
+     */
+    private boolean isWritable(final Check check) {
+        if (!(getStorageEngine() instanceof SegmentedStorageEngine<Check> segments))
+            return true;
+
+        LocalDate day = segments.dayOf(check.getPurchaseDate().toInstant());
+        if (day.equals(segments.today()))
+            return true;
+        this.logger.logWarning("Check " + check.getID() + " belongs to the closed business day " + day +
+                " and cannot be changed.");
+        return false;
+    }
 
-        this.logger.addManyLogs(deserializeProducts.getLogs().toArray(new LogMessage[0]));
+    /**
+     * Splits a batch into the checks that may be changed, under {@code true}, and those of closed days, in order.
+     */
+    private Map<Boolean, List<Check>> partitionWritable(final Collection<Check> batch) {
+        return batch.stream().collect(Collectors.partitioningBy(this::isWritable));
+    }
+
+    /**
+     * Reads the purchase date of a check's record; null if it has none.
+     */
+    private static Instant purchaseInstant(final String record) {
+        int start = record.indexOf(',') + 1;
+        int end = record.indexOf(',', start);
+        if (start == 0 || end < 0)
+            return null;
+        try {
+            return Instant.parse(record.substring(start, end));
+        } catch (DateTimeParseException ex) {
+            return null;
+        }
     }
 
     /**
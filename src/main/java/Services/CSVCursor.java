@@ -0,0 +1,453 @@
+package Services;
+
+import Entities.SerializationSchema.FieldKind;
+import Utilities.LogService;
+import Utilities.Money;
+
+import java.io.DataInput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * An allocation-light alternative to {@code CSVParser}. Rather than splitting a record into a list of strings,
+ * the cursor scans the field boundaries of a {@code CharSequence} once and parses numbers, booleans and GUIDs
+ * straight from those offsets. A single cursor is meant to be reused for every line a deserializer reads
+ * through {@link #reset(CharSequence)}; only fields returned as a {@code String} allocate.
+ *
+ * <br><br>
+ * The cursor can also read the decoded fields written by {@code SerializationSchema.writeFields} through
+ * {@link #reset(DataInput, FieldKind[])}: text fields are laid out in a reused buffer and numbers are kept as they
+ * were written, so parsing a field of the matching kind returns it as is. Reading a field as another kind turns
+ * the record back into CSV text first.
+ *
+ * <br><br>
+ * Like {@code CSVParser}, every call returns a non-null value. If a field is missing or malformed, a warning is
+ * logged and a default value is returned.
+ */
+public final class CSVCursor {
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private static final int MAX_TEXT_LENGTH = 1 << 24;
+
+    private final LogService logger;
+    private CharSequence line = "";
+    private int[] fieldStarts = new int[16];
+    private int[] fieldEnds = new int[16];
+    private int fieldCount;
+
+    private FieldKind[] kinds;
+    private long[] values = new long[16];
+    private final StringBuilder decoded = new StringBuilder(256);
+    private byte[] textBytes = new byte[256];
+
+    public CSVCursor(final LogService logger) {
+        this.logger = logger;
+    }
+
+    /**
+     * Points the cursor at a new record and scans its field boundaries.
+     * @param line {@code CharSequence} the record.
+     * @return {@code CSVCursor} this cursor.
+     */
+    public CSVCursor reset(final CharSequence line) {
+        this.line = line;
+        this.fieldCount = 0;
+        this.kinds = null;
+
+        int start = 0;
+        int length = line.length();
+        for (int i = 0; i <= length; i++) {
+            if (i != length && line.charAt(i) != ',')
+                continue;
+            addField(start, i);
+            start = i + 1;
+        }
+        return this;
+    }
+
+    /**
+     * Points the cursor at the next record of decoded fields, as written by {@code SerializationSchema.writeFields}.
+     * @param in {@code DataInput} positioned on the record.
+     * @param kinds {@code FieldKind[]} kind of every field of the record, in order.
+     * @return {@code CSVCursor} this cursor.
+     * @throws IOException if the record could not be read.
+     */
+    public CSVCursor reset(final DataInput in, final FieldKind[] kinds) throws IOException {
+        this.decoded.setLength(0);
+        this.line = this.decoded;
+        this.fieldCount = 0;
+        this.kinds = kinds;
+        if (this.values.length < kinds.length)
+            this.values = new long[kinds.length];
+
+        for (int i = 0; i < kinds.length; i++) {
+            int start = this.decoded.length();
+            switch (kinds[i]) {
+                case TEXT -> readText(in);
+                case INTEGER, CENTS -> this.values[i] = in.readLong();
+                case DECIMAL -> this.values[i] = Double.doubleToRawLongBits(in.readDouble());
+                case BOOL -> this.values[i] = in.readBoolean() ? 1 : 0;
+            }
+            addField(start, this.decoded.length());
+        }
+        return this;
+    }
+
+    public int fieldCount() {
+        return this.fieldCount;
+    }
+
+    /**
+     * Returns whether the field with {@code index} is missing, empty or only holds whitespace.
+     * @param index the index
+     * @return the boolean
+     */
+    public boolean isBlank(final int index) {
+        requireText(index);
+        if (index >= this.fieldCount)
+            return true;
+        for (int i = this.fieldStarts[index]; i < this.fieldEnds[index]; i++)
+            if (!Character.isWhitespace(this.line.charAt(i)))
+                return false;
+        return true;
+    }
+
+    /**
+     * Compares the field with {@code index} to {@code value} without copying the field.
+     * @param index the index
+     * @param value the value
+     * @return the boolean
+     */
+    public boolean fieldEquals(final int index, final String value) {
+        requireText(index);
+        if (index >= this.fieldCount || this.fieldEnds[index] - this.fieldStarts[index] != value.length())
+            return false;
+        for (int i = 0; i < value.length(); i++)
+            if (this.line.charAt(this.fieldStarts[index] + i) != value.charAt(i))
+                return false;
+        return true;
+    }
+
+    /**
+     * Converts field with {@code index} into a {@code String}.
+     * @param index the index
+     * @return the string
+     */
+    public String parseString(final int index) {
+        requireText(index);
+        if (!fieldExists(index))
+            return "";
+        return substring(this.fieldStarts[index], this.fieldEnds[index]);
+    }
+
+    /**
+     * Converts field with {@code index} into a {@code String} or will return {@code defaultStr}.
+     * @param index      the index
+     * @param defaultStr the default str
+     * @return the string
+     */
+    public String parseStringOrDefault(final int index, final String defaultStr) {
+        requireText(index);
+        if (index >= this.fieldCount) {
+            this.logger.logVerbose("Failed to parse index " + index + " in record; defaulting to "
+                    + defaultStr + ".");
+            return defaultStr;
+        }
+        return substring(this.fieldStarts[index], this.fieldEnds[index]);
+    }
+
+    /**
+     * Converts field with {@code index} into a {@code boolean}.
+     * @param index the index
+     * @return the boolean
+     */
+    public boolean parseBoolean(final int index) {
+        if (decodedAs(index, FieldKind.BOOL))
+            return this.values[index] != 0;
+        return fieldExists(index) && fieldEquals(index, "true");
+    }
+
+    /**
+     * Converts field with {@code index} into an {@code int}.
+     * @param index the index
+     * @return the integer
+     */
+    public int parseInteger(final int index) {
+        if (decodedAs(index, FieldKind.INTEGER))
+            return (int) this.values[index];
+        if (!fieldExists(index))
+            return 0;
+
+        int start = this.fieldStarts[index];
+        int end = this.fieldEnds[index];
+        boolean negative = start < end && this.line.charAt(start) == '-';
+        if (negative || (start < end && this.line.charAt(start) == '+'))
+            start++;
+
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            int digit = this.line.charAt(i) - '0';
+            if (digit < 0 || digit > 9 || (value = value * 10 + digit) > Integer.MAX_VALUE + 1L)
+                return malformed(index, 0);
+        }
+        if (start == end || (!negative && value > Integer.MAX_VALUE))
+            return malformed(index, 0);
+        return (int) (negative ? -value : value);
+    }
+
+    /**
+     * Converts field with {@code index} into a {@code double}. Plain decimals whose digits fit in a double's mantissa
+     * are parsed from the offsets directly, which gives the same result as {@code Double.parseDouble}; anything else,
+     * such as exponents, falls back to it.
+     * @param index the index
+     * @return the double
+     */
+    public double parseDouble(final int index) {
+        if (decodedAs(index, FieldKind.DECIMAL))
+            return Double.longBitsToDouble(this.values[index]);
+        if (!fieldExists(index))
+            return 0.00;
+
+        int start = this.fieldStarts[index];
+        int end = this.fieldEnds[index];
+        boolean negative = start < end && this.line.charAt(start) == '-';
+        int i = (negative || (start < end && this.line.charAt(start) == '+')) ? start + 1 : start;
+
+        long mantissa = 0;
+        int fractionDigits = 0;
+        int digits = 0;
+        boolean decimalPoint = false;
+        for (; i < end; i++) {
+            char c = this.line.charAt(i);
+            if (c == '.' && !decimalPoint) {
+                decimalPoint = true;
+                continue;
+            }
+            if (c < '0' || c > '9' || mantissa >= MAX_EXACT_MANTISSA / 10)
+                return parseDoubleSlow(index);
+            mantissa = mantissa * 10 + (c - '0');
+            digits++;
+            if (decimalPoint)
+                fractionDigits++;
+        }
+
+        if (digits == 0 || fractionDigits >= POWERS_OF_TEN.length)
+            return parseDoubleSlow(index);
+        double value = mantissa / POWERS_OF_TEN[fractionDigits];
+        return negative ? -value : value;
+    }
+
+    /**
+     * Converts field with {@code index} into a {@code double} rounded half-up to two decimal places.
+     * @param index the index
+     * @return the double
+     */
+    public double parseCurrency(final int index) {
+        return Money.toDollars(parseCents(index));
+    }
+
+    /**
+     * Converts field with {@code index} into a whole number of cents, rounding half-up on the third decimal digit.
+     * The rounding is done on the decimal text itself by {@code Money.parse}; text it cannot read, such as a number
+     * with an exponent, goes through {@code Double.parseDouble} instead.
+     * @param index the index
+     * @return the cents
+     */
+    public long parseCents(final int index) {
+        if (decodedAs(index, FieldKind.CENTS))
+            return this.values[index];
+        if (!fieldExists(index))
+            return 0;
+        try {
+            return Money.parse(this.line, this.fieldStarts[index], this.fieldEnds[index]);
+        } catch (NumberFormatException ex) {
+            return Math.round(parseDoubleSlow(index) * 100);
+        }
+    }
+
+    /**
+     * Returns the field with {@code index} if it is shaped like a GUID: 36 characters including four dashes.
+     * Otherwise, returns an empty string.
+     * @param index the index
+     * @return the GUID
+     */
+    public String parseGUID(final int index) {
+        requireText(index);
+        if (!fieldExists(index) || !isValidGUID(index))
+            return "";
+        return substring(this.fieldStarts[index], this.fieldEnds[index]);
+    }
+
+    /**
+     * Checks whether the field with {@code index} is shaped like a GUID without copying it.
+     * @param index the index
+     * @return the boolean
+     */
+    public boolean isValidGUID(final int index) {
+        requireText(index);
+        if (index >= this.fieldCount || this.fieldEnds[index] - this.fieldStarts[index] != 36)
+            return false;
+
+        int dashes = 0;
+        for (int i = this.fieldStarts[index]; i < this.fieldEnds[index]; i++)
+            if (this.line.charAt(i) == '-')
+                dashes++;
+        return dashes == 4;
+    }
+
+    /**
+     * Hands every non-blank item of a {@code [a|b|c]} list field to {@code consumer}.
+     * @param index    the index
+     * @param consumer the consumer
+     */
+    public void forEachListItem(final int index, final Consumer<String> consumer) {
+        requireText(index);
+        if (!fieldExists(index))
+            return;
+
+        int start = this.fieldStarts[index];
+        int end = this.fieldEnds[index];
+        if (end - start < 2 || this.line.charAt(start) != '[' || this.line.charAt(end - 1) != ']') {
+            malformed(index, 0);
+            return;
+        }
+
+        int itemStart = start + 1;
+        for (int i = itemStart; i < end; i++) {
+            if (i != end - 1 && this.line.charAt(i) != '|')
+                continue;
+            if (!isBlank(itemStart, i))
+                consumer.accept(substring(itemStart, i));
+            itemStart = i + 1;
+        }
+    }
+
+    /**
+     * Converts a {@code [a|b|c]} list field into a {@code List<String>} of its non-blank items.
+     * @param index the index
+     * @return the list
+     */
+    public List<String> parseListString(final int index) {
+        List<String> items = new ArrayList<>();
+        forEachListItem(index, items::add);
+        return items;
+    }
+
+    /**
+     * Returns the record the cursor currently points at, as CSV text.
+     * @return {@code String}
+     */
+    @Override
+    public String toString() {
+        if (this.kinds == null)
+            return this.line.toString();
+
+        StringBuilder record = new StringBuilder(this.decoded.length() + 16 * this.fieldCount);
+        for (int i = 0; i < this.fieldCount; i++) {
+            if (i > 0)
+                record.append(',');
+            switch (this.kinds[i]) {
+                case TEXT -> record.append(this.decoded, this.fieldStarts[i], this.fieldEnds[i]);
+                case INTEGER -> record.append(this.values[i]);
+                case CENTS -> Money.append(record, this.values[i]);
+                case DECIMAL -> record.append(Double.longBitsToDouble(this.values[i]));
+                case BOOL -> record.append(this.values[i] != 0);
+            }
+        }
+        return record.toString();
+    }
+
+    /**
+     * Returns whether the field was decoded as {@code kind}. Otherwise, makes sure the cursor holds the field as
+     * text so it can be parsed.
+     */
+    private boolean decodedAs(final int index, final FieldKind kind) {
+        if (this.kinds != null && index < this.fieldCount && this.kinds[index] == kind)
+            return true;
+        requireText(index);
+        return false;
+    }
+
+    /**
+     * Turns a record of decoded fields back into CSV text if the field with {@code index} was not decoded as text.
+     */
+    private void requireText(final int index) {
+        if (this.kinds != null && index < this.fieldCount && this.kinds[index] != FieldKind.TEXT)
+            reset(toString());
+    }
+
+    /**
+     * Appends a text field, written as an int length followed by its UTF-8 bytes, to the decoded buffer. ASCII is
+     * copied as is; the rest of a field holding anything else is decoded as a whole.
+     */
+    private void readText(final DataInput in) throws IOException {
+        int length = in.readInt();
+        if (length < 0 || length > MAX_TEXT_LENGTH)
+            throw new IOException("Text field of " + length + " bytes is out of range.");
+        if (this.textBytes.length < length)
+            this.textBytes = new byte[Math.max(length, this.textBytes.length * 2)];
+        in.readFully(this.textBytes, 0, length);
+
+        for (int i = 0; i < length; i++) {
+            if (this.textBytes[i] < 0) {
+                this.decoded.append(new String(this.textBytes, i, length - i, StandardCharsets.UTF_8));
+                return;
+            }
+            this.decoded.append((char) this.textBytes[i]);
+        }
+    }
+
+    private void addField(final int start, final int end) {
+        if (this.fieldCount == this.fieldStarts.length) {
+            this.fieldStarts = Arrays.copyOf(this.fieldStarts, this.fieldCount * 2);
+            this.fieldEnds = Arrays.copyOf(this.fieldEnds, this.fieldCount * 2);
+        }
+        this.fieldStarts[this.fieldCount] = start;
+        this.fieldEnds[this.fieldCount++] = end;
+    }
+
+    private boolean fieldExists(final int index) {
+        if (index < this.fieldCount)
+            return true;
+        this.logger.logWarning("Failed to parse #" + entityID() + " field with index " + index
+                + "; the record only holds " + this.fieldCount + " fields.");
+        return false;
+    }
+
+    private boolean isBlank(final int start, final int end) {
+        for (int i = start; i < end; i++)
+            if (!Character.isWhitespace(this.line.charAt(i)))
+                return false;
+        return true;
+    }
+
+    private String substring(final int start, final int end) {
+        return this.line instanceof String str ? str.substring(start, end) : this.line.subSequence(start, end).toString();
+    }
+
+    private double parseDoubleSlow(final int index) {
+        try {
+            return Double.parseDouble(substring(this.fieldStarts[index], this.fieldEnds[index]));
+        } catch (NumberFormatException ex) {
+            return malformed(index, 0);
+        }
+    }
+
+    private int malformed(final int index, final int defaultValue) {
+        this.logger.logWarning("Failed to parse #" + entityID() + " field with index " + index
+                + "; '" + substring(this.fieldStarts[index], this.fieldEnds[index]) + "' is malformed.");
+        return defaultValue;
+    }
+
+    private String entityID() {
+        return this.fieldCount > 0 ? substring(this.fieldStarts[0], this.fieldEnds[0]) : "";
+    }
+}
@@ -1,9 +1,8 @@
 package Services;
 
 import Utilities.LogService;
+import Utilities.Money;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.util.Arrays;
 import java.util.List;
 import java.util.function.Predicate;
@@ -93,11 +92,25 @@ public class CSVParser {
      * @return the double
      */
     public Double parseCurrency(final int index) {
+        return Money.toDollars(parseCents(index));
+    }
+
+    /**
+     * Converts field with {@code index} from the stored fields into a whole number of cents, rounded half-up.
+     * @param index the index
+     * @return the cents
+     */
+    public long parseCents(final int index) {
         try {
-            return round(Double.parseDouble(this.fields.get(index)), 2);
+            String field = this.fields.get(index);
+            try {
+                return Money.parse(field);
+            } catch (NumberFormatException ex) {
+                return Money.ofDollars(Double.parseDouble(field));
+            }
         } catch(Exception ex) {
             parsingException(ex, index);
-            return 0.00;
+            return 0;
         }
     }
 
@@ -138,19 +151,4 @@ public class CSVParser {
             return "";
         }
     }
-
-    /**
-     * A simple rounding algorithm.
-     * @param value
-     * @param places
-     * @author <a href="https://stackoverflow.com/a/2808648/6598810">Jonik's SO answer</a>
-     * @return
-     */
-    private double round(double value, int places) {
-        if (places < 0) throw new IllegalArgumentException();
-
-        BigDecimal bd = BigDecimal.valueOf(value);
-        bd = bd.setScale(places, RoundingMode.HALF_UP);
-        return bd.doubleValue();
-    }
 }
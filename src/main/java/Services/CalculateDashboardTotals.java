@@ -1,6 +1,7 @@
 package Services;
 
 import Entities.Product;
+import Entities.ProductStats;
 import Models.ProductModel;
 
 /**
@@ -25,7 +26,8 @@ public class CalculateDashboardTotals {
     public Double computeNetSales() {
         double result = 0.0;
         for (Product product : this.model.getEntities()) {
-            result += (product.getTotalSales() - product.getTotalExpenses());
+            ProductStats.Snapshot stats = product.getStats().snapshot();
+            result += (stats.totalSales() - stats.totalExpenses());
         }
         return result;
     }
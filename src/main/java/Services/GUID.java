@@ -0,0 +1,216 @@
+package Services;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * <h2>A 128-bit entity ID held as two longs.</h2>
+ *
+ * <p>
+ * IDs minted by {@link IDGenerator} are time-ordered, laid out like a version 7 UUID: the top 48 bits are the
+ * creation time in epoch milliseconds, followed by the version, random bits, the variant and more random bits.
+ * Their text form is the usual 36-character lowercase hex UUID ({@code 8-4-4-4-12}), so IDs created around the same
+ * time sort next to each other.
+ * </p>
+ *
+ * <p>
+ * IDs written before this format use other characters and have no compact form; {@link #isCompact(CharSequence)}
+ * tells them apart, and the codecs below fall back to their text for them.
+ * </p>
+ */
+public record GUID(long high, long low) implements Comparable<GUID> {
+    public static final int LENGTH = 36;
+    public static final int BYTES = 2 * Long.BYTES;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    private static final byte TEXT = 0;
+    private static final byte COMPACT = 1;
+
+    /**
+     * Mints a new time-ordered ID. Random bits come from {@code ThreadLocalRandom}, so threads minting IDs at the
+     * same time never contend.
+     * @return {@code GUID}
+     */
+    public static GUID timeOrdered() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long high = (System.currentTimeMillis() << 16) | 0x7000L | (random.nextLong() & 0x0FFFL);
+        long low = (random.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new GUID(high, low);
+    }
+
+    /**
+     * Returns whether the ID is a lowercase hex UUID, which converts to a {@code GUID} and back without loss.
+     * @param id {@code CharSequence}
+     * @return {@code boolean}
+     */
+    public static boolean isCompact(final CharSequence id) {
+        if (id == null || id.length() != LENGTH)
+            return false;
+        for (int i = 0; i < LENGTH; i++) {
+            char c = id.charAt(i);
+            if (isDash(i) ? c != '-' : hexValue(c) < 0)
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Parses the text form of an ID.
+     * @param id {@code CharSequence} lowercase hex UUID.
+     * @return {@code GUID}
+     * @throws IllegalArgumentException if the ID has no compact form.
+     */
+    public static GUID parse(final CharSequence id) {
+        if (!isCompact(id))
+            throw new IllegalArgumentException("'" + id + "' is not a compact GUID.");
+        return new GUID(parseHex(id, 0, 18), parseHex(id, 19, 36));
+    }
+
+    /**
+     * Returns the compact form of an ID; null if it has none.
+     * @param id {@code CharSequence}
+     * @return {@code GUID}
+     */
+    public static GUID tryParse(final CharSequence id) {
+        return isCompact(id) ? new GUID(parseHex(id, 0, 18), parseHex(id, 19, 36)) : null;
+    }
+
+    /**
+     * Returns the high long of a compact ID's text without creating a {@code GUID}.
+     * @param id {@code CharSequence} for which {@link #isCompact(CharSequence)} holds.
+     * @return {@code long}
+     */
+    public static long highOf(final CharSequence id) {
+        return parseHex(id, 0, 18);
+    }
+
+    /**
+     * Returns the low long of a compact ID's text without creating a {@code GUID}.
+     * @param id {@code CharSequence} for which {@link #isCompact(CharSequence)} holds.
+     * @return {@code long}
+     */
+    public static long lowOf(final CharSequence id) {
+        return parseHex(id, 19, 36);
+    }
+
+    /**
+     * Returns the creation time of a time-ordered ID.
+     * @return {@code long} epoch milliseconds.
+     */
+    public long timestamp() {
+        return this.high >>> 16;
+    }
+
+    /**
+     * Writes the ID in big-endian order.
+     * @return {@code byte[]} of {@link #BYTES} bytes.
+     */
+    public byte[] toBytes() {
+        byte[] bytes = new byte[BYTES];
+        for (int i = 0; i < Long.BYTES; i++) {
+            bytes[i] = (byte) (this.high >>> (56 - 8 * i));
+            bytes[Long.BYTES + i] = (byte) (this.low >>> (56 - 8 * i));
+        }
+        return bytes;
+    }
+
+    /**
+     * Reads an ID written by {@link #toBytes()}.
+     * @param bytes {@code byte[]}
+     * @param offset {@code int} position of the first byte.
+     * @return {@code GUID}
+     */
+    public static GUID fromBytes(final byte[] bytes, final int offset) {
+        long high = 0;
+        long low = 0;
+        for (int i = 0; i < Long.BYTES; i++) {
+            high = (high << 8) | (bytes[offset + i] & 0xFF);
+            low = (low << 8) | (bytes[offset + Long.BYTES + i] & 0xFF);
+        }
+        return new GUID(high, low);
+    }
+
+    /**
+     * Writes any ID: its two longs when it has a compact form, its text otherwise.
+     * @param out {@code DataOutput}
+     * @param id {@code String}
+     */
+    public static void write(final DataOutput out, final String id) throws IOException {
+        GUID guid = tryParse(id);
+        if (guid == null) {
+            out.writeByte(TEXT);
+            out.writeUTF(id);
+        } else {
+            out.writeByte(COMPACT);
+            out.writeLong(guid.high);
+            out.writeLong(guid.low);
+        }
+    }
+
+    /**
+     * Reads an ID written by {@link #write(DataOutput, String)}.
+     * @param in {@code DataInput}
+     * @return {@code String}
+     */
+    public static String read(final DataInput in) throws IOException {
+        byte form = in.readByte();
+        if (form == TEXT)
+            return in.readUTF();
+        if (form != COMPACT)
+            throw new IOException("Unknown GUID form " + form + ".");
+        return new GUID(in.readLong(), in.readLong()).toString();
+    }
+
+    @Override
+    public int compareTo(final GUID other) {
+        int result = Long.compareUnsigned(this.high, other.high);
+        return result != 0 ? result : Long.compareUnsigned(this.low, other.low);
+    }
+
+    @Override
+    public String toString() {
+        char[] chars = new char[LENGTH];
+        formatHex(chars, 0, this.high >>> 32, 8);
+        chars[8] = '-';
+        formatHex(chars, 9, this.high >>> 16, 4);
+        chars[13] = '-';
+        formatHex(chars, 14, this.high, 4);
+        chars[18] = '-';
+        formatHex(chars, 19, this.low >>> 48, 4);
+        chars[23] = '-';
+        formatHex(chars, 24, this.low, 12);
+        return new String(chars);
+    }
+
+    /**
+     * Writes the hex digits of the lowest {@code digits * 4} bits of the value, most significant first, ending at
+     * {@code offset + digits}.
+     */
+    private static void formatHex(final char[] chars, final int offset, long value, final int digits) {
+        for (int i = offset + digits - 1; i >= offset; i--) {
+            chars[i] = HEX[(int) (value & 0xF)];
+            value >>>= 4;
+        }
+    }
+
+    private static long parseHex(final CharSequence id, final int from, final int to) {
+        long value = 0;
+        for (int i = from; i < to; i++)
+            if (!isDash(i))
+                value = (value << 4) | hexValue(id.charAt(i));
+        return value;
+    }
+
+    private static boolean isDash(final int index) {
+        return index == 8 || index == 13 || index == 18 || index == 23;
+    }
+
+    private static int hexValue(final char c) {
+        if (c >= '0' && c <= '9')
+            return c - '0';
+        if (c >= 'a' && c <= 'f')
+            return c - 'a' + 10;
+        return -1;
+    }
+}
@@ -1,47 +1,42 @@
 package Services;
 
-import java.util.Random;
-import java.util.concurrent.ThreadLocalRandom;
-
+/**
+ * Mints and validates entity IDs.
+ *
+ * New IDs are time-ordered {@code GUID}s written as 36-character lowercase hex UUIDs. IDs written before then are
+ * 36 characters of letters and digits in the same {@code 8-4-4-4-12} groups, and remain valid.
+ */
 public class IDGenerator {
     /**
      * Creates a new UID.
      * @return String formatting a UID.
      */
     public static String generateGUID() {
-        StringBuilder guid = new StringBuilder();
-        
-        for (int i = 0; i < 32; i++) {
-            guid.append((useChar() ? randomChar() : randomNumber()));
-            if (i == 7 || i == 11 || i == 15 || i == 19) {
-                guid.append('-');
-            }
-        }
+        return GUID.timeOrdered().toString();
+    }
 
-        return guid.toString();
+    /**
+     * Creates a new UID in its compact form.
+     * @return {@code GUID}
+     */
+    public static GUID generate() {
+        return GUID.timeOrdered();
     }
 
     /**
-     * Verifies whether a string is indeed a GUID.
+     * Verifies whether a string is indeed a GUID: 36 characters with a dash after each of the first four groups
+     * and nowhere else.
      * @param str {@code String}
      * @return {@code boolean}
      */
     public static boolean isValidGUID(String str) {
-        long dashCount = str.chars().filter(c -> c == '-').count();
-        return str.length() == 36 && dashCount == 4;
-    }
-
-    private static boolean useChar() {
-        return (ThreadLocalRandom.current().nextInt(0, 2) != 0);
-    }
-
-    private static char randomChar() {
-        Random r = new Random();
-        return (char)(r.nextInt('Z' - 'A') + 'a');
-    }
-
-    private static char randomNumber() {
-        Random r = new Random();
-        return (char)(r.nextInt('9' - '0') + '0');
+        if (str == null || str.length() != GUID.LENGTH)
+            return false;
+        for (int i = 0; i < GUID.LENGTH; i++) {
+            boolean dash = str.charAt(i) == '-';
+            if (dash != (i == 8 || i == 13 || i == 18 || i == 23))
+                return false;
+        }
+        return true;
     }
-}
\ No newline at end of file
+}
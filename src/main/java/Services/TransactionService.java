@@ -1,14 +1,23 @@
 package Services;
 
 import Constants.LogLevel;
+import Constants.TransactionOutcome;
 import Entities.CheckLineItem;
 import Entities.Product;
 import Entities.Check;
-import Interfaces.UndoInterface;
+import Models.BatchResult;
 import Models.EntityModel;
 import Models.ProductModel;
 
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Service to be injected into views/controllers.
@@ -24,46 +33,158 @@ public class TransactionService {
     }
 
     /**
-     * Accepts a single transaction and processes it through the system.
-     * First step is to update the product's performance variables (total sales, total revenue, total COGS)
-     * by calling {@code addSale} on the product. With the product updated, we can register those updates with
-     * {@code ProductModel}. Once all the products on the transaction has been processed, we will then record
-     * the transaction itself using the {@code TransactionModel}.
+     * Accepts a single transaction and processes it through the system, as {@link #processTransactions(List)} does
+     * for a batch. The check is recorded first using the {@code TransactionModel}; a check the model rejects, such as
+     * one of a closed business day or one whose write failed, is completed with errors and no product is touched.
+     * Then the product's performance variables (total sales, total revenue, total COGS) are updated at the prices
+     * each line item captured when it was rung up, so they agree with the check's totals after a price edit. The
+     * products are registered with {@code ProductModel} in a single {@code upsertAll}, so a check costs one write no
+     * matter how many line items it holds. If the model rejects any of them, the whole check is rolled back and
+     * deleted, so it can be processed again, and it is completed with errors.
      *
      * @return boolean if false, an error occurred.
      */
     public boolean processTransaction(Check check) {
         if (check.getPurchases() == null || check.getPurchases().isEmpty())
             return false;
+        return processTransactions(List.of(check)).get(check) == TransactionOutcome.COMPLETED_SUCCESSFULLY;
+    }
 
-        check.getPurchases().forEach((lineItem) -> {
-            UndoInterface originalLineItem = new UndoTransaction(lineItem);
-            Product product = lineItem.getProduct();
-
-            product.setTotalSales(product.getTotalSales() + lineItem.getQuantity());
-            product.setTotalExpenses(product.getTotalExpenses() + (product.getCost() * lineItem.getQuantity()));
-            product.setTotalRevenue(product.getTotalRevenue() + (product.getPrice() * lineItem.getQuantity()));
-
-            try {
-                this.productModel.upsert(product);
-                check.completeTransaction(true);
-            } catch(Exception ex) {
-                HashSet<CheckLineItem> lineItems = check.getPurchases();
-                System.out.println(LogLevel.WARNING + "Could not process transaction! Rolling back product changes.");
-                lineItems.remove(lineItem);
-                lineItems.add((CheckLineItem) originalLineItem.undo());
+    /**
+     * Processes many transactions at once, such as checks queued while offline. The checks are recorded first, in
+     * one {@code insertAll}; checks the model rejects, such as those of a closed business day or those whose write
+     * failed, are completed with errors and touch no product. Line items of the recorded checks are then folded into
+     * one sale per product at the prices each line item captured. Each product is updated once, and the products
+     * are written in one {@code upsertAll}, so the batch costs two group commits no matter how many checks it
+     * holds.
+     *
+     * Checks without purchases are completed with errors and not recorded. A check holding a product the model
+     * rejected is rolled back whole: the sales of all its line items are reverted, the other products it holds are
+     * written again and the check is deleted, so a retry records it afresh. Such checks are completed with errors.
+     *
+     * @param checks {@code List<Check>} to be processed; a check listed twice is processed once.
+     * @return {@code Map<Check, TransactionOutcome>} outcome of each check, in the order given.
+     */
+    public Map<Check, TransactionOutcome> processTransactions(List<Check> checks) {
+        Map<Check, TransactionOutcome> outcomes = new LinkedHashMap<>();
+        List<Check> accepted = new ArrayList<>(checks.size());
 
-                check.setProductsPurchased(lineItems);
+        for (Check check : checks) {
+            if (outcomes.containsKey(check))
+                continue;
+            if (check.getPurchases() == null || check.getPurchases().isEmpty()) {
+                System.out.println(LogLevel.WARNING + "Check " + check.getID() + " has no purchases to process.");
                 check.completeTransaction(false);
+                outcomes.put(check, check.getStage());
+                continue;
             }
-        });
+            accepted.add(check);
+            outcomes.put(check, TransactionOutcome.PENDING);
+        }
+        if (accepted.isEmpty())
+            return Collections.unmodifiableMap(outcomes);
 
-        try {
-            this.transactionModel.insert(check);
-        } catch (Exception e) {
-            System.out.println(LogLevel.FATAL + "Could not modify transaction model! Reverting product changes.");
+        BatchResult<Check> recorded = this.transactionModel.insertAll(accepted);
+        if (!recorded.isComplete())
+            System.out.println(LogLevel.WARNING + "Could not record " + recorded.rejected().size() + " of " +
+                    accepted.size() + " transactions!");
+        for (Check check : recorded.rejected()) {
+            check.completeTransaction(false);
+            outcomes.put(check, check.getStage());
         }
 
-        return true;
+        Map<Product, Sale> sales = foldSales(recorded.committed(), 1);
+        sales.forEach(this::applySale);
+
+        BatchResult<Product> result = this.productModel.upsertAll(new ArrayList<>(sales.keySet()));
+        Set<Product> rejected = Collections.newSetFromMap(new IdentityHashMap<>());
+        rejected.addAll(result.rejected());
+        Set<Check> failed = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Check check : recorded.committed())
+            if (check.getPurchases().stream().anyMatch(lineItem -> rejected.contains(lineItem.getProduct())))
+                failed.add(check);
+        if (!failed.isEmpty()) {
+            System.out.println(LogLevel.WARNING + "Could not process " + failed.size() + " of " +
+                    recorded.committed().size() + " transactions! Rolling them back, as " + rejected.size() +
+                    " products were rejected.");
+            rollBack(failed, rejected);
+        }
+        for (Check check : recorded.committed()) {
+            check.completeTransaction(!failed.contains(check));
+            outcomes.put(check, check.getStage());
+        }
+
+        return Collections.unmodifiableMap(outcomes);
+    }
+
+    /**
+     * Processes a transaction through {@link #processTransaction(Check)} and returns as soon as the products and the
+     * check are updated in memory. With both models in {@code ASYNC} persistence mode, no file is touched on the
+     * calling thread, so a checkout does not wait for the disk.
+     * @param check {@code Check} to be processed.
+     * @return {@code CompletableFuture<Void>} completes once the products and the check are persisted; completes
+     *         exceptionally if the check has no purchases, was rejected or a write failed.
+     */
+    public CompletableFuture<Void> checkout(Check check) {
+        if (check.getPurchases() == null || check.getPurchases().isEmpty())
+            return CompletableFuture.failedFuture(
+                    new IllegalArgumentException("Check " + check.getID() + " has no purchases to process."));
+        if (!processTransaction(check))
+            return CompletableFuture.failedFuture(
+                    new IllegalStateException("Check " + check.getID() + " could not be processed."));
+        return CompletableFuture.allOf(this.productModel.whenPersisted(), this.transactionModel.whenPersisted());
+    }
+
+    /**
+     * Reverts the sales of checks holding a rejected product and deletes the checks. The rejected products were not
+     * written, so only the other products the checks hold are written again.
+     */
+    private void rollBack(final Collection<Check> failed, final Set<Product> rejected) {
+        Map<Product, Sale> reverted = foldSales(failed, -1);
+        reverted.forEach(this::applySale);
+
+        List<Product> written = reverted.keySet().stream().filter(product -> !rejected.contains(product)).toList();
+        if (!written.isEmpty() && !this.productModel.upsertAll(written).isComplete())
+            System.out.println(LogLevel.WARNING + "Could not write the rolled back sales of " + written.size() +
+                    " products!");
+        if (!this.transactionModel.deleteAll(failed).isComplete())
+            System.out.println(LogLevel.WARNING + "Could not delete " + failed.size() + " rolled back transactions!");
+    }
+
+    /**
+     * Folds the line items of the checks into one sale per product; {@code direction} 1 adds them, -1 reverts them.
+     */
+    private static Map<Product, Sale> foldSales(final Collection<Check> checks, final int direction) {
+        Map<Product, Sale> sales = new LinkedHashMap<>();
+        for (Check check : checks)
+            for (CheckLineItem lineItem : check.getPurchases())
+                sales.merge(lineItem.getProduct(), Sale.of(lineItem, direction), Sale::plus);
+        return sales;
+    }
+
+    /**
+     * Units sold of a product along with their cost and price, in cents.
+     */
+    private record Sale(long quantity, long costCents, long priceCents) {
+        /**
+         * The sale of a line item at the prices it captured; {@code direction} 1 adds it, -1 reverts it.
+         */
+        static Sale of(final CheckLineItem lineItem, final int direction) {
+            long quantity = (long) lineItem.getQuantity() * direction;
+            return new Sale(quantity, lineItem.getUnitCostCents() * quantity, lineItem.getUnitPriceCents() * quantity);
+        }
+
+        Sale plus(final Sale other) {
+            return new Sale(this.quantity + other.quantity, this.costCents + other.costCents,
+                    this.priceCents + other.priceCents);
+        }
+    }
+
+    /**
+     * Adds a sale, or reverts one, on a product. Checkouts on other terminals may be selling the same product at
+     * the same time; {@code recordSales} adds to its totals without losing their sales.
+     */
+    private void applySale(final Product product, final Sale sale) {
+        product.recordSales(sale.quantity(), sale.costCents(), sale.priceCents());
     }
 }
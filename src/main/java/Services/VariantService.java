@@ -7,6 +7,8 @@ import Models.ProductModel;
 import Models.ProductVariantModel;
 import Models.ProductVariantOptionModel;
 
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
 
 public class VariantService {
@@ -28,17 +30,21 @@ public class VariantService {
 
     public ProductVariantModel variantModel() { return this.variantModel; }
 
+    public ProductModel productModel() { return this.productModel; }
+
     public boolean validateVariantsTiedToProduct(final Product product) {
         return product.getVariants().stream().allMatch(variantModel::entityExists);
     }
 
     /**
-     * Validates each variant option tied to the variant in question exists in the program; otherwise, return false.
+     * Validates each variant option tied to the variant in question exists in the program under that variant;
+     * otherwise, return false. Checked against the option model's variant index.
      * @param variant {@code Product} product.
      * @return {@code boolean} true if each variant is still valid and false otherwise.
      */
     public boolean validateVariantOptionsTiedToVariant(final ProductVariant variant) {
-        return variant.getSelectionOptions().stream().allMatch(variantOptionModel::entityExists);
+        return variant.getSelectionOptions().stream()
+                .allMatch(option -> variantOptionModel.isOptionOf(variant.getID(), option.getID()));
     }
 
     /**
@@ -48,13 +54,27 @@ public class VariantService {
      * <br><br>
      * Works by invoking each product's {@code removeVariant} method which will return true if that product was
      * successfully deleted. Any product who removed the variant will then continue in the stream and have their
-     * changes persisted through {@code ::upsert}.
+     * changes persisted together through {@code ::upsertAll}.
      * @param variantToBeRemoved variant to remove from products
      */
     public void deleteVariantFromProducts(final ProductVariant variantToBeRemoved) {
-        productModel.getEntities().stream()
-                .filter(product -> product.removeVariant(variantToBeRemoved))
-                .forEach(productModel::upsert);
+        deleteVariantsFromProducts(List.of(variantToBeRemoved));
+    }
+
+    /**
+     * Removes each of the given variants from ALL products tied to them, persisting every affected product with
+     * a single {@code ::upsertAll}. Products are found through the product model's variant index, so only the
+     * products holding one of the variants are visited.
+     * @param variantsToBeRemoved variants to remove from products
+     */
+    public void deleteVariantsFromProducts(final Collection<ProductVariant> variantsToBeRemoved) {
+        LinkedHashSet<Product> affectedProducts = new LinkedHashSet<>();
+        for (ProductVariant variant : variantsToBeRemoved)
+            for (Product product : productModel.findByVariant(variant.getID()))
+                if (product.removeVariant(variant))
+                    affectedProducts.add(product);
+        if (!affectedProducts.isEmpty())
+            productModel.upsertAll(affectedProducts);
     }
 
     /**
@@ -64,9 +84,20 @@ public class VariantService {
      * @param variantToBeRemoved to be removed
      */
     public void deleteVariantOptionsFromVariant(final ProductVariant variantToBeRemoved) {
-        variantToBeRemoved.getSelectionOptions().stream()
-                .filter(variantOptionModel::entityExists)
-                .forEach(variantOptionModel::delete);
+        deleteVariantOptionsFromVariants(List.of(variantToBeRemoved));
+    }
+
+    /**
+     * Removes ALL {@code ProductVariantOption}s tied to any of the given variants with a single
+     * {@code ::deleteAll}. Options are found through the option model's variant index.
+     * @param variantsToBeRemoved to be removed
+     */
+    public void deleteVariantOptionsFromVariants(final Collection<ProductVariant> variantsToBeRemoved) {
+        List<ProductVariantOption> options = variantsToBeRemoved.stream()
+                .flatMap(variant -> variantOptionModel.findByVariant(variant.getID()).stream())
+                .toList();
+        if (!options.isEmpty())
+            variantOptionModel.deleteAll(options);
     }
 
     public void linkVariantOptionToVariant(final ProductVariant variant, final ProductVariantOption variantOption) {
@@ -5,6 +5,7 @@ import Models.LogMessage;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -18,7 +19,7 @@ import java.util.List;
 public final class LogService {
     private final String fileName;
     private boolean verboseLogging = false;
-    private final List<LogMessage> logs = new ArrayList<>();
+    private final List<LogMessage> logs = Collections.synchronizedList(new ArrayList<>());
 
     /**
      * Instantiates a new log service.
@@ -0,0 +1,134 @@
+package Utilities;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * <h2>Amounts of money held as a whole number of cents in a {@code long}.</h2>
+ *
+ * <p>
+ * Prices, costs and totals are stored and added as cents, so sums are exact however many amounts go into them and
+ * no arithmetic allocates. Doubles only appear at the edges: when an amount is shown, or handed to code that still
+ * takes dollars.
+ * </p>
+ *
+ * <p>
+ * {@link #parse(CharSequence, int, int)} reads decimal text straight into cents, rounding half-up on the third
+ * decimal digit as {@code BigDecimal.setScale(2, HALF_UP)} would, and {@link #ofDollars(double)} rounds the same
+ * way. {@link #append(StringBuilder, long)} writes an amount back as the same text {@code Double.toString} gives for
+ * amounts under ten million dollars, so records written before amounts were held as cents read and write unchanged.
+ * Larger amounts are written in plain notation rather than with the exponent {@code Double.toString} switches to,
+ * so {@code parse} can always read back what {@code append} wrote.
+ * </p>
+ */
+public final class Money {
+    private Money() {}
+
+    /**
+     * Converts dollars to cents, rounding halves away from zero as {@link #parse(CharSequence)} does for the
+     * amount's decimal text.
+     * @param dollars {@code double}
+     * @return {@code long} cents.
+     * @throws NumberFormatException if the amount is not finite.
+     */
+    public static long ofDollars(final double dollars) {
+        return BigDecimal.valueOf(dollars).setScale(2, RoundingMode.HALF_UP).unscaledValue().longValue();
+    }
+
+    /**
+     * Converts cents to dollars, for display or for code that takes dollars.
+     * @param cents {@code long}
+     * @return {@code double} dollars.
+     */
+    public static double toDollars(final long cents) {
+        return cents / 100.0;
+    }
+
+    /**
+     * Parses decimal text such as {@code 12.5} or {@code -0.99} into cents.
+     * @param text {@code CharSequence}
+     * @return {@code long} cents.
+     * @throws NumberFormatException if the text is not a plain decimal number.
+     */
+    public static long parse(final CharSequence text) {
+        return parse(text, 0, text.length());
+    }
+
+    /**
+     * Parses the decimal text between {@code start} and {@code end} into cents, without copying it. Digits past the
+     * third decimal place are ignored, as they cannot change the rounding.
+     * @param text {@code CharSequence} holding the amount.
+     * @param start {@code int} index of the first character.
+     * @param end {@code int} index after the last character.
+     * @return {@code long} cents.
+     * @throws NumberFormatException if the text is not a plain decimal number, such as one with an exponent, or
+     *         does not fit in a {@code long}.
+     */
+    public static long parse(final CharSequence text, final int start, final int end) {
+        boolean negative = start < end && text.charAt(start) == '-';
+        int i = (negative || (start < end && text.charAt(start) == '+')) ? start + 1 : start;
+
+        long units = 0;
+        int digits = 0;
+        for (; i < end && text.charAt(i) != '.'; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9 || units > Long.MAX_VALUE / 1000)
+                throw malformed(text, start, end);
+            units = units * 10 + digit;
+            digits++;
+        }
+
+        long cents = 0;
+        int fractionDigits = 0;
+        boolean roundUp = false;
+        for (i = i + 1; i < end; i++, fractionDigits++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9)
+                throw malformed(text, start, end);
+            if (fractionDigits < 2)
+                cents = cents * 10 + digit;
+            else if (fractionDigits == 2)
+                roundUp = digit >= 5;
+            digits++;
+        }
+
+        if (digits == 0)
+            throw malformed(text, start, end);
+        for (; fractionDigits < 2; fractionDigits++)
+            cents *= 10;
+
+        long value = units * 100 + cents + (roundUp ? 1 : 0);
+        return negative ? -value : value;
+    }
+
+    /**
+     * Appends an amount in dollars with at least one and at most two decimal digits, such as {@code 3.0},
+     * {@code 12.5} or {@code 7.99}.
+     * @param out {@code StringBuilder} receiving the amount.
+     * @param cents {@code long}
+     * @return {@code StringBuilder} the builder given.
+     */
+    public static StringBuilder append(final StringBuilder out, final long cents) {
+        if (cents < 0)
+            out.append('-');
+        long magnitude = Math.abs(cents);
+        long fraction = magnitude % 100;
+        out.append(magnitude / 100).append('.').append(fraction / 10);
+        if (fraction % 10 != 0)
+            out.append(fraction % 10);
+        return out;
+    }
+
+    /**
+     * Returns an amount as {@link #append(StringBuilder, long)} writes it.
+     * @param cents {@code long}
+     * @return {@code String}
+     */
+    public static String toString(final long cents) {
+        return append(new StringBuilder(24), cents).toString();
+    }
+
+    private static NumberFormatException malformed(final CharSequence text, final int start, final int end) {
+        return new NumberFormatException("'" + text.subSequence(start, end) + "' is not an amount of money.");
+    }
+}
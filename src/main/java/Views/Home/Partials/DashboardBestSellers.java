@@ -23,7 +23,8 @@ public class DashboardBestSellers extends JPanel implements ViewPartialInterface
         super();
         super.setVisible(true);
         super.setOpaque(false);
-        this.tableModel = new TMTopSales(model.getEntities());
+        this.tableModel = new TMTopSales(model.getEntityView());
+        model.registerObserver(this.tableModel);
     }
 
     @Override
@@ -2,17 +2,68 @@ package Views.Home;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+import javax.swing.SwingUtilities;
+
+import Entities.Entity;
 import Entities.Product;
 import Graphics.Tables.EntityTableModel;
-import Interfaces.Entity;
+import Interfaces.ViewActionObserver;
 
-public class TMTopSales extends EntityTableModel {
-    public TMTopSales(Collection<Product> collection) {
-        super();
-        for (Product entity : collection) {
-            super.addRow(entity);
-        }
+public class TMTopSales extends EntityTableModel implements ViewActionObserver {
+    private final AtomicBoolean refreshPending = new AtomicBoolean();
+
+    /**
+     * Shows the given products; the table indexes into the list, so a model's entity view keeps it current. Register
+     * the table with the model as well, so it redraws when the products change.
+     * @param products {@code List<Product>} products, in display order.
+     */
+    public TMTopSales(List<Product> products) {
+        super(products);
+    }
+
+    @Override
+    public void notifyNewEntity(Entity entity) {
+        refresh();
+    }
+
+    @Override
+    public void notifyRemovedEntity(Entity entity) {
+        refresh();
+    }
+
+    @Override
+    public void notifyModifiedEntity(Entity entity) {
+        refresh();
+    }
+
+    @Override
+    public void notifyNewEntities(Collection<? extends Entity> entities) {
+        refresh();
+    }
+
+    @Override
+    public void notifyRemovedEntities(Collection<? extends Entity> entities) {
+        refresh();
+    }
+
+    @Override
+    public void notifyModifiedEntities(Collection<? extends Entity> entities) {
+        refresh();
+    }
+
+    /**
+     * Redraws the table on the event dispatch thread. Models notify from the thread that wrote to them, so changes
+     * arriving before the table was redrawn are folded into one redraw.
+     */
+    private void refresh() {
+        if (this.refreshPending.compareAndSet(false, true))
+            SwingUtilities.invokeLater(() -> {
+                this.refreshPending.set(false);
+                fireTableDataChanged();
+            });
     }
 
     @Override
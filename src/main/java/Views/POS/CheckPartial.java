@@ -1,7 +1,9 @@
 package Views.POS;
 
 import Controllers.PointOfSalesController;
+import Entities.CheckPricing;
 import Interfaces.ControllerInterface;
+import Utilities.FormatText;
 import Utilities.GBC;
 import Utilities.Styler;
 import Graphics.Builders.TextLabelBuilder;
@@ -24,6 +26,8 @@ public class CheckPartial extends JPanel {
     private JScrollPane scrollPane;
     private JLabel tableNumber;
     private JButton checkoutButton;
+    private JLabel subtotalLabel;
+    private JLabel totalLabel;
     private final JPanel ordersPane;
 
     public CheckPartial(ControllerInterface controller, JPanel ordersPanel) {
@@ -49,7 +53,8 @@ public class CheckPartial extends JPanel {
         gbc.ipady = 7;
         super.add(createHeader(), GBC.setGBC(gbc, 0, 0, 0.0));
         super.add(this.scrollPane, GBC.setGBC(gbc, 0, 1, 1.0, 1.0));
-        super.add(this.checkoutButton, GBC.setGBC(gbc, 0, 2, 0.0));
+        super.add(createFooter(), GBC.setGBC(gbc, 0, 2, 0.0));
+        super.add(this.checkoutButton, GBC.setGBC(gbc, 0, 3, 0.0));
     }
 
     public JLabel createHeader() {
@@ -58,6 +63,36 @@ public class CheckPartial extends JPanel {
         return builder.text("A29").bgColor(Styler.DARK_SHADE2_COLOR).boldify().buildLabel();
     }
 
+    /**
+     * Footer listing the check's subtotal and total above the checkout button.
+     * @return JPanel
+     */
+    public JPanel createFooter() {
+        TextLabelBuilder builder = new TextLabelBuilder();
+        this.subtotalLabel = builder.text("Subtotal: $0.00").buildLabel();
+        this.totalLabel = builder.text("Total: $0.00").boldify().buildLabel();
+
+        JPanel footer = new JPanel(new GridBagLayout());
+        footer.setOpaque(false);
+        GridBagConstraints gbc = new GridBagConstraints();
+        gbc.fill = GridBagConstraints.HORIZONTAL;
+        footer.add(this.subtotalLabel, GBC.setGBC(gbc, 0, 0, 1.0));
+        footer.add(this.totalLabel, GBC.setGBC(gbc, 0, 1, 1.0));
+        return footer;
+    }
+
+    /**
+     * Shows the amounts of the check in the footer. Called whenever the check's line items change.
+     * @param breakdown {@code PriceBreakdown} from {@code Check.priceBreakdown()}.
+     */
+    public void showPriceBreakdown(CheckPricing.PriceBreakdown breakdown) {
+        String subtotal = "Subtotal: " + FormatText.format(breakdown.subtotal(), 2, true);
+        if (breakdown.surchargeCents() != 0)
+            subtotal += " + " + FormatText.format(breakdown.surcharges(), 2, true);
+        this.subtotalLabel.setText(subtotal);
+        this.totalLabel.setText("Total: " + FormatText.format(breakdown.total(), 2, true));
+    }
+
     public void init() {
         this.scrollPane = new ModernScrollBar(this.ordersPane);
         this.scrollPane.setBorder(BorderFactory.createEmptyBorder(0, 0, 0, 0));
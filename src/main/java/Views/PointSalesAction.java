@@ -89,8 +89,24 @@ public class PointSalesAction implements ViewActionInterface {
             + "\n\t* Variant:  " + (variantSelected.getVariant() != null ? variantSelected.getVariant().getVariantName() : "null")
             + "\n\t* Selected: " + (variantSelected.getVariant() != null ? variantSelected.getVariantOptionSelected().getOptionName() : "null")
         );
-        this.check.addLineItem(new CheckLineItem(variantSelected.getProduct(), variantSelected));
-        addItem(new CheckLineItem(variantSelected.getProduct(), variantSelected));
+        CheckLineItem lineItem = new CheckLineItem(variantSelected.getProduct(), variantSelected);
+        this.check.addLineItem(lineItem);
+        addItem(lineItem);
+        this.checkPartial.showPriceBreakdown(this.check.priceBreakdown());
+    }
+
+    /**
+     * Starts a new check for the table once the last one is checked out, clearing its line items and the totals
+     * shown in the footer.
+     */
+    public void clearCheck() {
+        this.check = new Check();
+        this.productsOnOrder.clear();
+        this.counter = 0;
+        this.ordersPane.removeAll();
+        this.ordersPane.revalidate();
+        this.ordersPane.repaint();
+        this.checkPartial.showPriceBreakdown(this.check.priceBreakdown());
     }
 
     public void switchToMenu() {
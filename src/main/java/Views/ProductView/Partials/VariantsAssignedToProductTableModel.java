@@ -8,9 +8,7 @@ import java.util.Collection;
 public class VariantsAssignedToProductTableModel extends EntityTableModel {
     public VariantsAssignedToProductTableModel(Collection<ProductVariant> collection) {
         super();
-        for (ProductVariant entity : collection) {
-            super.addRow(entity);
-        }
+        super.entities.addAll(collection);
     }
 
     @Override
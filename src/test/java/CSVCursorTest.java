@@ -0,0 +1,56 @@
+import Services.CSVCursor;
+import Utilities.LogService;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Confirms the cursor parses fields from their offsets the same way {@code CSVParser} does.
+ */
+public class CSVCursorTest {
+    private final CSVCursor cursor = new CSVCursor(new LogService(this.getClass().getName()));
+
+
+    /**
+     * Parses every field type of a product record, then reuses the cursor for a shorter record.
+     */
+    @Test
+    public void parseFieldsAndReuseCursor() {
+        cursor.reset("5ae3c1f2-61f7-4a3c-9a53-1d1f4bd5a2c9,Burger,12.345,3.5,42,ENTREE,[a|b| |c],true");
+
+        assertEquals(8, cursor.fieldCount());
+        assertEquals("Burger", cursor.parseString(1));
+        assertEquals(1235, cursor.parseCents(2));
+        assertEquals(12.35, cursor.parseCurrency(2), 0.0);
+        assertEquals(3.5, cursor.parseDouble(3), 0.0);
+        assertEquals(42, cursor.parseInteger(4));
+        assertTrue(cursor.fieldEquals(5, "ENTREE"));
+        assertEquals(List.of("a", "b", "c"), cursor.parseListString(6));
+        assertTrue(cursor.parseBoolean(7));
+        assertTrue(cursor.isValidGUID(0));
+
+        cursor.reset("id,-0.1,1e2");
+        assertEquals(3, cursor.fieldCount());
+        assertEquals(-0.1, cursor.parseDouble(1), 0.0);
+        assertEquals(100.0, cursor.parseDouble(2), 0.0);
+        assertEquals(10000, cursor.parseCents(2));
+        assertEquals("", cursor.parseString(5));
+        assertFalse(cursor.isValidGUID(0));
+    }
+
+
+    /**
+     * Malformed numbers fall back to zero instead of throwing.
+     */
+    @Test
+    public void malformedFieldsDefaultToZero() {
+        cursor.reset("id,abc,99999999999,");
+
+        assertEquals(0.0, cursor.parseDouble(1), 0.0);
+        assertEquals(0, cursor.parseInteger(2));
+        assertEquals(0, cursor.parseCents(3));
+        assertTrue(cursor.isBlank(3));
+    }
+}
@@ -0,0 +1,53 @@
+import Entities.Product;
+import Models.EntityStore;
+import Services.IDGenerator;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Confirms the table behind {@code EntityStore} finds entities by either form of ID and keeps their order.
+ */
+public class EntityTableTest {
+    /**
+     * The store keeps compact and legacy IDs side by side through growth, removals and the rebuilds they cause,
+     * without losing an entity or its position.
+     */
+    @Test
+    public void entityStoreHoldsCompactAndLegacyIDs() {
+        EntityStore<Product> store = new EntityStore<>();
+        List<Product> expected = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            Product product = new Product(i % 2 == 0 ? IDGenerator.generateGUID() : "legacy" + i + "-ab-cd-ef-0123456789");
+            store.put(product.getID(), product);
+            expected.add(product);
+        }
+        for (int i = 0; i < expected.size(); i += 3)
+            assertSame(expected.get(i), store.remove(expected.get(i).getID()));
+        expected.removeIf(product -> !store.containsKey(product.getID()));
+
+        Product replacement = new Product(expected.get(10).getID());
+        assertSame(expected.get(10), store.put(replacement.getID(), replacement));
+        expected.set(10, replacement);
+        for (int i = 0; i < 2000; i++) {
+            Product product = new Product(IDGenerator.generateGUID());
+            store.put(product.getID(), product);
+            expected.add(product);
+        }
+
+        assertEquals(expected.size(), store.size());
+        assertEquals(expected, store.snapshot());
+        for (int i = 0; i < expected.size(); i++) {
+            assertSame(expected.get(i), store.get(expected.get(i).getID()));
+            assertSame(expected.get(i), store.view().get(i));
+        }
+        assertNull(store.get(IDGenerator.generateGUID()));
+        assertFalse(store.remove(replacement.getID(), new Product(replacement.getID())));
+        store.clear();
+        assertTrue(store.isEmpty());
+        assertNull(store.get(replacement.getID()));
+    }
+}
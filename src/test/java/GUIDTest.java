@@ -0,0 +1,44 @@
+import Services.GUID;
+import Services.IDGenerator;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+/**
+ * Confirms generated IDs convert to their compact form and back, and that IDs already stored in the catalog
+ * keep working.
+ */
+public class GUIDTest {
+    private static final String STORED_ID = "qej73088-3e16-6oyx-0885-fk6extye6cue";
+
+    /**
+     * New IDs are time-ordered hex UUIDs that convert to two longs and back, while IDs already stored in the
+     * catalog stay valid and fall back to their text.
+     */
+    @Test
+    public void generatedIDsAreCompactAndTimeOrdered() throws IOException {
+        GUID first = IDGenerator.generate();
+        String id = IDGenerator.generateGUID();
+        assertTrue(IDGenerator.isValidGUID(id));
+        assertEquals(id, GUID.parse(id).toString());
+        assertEquals(GUID.parse(id), GUID.fromBytes(GUID.parse(id).toBytes(), 0));
+        assertTrue(first.compareTo(GUID.parse(id)) < 0 || first.timestamp() == GUID.parse(id).timestamp());
+        assertFalse(IDGenerator.isValidGUID(id.replace('-', 'a')));
+
+        assertTrue(IDGenerator.isValidGUID(STORED_ID));
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            GUID.write(out, id);
+            GUID.write(out, STORED_ID);
+        }
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        assertEquals(id, GUID.read(in));
+        assertEquals(STORED_ID, GUID.read(in));
+    }
+}
@@ -0,0 +1,41 @@
+import Utilities.Money;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Confirms amounts convert between their text and whole cents the way records have always stored them.
+ */
+public class MoneyTest {
+    /**
+     * Amounts are read into cents half-up, as {@code CSVParser} rounded them, and written back as
+     * {@code Double.toString} wrote them, so existing records round-trip unchanged.
+     */
+    @Test
+    public void moneyRoundTripsThroughCents() {
+        assertEquals(1235, Money.parse("12.345"));
+        assertEquals(1234, Money.parse("12.3449"));
+        assertEquals(-1, Money.parse("-0.005"));
+        assertEquals(700, Money.parse("7"));
+        assertEquals(50, Money.parse(".5"));
+        assertEquals(10, Money.parse("0.10"));
+        assertThrows(NumberFormatException.class, () -> Money.parse("1e2"));
+        assertThrows(NumberFormatException.class, () -> Money.parse("-"));
+
+        for (long cents : new long[] {0, 5, 50, 300, 799, 1250, -99, 123456789})
+            assertEquals(Double.toString(cents / 100.0), Money.toString(cents));
+        assertEquals("10000000.0", Money.toString(1000000000));
+        assertEquals(123456789012L, Money.parse(Money.toString(123456789012L)));
+    }
+
+    /**
+     * Dollars convert to cents rounding halves away from zero, as {@code parse} rounds their text.
+     */
+    @Test
+    public void dollarsRoundLikeParsedText() {
+        for (double dollars : new double[] {12.345, -12.345, 0.005, -0.005, 7.99, -0.994, 0})
+            assertEquals(Money.parse(Double.toString(dollars)), Money.ofDollars(dollars));
+        assertEquals(-1, Money.ofDollars(-0.005));
+        assertEquals(1000000000, Money.ofDollars(1e7));
+    }
+}
@@ -1,17 +1,47 @@
+import Constants.PersistenceMode;
+import Constants.StorageBackend;
+import Entities.Entity;
 import Entities.Product;
+import Entities.ProductCategory;
 import Entities.ProductVariant;
+import Entities.ProductVariantOption;
+import Interfaces.ViewActionObserver;
+import Models.EntityModel;
+import Models.FlushScheduler;
+import Models.ModelSnapshot;
 import Models.ProductModel;
 import Models.ProductVariantModel;
 import Models.ProductVariantOptionModel;
+import Models.Storage.BinaryStorageEngine;
+import Models.Storage.Compactable;
+import Models.Storage.StorageCompactor;
+import Services.IDGenerator;
 import Services.VariantService;
 import TestSuite.MockService;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
 
 import static org.junit.Assert.*;
 import static org.junit.jupiter.api.Assertions.assertThrowsExactly;
@@ -181,6 +211,433 @@ public class ProductModelTest {
     }
 
 
+    /**
+     * Confirms an upsert that changes a record's length rewrites that record only; the records following it are
+     * shifted and still found through the primary index.
+     */
+    @Test
+    public void upsertResizesRecordInPlace() {
+        int oldCount = productModel.getEntities().size();
+        Product entity = selectRandomEntity();
+        String newName = entity.getProductName() + " Deluxe Platter";
+        entity.setName(newName);
+
+        productModel.upsert(entity);
+        productModel.loadEntities();
+
+        assertEquals(oldCount, productModel.getEntities().size());
+        assertEquals(newName, productModel.retrieve(entity.getID()).getProductName());
+        assertEquals(0, productModel.getFailedToParseCount());
+    }
+
+    /**
+     * Confirms a journaled model keeps its writes out of the CSV file until a checkpoint, while a reload still
+     * sees them by replaying the journal.
+     */
+    @Test
+    public void journaledUpsertSurvivesReload() {
+        productModel.setPersistenceMode(PersistenceMode.JOURNALED);
+        Product entity = selectRandomEntity();
+        String newName = MockService.randomizeProductName();
+        entity.setName(newName);
+
+        productModel.upsert(entity);
+        productModel.loadEntities();
+        assertEquals(newName, productModel.retrieve(entity.getID()).getProductName());
+
+        assertTrue(productModel.checkpoint());
+        productModel.setPersistenceMode(PersistenceMode.REWRITE);
+        productModel.loadEntities();
+        assertEquals(newName, productModel.retrieve(entity.getID()).getProductName());
+    }
+
+    /**
+     * Confirms an async model shows a write in memory straight away, and that once the write is persisted a reload
+     * from storage sees it as well.
+     */
+    @Test
+    public void asyncUpsertIsPersistedInBackground() throws ExecutionException, InterruptedException {
+        productModel.setPersistenceMode(PersistenceMode.ASYNC);
+        Product entity = selectRandomEntity();
+        String newName = MockService.randomizeProductName();
+        entity.setName(newName);
+
+        productModel.upsert(entity);
+        assertEquals(newName, productModel.retrieve(entity.getID()).getProductName());
+
+        productModel.whenPersisted().get();
+        productModel.setPersistenceMode(PersistenceMode.REWRITE);
+        productModel.loadEntities();
+        assertEquals(newName, productModel.retrieve(entity.getID()).getProductName());
+    }
+
+    /**
+     * Hammers the model from several threads at once. Each thread renames its own share of the products and inserts
+     * products of its own while reading the model; every write must land, and the file must reload cleanly.
+     */
+    @Test
+    public void concurrentWritesKeepModelConsistent() throws InterruptedException, ExecutionException {
+        int threads = 8;
+        int insertsPerThread = 10;
+        List<Product> products = productModel.getEntities();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<List<Product>>> results = new ArrayList<>();
+
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            results.add(pool.submit(() -> {
+                start.await();
+                List<Product> inserted = new ArrayList<>();
+                for (int i = thread; i < products.size(); i += threads) {
+                    products.get(i).setName("Stress " + thread + "-" + i);
+                    productModel.upsert(products.get(i));
+                    assertNotNull(productModel.retrieve(products.get(i).getID()));
+                }
+                for (int i = 0; i < insertsPerThread; i++) {
+                    Product product = MockService.randomizeProduct();
+                    productModel.insert(product);
+                    inserted.add(product);
+                    assertFalse(productModel.getEntities().isEmpty());
+                }
+                return inserted;
+            }));
+        }
+        start.countDown();
+        List<Product> inserted = new ArrayList<>();
+        for (Future<List<Product>> result : results)
+            inserted.addAll(result.get());
+        pool.shutdown();
+
+        assertEquals(products.size() + threads * insertsPerThread, productModel.getEntities().size());
+        productModel.loadEntities();
+        assertEquals(0, productModel.getFailedToParseCount());
+        assertEquals(products.size() + threads * insertsPerThread, productModel.getEntities().size());
+        for (int i = 0; i < products.size(); i++)
+            assertEquals("Stress " + (i % threads) + "-" + i,
+                    productModel.retrieve(products.get(i).getID()).getProductName());
+
+        productModel.deleteAll(inserted);
+        assertEquals(products.size(), productModel.getEntities().size());
+    }
+
+    /**
+     * Edits made without saving are collected by the flush scheduler and written with one batch; observers hear
+     * about them once, and a reload sees every edit.
+     */
+    @Test
+    public void flushSchedulerBatchesChangedEntities() {
+        List<Product> products = productModel.getEntities();
+        List<Product> edited = products.subList(0, Math.min(5, products.size()));
+        List<Integer> notifications = new ArrayList<>();
+        productModel.registerObserver(new ViewActionObserver() {
+            public void notifyNewEntity(Entity entity) {}
+            public void notifyRemovedEntity(Entity entity) {}
+            public void notifyModifiedEntity(Entity entity) {}
+            public void notifyModifiedEntities(Collection<? extends Entity> entities) { notifications.add(entities.size()); }
+        });
+        edited.forEach(product -> product.setPrice(product.getPrice() + 1));
+
+        try (FlushScheduler scheduler = new FlushScheduler(Duration.ofHours(1))) {
+            scheduler.register(productModel);
+            assertEquals(edited.size(), productModel.getChangedEntities().size());
+            assertEquals(edited.size(), scheduler.flush());
+            assertEquals(0, scheduler.flush());
+        }
+
+        assertEquals(List.of(edited.size()), notifications);
+        assertTrue(productModel.getChangedEntities().isEmpty());
+        List<Double> prices = edited.stream().map(Product::getPrice).toList();
+        productModel.loadEntities();
+        for (int i = 0; i < edited.size(); i++)
+            assertEquals(prices.get(i), productModel.retrieve(edited.get(i).getID()).getPrice(), 0.001);
+    }
+
+    /**
+     * The compiled schema must write exactly the record layout the deserializer reads back.
+     */
+    @Test
+    public void serializeWritesRecordLayout() {
+        Product entity = selectRandomEntity();
+        String variants = entity.getVariants().stream().map(Entity::getID)
+                .collect(Collectors.joining("|", "[", "]"));
+        String expected = String.join(",", entity.getID(), entity.getProductName(),
+                Double.toString(entity.getPrice()), Double.toString(entity.getCost()),
+                Integer.toString(entity.getTotalSales()), entity.categoryName(), variants);
+
+        assertEquals(expected, entity.serialize());
+    }
+
+    /**
+     * Entities are kept in the order they were added. Positional reads index into that order, snapshots stay as
+     * they were taken, and the live view follows the model.
+     */
+    @Test
+    public void entitiesKeepInsertionOrder() {
+        Product first = MockService.randomizeProduct();
+        Product second = MockService.randomizeProduct();
+        productModel.insertAll(List.of(first, second));
+
+        List<Product> snapshot = productModel.getEntities();
+        List<Product> view = productModel.getEntityView();
+        int size = snapshot.size();
+        assertSame(snapshot, productModel.getEntities());
+        assertEquals(List.of(first, second), snapshot.subList(size - 2, size));
+        assertSame(second, productModel.retrieve(size - 1));
+        assertEquals(Optional.of(first), productModel.findEntity(size - 2));
+        assertTrue(productModel.findEntity(size).isEmpty());
+
+        productModel.deleteAll(List.of(first));
+        assertEquals(size, snapshot.size());
+        assertEquals(size - 1, view.size());
+        assertSame(second, view.get(size - 2));
+        assertThrows(UnsupportedOperationException.class, () -> view.remove(0));
+
+        productModel.deleteAll(List.of(second));
+    }
+
+    /**
+     * The category, name and price indexes answer the same as a scan of the catalog, and follow a product through
+     * an upsert that changes all three keys and through its deletion.
+     */
+    @Test
+    public void secondaryIndexesFollowUpsertAndDelete() {
+        for (ProductCategory category : ProductCategory.values())
+            assertEquals(productModel.getEntities().stream().filter(p -> p.getCategory() == category).count(),
+                    productModel.findByCategory(category).size());
+        assertEquals(productModel.getEntities().size(), productModel.findByNamePrefix("").size());
+
+        Product entity = MockService.randomizeProduct();
+        entity.setVariants(List.of());
+        entity.setName("Zz Index Soup");
+        entity.setPrice(12345.67);
+        entity.setCategory(ProductCategory.SOUP);
+        productModel.insert(entity);
+        assertTrue(productModel.findByCategory(ProductCategory.SOUP).contains(entity));
+        assertEquals(List.of(entity), productModel.findByNamePrefix("zz index"));
+        assertEquals(List.of(entity), productModel.findByPriceRange(12345.0, 12346.0));
+
+        entity.setName("Zz Index Pie");
+        entity.setPrice(23456.78);
+        entity.setCategory(ProductCategory.DESSERT);
+        productModel.upsert(entity);
+        assertFalse(productModel.findByCategory(ProductCategory.SOUP).contains(entity));
+        assertTrue(productModel.findByCategory(ProductCategory.DESSERT).contains(entity));
+        assertTrue(productModel.findByNamePrefix("Zz Index S").isEmpty());
+        assertEquals(List.of(entity), productModel.findByNamePrefix("ZZ INDEX P"));
+        assertTrue(productModel.findByPriceRange(12345.0, 12346.0).isEmpty());
+        assertEquals(List.of(entity), productModel.findByPriceRange(23456.78, 23456.78));
+
+        productModel.delete(entity);
+        assertFalse(productModel.findByCategory(ProductCategory.DESSERT).contains(entity));
+        assertTrue(productModel.findByNamePrefix("zz index").isEmpty());
+        assertTrue(productModel.findByPriceRange(23456.0, 23457.0).isEmpty());
+    }
+
+    /**
+     * Options and products are found through their variant, and deleting the variant cascades to exactly those
+     * options and products.
+     */
+    @Test
+    public void variantDeleteCascadesThroughForeignKeyIndexes() {
+        ProductVariant variant = MockService.randomizeVariant();
+        variant.setSelectionOptions(new ArrayList<>());
+        variantModel.insert(variant);
+        ProductVariantOption option = new ProductVariantOption(variant, MockService.randomizeProductName());
+        variantModel.linkVariantOptionToVariant(option, variant);
+        assertEquals(List.of(option), variantOptionModel.findByVariant(variant.getID()));
+        assertTrue(variantOptionModel.isOptionOf(variant.getID(), option.getID()));
+
+        Product product = MockService.randomizeProduct();
+        product.setVariants(List.of(variant));
+        productModel.insert(product);
+        assertEquals(List.of(product), productModel.findByVariant(variant.getID()));
+
+        variantModel.delete(variant);
+        assertFalse(variantOptionModel.entityExists(option.getID()));
+        assertTrue(variantOptionModel.findByVariant(variant.getID()).isEmpty());
+        assertTrue(productModel.findByVariant(variant.getID()).isEmpty());
+        assertTrue(productModel.retrieve(product.getID()).getVariants().isEmpty());
+
+        productModel.delete(product);
+    }
+
+    /**
+     * A snapshot restores the models with their references resolved, and is ignored once one of the files it was
+     * taken from changes or the snapshot itself cannot be read.
+     */
+    @Test
+    public void snapshotRestoresModelsUntilFilesChange() throws IOException {
+        Path snapshotPath = Files.createTempFile("models", ".snapshot");
+        ModelSnapshot snapshot = new ModelSnapshot(snapshotPath);
+        Path productFile = productModel.getStorageEngine().getPath();
+        FileTime modified = Files.getLastModifiedTime(productFile);
+        try {
+            assertTrue(snapshot.write(List.of(variantModel, variantOptionModel, productModel)));
+
+            VariantService restoredService = new VariantService();
+            ProductModel restoredProducts = new ProductModel(restoredService);
+            ProductVariantModel restoredVariants = new ProductVariantModel(restoredService);
+            ProductVariantOptionModel restoredOptions = new ProductVariantOptionModel(restoredService);
+            restoredService.init(restoredProducts, restoredVariants, restoredOptions);
+            List<EntityModel<?>> restored = List.of(restoredVariants, restoredOptions, restoredProducts);
+            assertTrue(snapshot.restore(restored));
+
+            assertEquals(productModel.getEntities().size(), restoredProducts.getEntities().size());
+            assertEquals(variantModel.getEntities().size(), restoredVariants.getEntities().size());
+            for (Product product : productModel.getEntities()) {
+                Product restoredProduct = restoredProducts.retrieve(product.getID());
+                assertEquals(product.serialize(), restoredProduct.serialize());
+                restoredProduct.getVariants().forEach(variant ->
+                        assertSame(restoredVariants.retrieve(variant.getID()), variant));
+            }
+            for (ProductVariant variant : variantModel.getEntities())
+                assertEquals(variant.getSelectionOptions().size(),
+                        restoredVariants.retrieve(variant.getID()).getSelectionOptions().size());
+
+            Files.setLastModifiedTime(productFile, FileTime.fromMillis(modified.toMillis() + 1000));
+            assertFalse(snapshot.restore(restored));
+
+            Files.setLastModifiedTime(productFile, modified);
+            byte[] image = Files.readAllBytes(snapshotPath);
+            Files.write(snapshotPath, Arrays.copyOf(image, image.length - 1));
+            assertFalse(snapshot.restore(restored));
+            assertEquals(productModel.getEntities().size(), restoredProducts.getEntities().size());
+        } finally {
+            Files.setLastModifiedTime(productFile, modified);
+            Files.deleteIfExists(snapshotPath);
+        }
+    }
+
+    /**
+     * Confirms a batch mixing resized records, new records and deletions is persisted, reloads cleanly, and that
+     * observers hear about each kind of change once.
+     */
+    @Test
+    public void upsertAllCommitsBatchTogether() {
+        List<Product> products = new ArrayList<>(productModel.getEntities());
+        List<Integer> notifications = new ArrayList<>();
+        productModel.registerObserver(new ViewActionObserver() {
+            public void notifyNewEntity(Entity entity) {}
+            public void notifyRemovedEntity(Entity entity) {}
+            public void notifyModifiedEntity(Entity entity) {}
+            public void notifyNewEntities(Collection<? extends Entity> entities) { notifications.add(entities.size()); }
+            public void notifyModifiedEntities(Collection<? extends Entity> entities) { notifications.add(entities.size()); }
+            public void notifyRemovedEntities(Collection<? extends Entity> entities) { notifications.add(entities.size()); }
+        });
+
+        List<Product> batch = new ArrayList<>();
+        for (int i = 0; i < Math.min(3, products.size()); i++) {
+            products.get(i).setName(products.get(i).getProductName() + " x" + i);
+            batch.add(products.get(i));
+        }
+        Product newProduct = new Product(IDGenerator.generateGUID());
+        newProduct.setName(MockService.randomizeProductName());
+        newProduct.setPrice(MockService.randomCurrency());
+        newProduct.setCost(MockService.randomCurrency());
+        newProduct.setCategory(MockService.randomizeProductCategory());
+        batch.add(newProduct);
+        productModel.upsertAll(batch);
+        productModel.deleteAll(List.of(newProduct));
+
+        assertEquals(List.of(1, batch.size() - 1, 1), notifications);
+        productModel.loadEntities();
+        assertEquals(products.size(), productModel.getEntities().size());
+        assertEquals(0, productModel.getFailedToParseCount());
+        for (int i = 0; i < batch.size() - 1; i++)
+            assertEquals(batch.get(i).getProductName(), productModel.retrieve(batch.get(i).getID()).getProductName());
+    }
+
+
+    /**
+     * Confirms a model can be moved onto each storage engine: its entities carry over, and writes made through
+     * the new engine survive a reload from it.
+     */
+    @Test
+    public void switchStorageBackends() throws IOException {
+        int oldCount = productModel.getEntities().size();
+        for (StorageBackend backend : StorageBackend.values()) {
+            productModel.setStorageBackend(backend);
+            Product entity = selectRandomEntity();
+            String newName = MockService.randomizeProductName();
+            entity.setName(newName);
+
+            productModel.upsert(entity);
+            productModel.loadEntities();
+
+            assertEquals(backend.name(), oldCount, productModel.getEntities().size());
+            assertEquals(backend.name(), newName, productModel.retrieve(entity.getID()).getProductName());
+            assertTrue(productModel.getStorageEngine().get(entity.getID()).orElse("").contains(newName));
+        }
+        Files.deleteIfExists(Paths.get("src/main/resources/ProductList.txt" + BinaryStorageEngine.FILE_EXTENSION));
+    }
+
+    /**
+     * A binary record file cut short by an interrupted append loses only its torn entry. Damage before the end of
+     * the file fails the read and leaves the file untouched.
+     */
+    @Test
+    public void binaryEngineTruncatesOnlyTornTail() throws IOException {
+        Path modelPath = Files.createTempFile("ProductList", ".txt");
+        BinaryStorageEngine<Product> engine = new BinaryStorageEngine<>(modelPath);
+        engine.batch(Map.of("a", "a,first"), List.of());
+        engine.put("b", "b,second");
+        long intactSize = Files.size(engine.getPath());
+
+        Files.write(engine.getPath(), new byte[] { 0, 0, 0, 1, 'c', 0, 0, 0, 9, 'c' }, StandardOpenOption.APPEND);
+        BinaryStorageEngine<Product> torn = new BinaryStorageEngine<>(modelPath);
+        assertEquals(2, torn.size());
+        assertEquals(intactSize, Files.size(engine.getPath()));
+        assertEquals(Optional.of(1), torn.positionOf("b"));
+
+        byte[] corrupt = Files.readAllBytes(engine.getPath());
+        corrupt[Integer.BYTES] = -1;
+        Files.write(engine.getPath(), corrupt);
+        BinaryStorageEngine<Product> damaged = new BinaryStorageEngine<>(modelPath);
+        assertThrows(UncheckedIOException.class, damaged::size);
+        assertArrayEquals(corrupt, Files.readAllBytes(engine.getPath()));
+
+        Files.delete(engine.getPath());
+        Files.delete(modelPath);
+    }
+
+
+
+    /**
+     * Deletes leave same-length tombstones rather than shifting the file. Once enough of the file is tombstones,
+     * the compactor rewrites it without them and every remaining product still loads.
+     */
+    @Test
+    public void deletesLeaveTombstonesUntilCompacted() throws IOException, ExecutionException, InterruptedException {
+        Path productFile = Paths.get("src/main/resources/ProductList.txt");
+        List<Product> products = productModel.getEntities();
+        List<Product> deleted = products.subList(0, products.size() / 3);
+        Product kept = products.get(products.size() - 1);
+        long sizeBefore = Files.size(productFile);
+        long tombstonesBefore = Files.readAllLines(productFile).stream().filter(line -> line.startsWith("#")).count();
+
+        productModel.deleteAll(deleted);
+        assertEquals(sizeBefore, Files.size(productFile));
+        assertEquals(tombstonesBefore + deleted.size(),
+                Files.readAllLines(productFile).stream().filter(line -> line.startsWith("#")).count());
+
+        productModel.loadEntities();
+        assertEquals(products.size() - deleted.size(), productModel.getEntities().size());
+        assertEquals(0, productModel.getFailedToParseCount());
+
+        try (StorageCompactor compactor = new StorageCompactor(0.25)) {
+            assertTrue(compactor.requestCompaction((Compactable) productModel.getStorageEngine()).get());
+        }
+        assertTrue(Files.size(productFile) < sizeBefore);
+        assertTrue(Files.readAllLines(productFile).stream().noneMatch(line -> line.startsWith("#")));
+        assertTrue(productModel.getStorageEngine().get(kept.getID()).orElse("").startsWith(kept.getID()));
+
+        productModel.loadEntities();
+        assertEquals(products.size() - deleted.size(), productModel.getEntities().size());
+    }
+
+
+
     /**
      * Full-fledged integration test for the model.
      * Confirms deletion, modification, and addition entities.
@@ -0,0 +1,159 @@
+import Entities.Product;
+import Entities.ProductCategory;
+import Entities.ProductStats;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+/**
+ * Confirms a product's sales totals stay exact and consistent while several checkouts sell it at once.
+ */
+public class ProductStatsTest {
+    private static final int THREADS = 8;
+    private static final int SALES_PER_THREAD = 20000;
+
+    /**
+     * Sells the same product from several threads at once while another thread reads its totals. No sale may be
+     * lost, and every snapshot must hold the cost and price of exactly the units it counts.
+     */
+    @Test
+    public void concurrentSalesKeepProductTotals() throws InterruptedException, ExecutionException {
+        Product product = new Product("Burger", 2.35, 7.99, ProductCategory.MAIN_DISH);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS + 1);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(THREADS);
+        List<Future<?>> results = sell(pool, product, start, done);
+        Future<Integer> reader = pool.submit(() -> {
+            start.await();
+            int snapshots = 0;
+            do {
+                ProductStats.Snapshot stats = product.getStats().snapshot();
+                assertEquals(stats.totalSales() * 235, stats.expensesCents());
+                assertEquals(stats.totalSales() * 799, stats.revenueCents());
+                snapshots++;
+            } while (done.getCount() > 0);
+            return snapshots;
+        });
+        start.countDown();
+        for (Future<?> result : results)
+            result.get();
+        assertTrue(reader.get() > 0);
+        pool.shutdown();
+
+        long units = (long) THREADS * (2L * SALES_PER_THREAD - SALES_PER_THREAD / 10);
+        ProductStats.Snapshot stats = product.getStats().snapshot();
+        assertEquals(units, stats.totalSales());
+        assertEquals(units * 235, stats.expensesCents());
+        assertEquals(units * 799, stats.revenueCents());
+        assertEquals(units * 5.64, product.getTotalProfit(), 0.001);
+        assertEquals(units * 7.99, product.getTotalRevenue(), 0.001);
+        assertEquals(units * 2.35, product.getTotalExpenses(), 0.001);
+    }
+
+    /**
+     * Replacing the totals while sales are under way drops each sale whole or keeps it whole: the totals left once
+     * the sales finish still hold the cost and price of exactly the units they count.
+     */
+    @Test
+    public void replacedTotalsKeepWholeSales() throws InterruptedException, ExecutionException {
+        Product product = new Product("Burger", 2.35, 7.99, ProductCategory.MAIN_DISH);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(THREADS);
+        List<Future<?>> results = sell(pool, product, start, done);
+        start.countDown();
+        do {
+            product.getStats().replaceTotals(0, 0, 0);
+        } while (done.getCount() > 0);
+        for (Future<?> result : results)
+            result.get();
+        pool.shutdown();
+
+        ProductStats.Snapshot stats = product.getStats().snapshot();
+        assertTrue(stats.totalSales() <= (long) THREADS * (2L * SALES_PER_THREAD - SALES_PER_THREAD / 10));
+        assertEquals(stats.totalSales() * 235, stats.expensesCents());
+        assertEquals(stats.totalSales() * 799, stats.revenueCents());
+
+        product.setTotalSales(3);
+        product.setTotalExpenses(7.05);
+        product.setTotalRevenue(23.97);
+        product.recordSale(1);
+        stats = product.getStats().snapshot();
+        assertEquals(4, stats.totalSales());
+        assertEquals(940, stats.expensesCents());
+        assertEquals(3196, stats.revenueCents());
+    }
+
+    /**
+     * Reads and replaces the totals from two threads while others sell. Every snapshot must be read, even once the
+     * gate is closed, and hold the cost and price of exactly the units it counts; replacements only ever set whole
+     * sales, so no sale may be left half added to the new totals.
+     */
+    @Test
+    public void snapshotsAndReplacementsSeeWholeSales() throws InterruptedException, ExecutionException {
+        Product product = new Product("Burger", 2.35, 7.99, ProductCategory.MAIN_DISH);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS + 2);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(THREADS);
+        List<Future<?>> results = sell(pool, product, start, done);
+        Future<Integer> reader = pool.submit(() -> {
+            start.await();
+            int snapshots = 0;
+            do {
+                ProductStats.Snapshot stats = product.getStats().snapshot();
+                assertNotNull(stats);
+                assertEquals(stats.totalSales() * 235, stats.expensesCents());
+                assertEquals(stats.totalSales() * 799, stats.revenueCents());
+                snapshots++;
+            } while (done.getCount() > 0);
+            return snapshots;
+        });
+        Future<?> replacer = pool.submit(() -> {
+            start.await();
+            for (long units = 0; done.getCount() > 0; units = (units + 1) % 100)
+                product.getStats().replaceTotals(units, units * 235, units * 799);
+            return null;
+        });
+        start.countDown();
+        for (Future<?> result : results)
+            result.get();
+        replacer.get();
+        assertTrue(reader.get() > 0);
+        pool.shutdown();
+
+        ProductStats.Snapshot stats = product.getStats().snapshot();
+        assertEquals(stats.totalSales() * 235, stats.expensesCents());
+        assertEquals(stats.totalSales() * 799, stats.revenueCents());
+        product.getStats().replaceTotals(10, 2350, 7990);
+        product.recordSale(2);
+        assertEquals(new ProductStats.Snapshot(12, 2820, 9588), product.getStats().snapshot());
+    }
+
+    /**
+     * Submits the sales of every thread; each sells two units at a time and reverts one now and then.
+     */
+    private List<Future<?>> sell(ExecutorService pool, Product product, CountDownLatch start, CountDownLatch done) {
+        List<Future<?>> results = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            results.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < SALES_PER_THREAD; i++) {
+                    product.recordSale(2);
+                    if (i % 10 == 0)
+                        product.recordSale(-1);
+                }
+                done.countDown();
+                return null;
+            }));
+        }
+        return results;
+    }
+}
@@ -0,0 +1,121 @@
+import Constants.PersistenceMode;
+import Constants.StorageBackend;
+import Constants.SyncPolicy;
+import Entities.Product;
+import Models.ProductModel;
+import Models.ProductVariantModel;
+import Models.ProductVariantOptionModel;
+import Models.Storage.AtomicFiles;
+import Services.VariantService;
+import TestSuite.MockService;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Confirms a model's writes are kept under every sync policy, whether they go to its journal or its storage engine.
+ */
+public class SyncPolicyTest {
+    private final VariantService variantService = new VariantService();
+    private final ProductModel productModel = new ProductModel(variantService);
+    private final ProductVariantModel variantModel = new ProductVariantModel(variantService);
+    private final ProductVariantOptionModel variantOptionModel = new ProductVariantOptionModel(variantService);
+
+
+    @Before
+    public void initialize() {
+        variantService.init(productModel, variantModel, variantOptionModel);
+        variantModel.loadEntities();
+        variantOptionModel.loadEntities();
+        productModel.loadEntities();
+    }
+
+
+    @After
+    public void resetPolicy() {
+        productModel.setPersistenceMode(PersistenceMode.REWRITE);
+        productModel.setStorageBackend(StorageBackend.CSV);
+        productModel.setSyncPolicy(SyncPolicy.OS_DEFAULT);
+    }
+
+
+    /**
+     * Journaled writes survive a reload under each sync policy, and the checkpoint that folds them back replaces the
+     * CSV file without leaving its temporary file behind.
+     */
+    @Test
+    public void journalSyncPoliciesKeepWrites() {
+        productModel.setPersistenceMode(PersistenceMode.JOURNALED);
+        assertThrows(IllegalArgumentException.class, () -> productModel.setSyncPolicy(SyncPolicy.BATCHED, Duration.ZERO));
+        for (SyncPolicy policy : SyncPolicy.values()) {
+            productModel.setSyncPolicy(policy, Duration.ofMillis(50));
+            Product entity = renameRandomEntity();
+
+            productModel.upsert(entity);
+            productModel.loadEntities();
+            assertEquals(entity.getProductName(), productModel.retrieve(entity.getID()).getProductName());
+        }
+
+        Path productFile = productModel.getStorageEngine().getPath();
+        assertTrue(productModel.checkpoint());
+        assertFalse(Files.exists(AtomicFiles.temporaryFor(productFile)));
+    }
+
+    /**
+     * Writes made straight to the CSV file survive a reload under each sync policy. Renames resize their record,
+     * so the file is replaced rather than patched, and no temporary file is left behind; a batch adding a product
+     * along with a resized one is committed by the same replacement.
+     */
+    @Test
+    public void storageSyncPoliciesKeepWrites() {
+        Path productFile = productModel.getStorageEngine().getPath();
+        for (SyncPolicy policy : SyncPolicy.values()) {
+            productModel.setSyncPolicy(policy, Duration.ofMillis(50));
+            Product renamed = renameRandomEntity();
+            Product added = MockService.randomizeProduct();
+            added.setVariants(List.of());
+
+            productModel.upsert(renamed);
+            renamed = renameRandomEntity();
+            assertTrue(productModel.upsertAll(List.of(renamed, added)).isComplete());
+            assertFalse(Files.exists(AtomicFiles.temporaryFor(productFile)));
+
+            productModel.loadEntities();
+            assertEquals(renamed.getProductName(), productModel.retrieve(renamed.getID()).getProductName());
+            assertNotNull(productModel.retrieve(added.getID()));
+            productModel.delete(productModel.retrieve(added.getID()));
+        }
+    }
+
+    /**
+     * An engine selected after the policy was set takes it over, and keeps the model's writes.
+     */
+    @Test
+    public void selectedEngineTakesOverSyncPolicy() throws IOException {
+        productModel.setSyncPolicy(SyncPolicy.ALWAYS);
+        productModel.setStorageBackend(StorageBackend.BINARY);
+        try {
+            Product entity = renameRandomEntity();
+            productModel.upsert(entity);
+            productModel.loadEntities();
+            assertEquals(entity.getProductName(), productModel.retrieve(entity.getID()).getProductName());
+        } finally {
+            Files.deleteIfExists(productModel.getStorageEngine().getPath());
+        }
+    }
+
+    private Product renameRandomEntity() {
+        List<Product> products = productModel.getEntities();
+        Product entity = products.get((int) (products.size() * Math.random()));
+        entity.setName(MockService.randomizeProductName() + " " + "x".repeat((int) (10 * Math.random()) + 1));
+        return entity;
+    }
+}
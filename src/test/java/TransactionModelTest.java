@@ -0,0 +1,522 @@
+import Constants.StorageBackend;
+import Constants.TransactionOutcome;
+import Entities.Check;
+import Entities.CheckLineItem;
+import Entities.Product;
+import Entities.ProductStats;
+import Entities.ProductVariant;
+import Entities.ProductVariantOption;
+import Entities.ProductVariantSelected;
+import Models.ProductModel;
+import Models.ProductVariantModel;
+import Models.ProductVariantOptionModel;
+import Models.Storage.CheckStorageEngine;
+import Models.Storage.SegmentedStorageEngine;
+import Models.TransactionModel;
+import Services.TransactionService;
+import Services.VariantService;
+import TestSuite.MockService;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+/**
+ * Confirms the transaction model loads check history correctly. The transaction file is filled with mock checks
+ * for each test and restored afterwards.
+ */
+public class TransactionModelTest {
+    private static final Path TRANSACTION_FILE = Paths.get("src/main/resources/TransactionList.txt");
+    private static final Path SEGMENT_DIRECTORY = Paths.get("src/main/resources/TransactionList");
+    private static final Path MIGRATED_FILE = Paths.get("src/main/resources/TransactionList.txt" +
+            SegmentedStorageEngine.MIGRATED_EXTENSION);
+    private static final Path PRODUCT_FILE = Paths.get("src/main/resources/ProductList.txt");
+    private final VariantService variantService = new VariantService();
+    private final ProductModel productModel = new ProductModel(variantService);
+    private final ProductVariantModel variantModel = new ProductVariantModel(variantService);
+    private final ProductVariantOptionModel variantOptionModel = new ProductVariantOptionModel(variantService);
+    private final TransactionModel transactionModel = new TransactionModel(variantService);
+    private byte[] originalContent;
+    private byte[] originalProducts;
+
+
+    /**
+     * Initializes the test suite prior to running each test.
+     * Populates the product models and backs up the transaction file.
+     */
+    @Before
+    public void initialize() throws IOException {
+        variantService.init(productModel, variantModel, variantOptionModel);
+        variantModel.loadEntities();
+        variantOptionModel.loadEntities();
+        productModel.loadEntities();
+        originalContent = Files.readAllBytes(TRANSACTION_FILE);
+        originalProducts = Files.readAllBytes(PRODUCT_FILE);
+        deleteSegments();
+    }
+
+
+    /**
+     * Restores the transaction and product files and removes the segments split from the former.
+     */
+    @After
+    public void restoreTransactions() throws IOException {
+        Files.write(TRANSACTION_FILE, originalContent);
+        Files.write(PRODUCT_FILE, originalProducts);
+        deleteSegments();
+    }
+
+
+    /**
+     * Loads a history large enough to be split into several chunks, with a few corrupt lines spread across it.
+     * Every valid check must be loaded with its line items and every corrupt line counted exactly once.
+     */
+    @Test
+    public void loadLargeHistoryInParallel() throws IOException {
+        int checkCount = 20000;
+        List<String> lines = new ArrayList<>(checkCount + 3);
+        for (int i = 0; i < checkCount; i++) {
+            lines.add(mockCheck().serialize());
+            if (i % 7000 == 0)
+                lines.add("corrupt,line");
+        }
+        Files.write(TRANSACTION_FILE, lines, StandardCharsets.UTF_8);
+
+        transactionModel.loadEntities();
+
+        assertEquals(checkCount, transactionModel.getEntities().size());
+        assertEquals(3, transactionModel.getFailedToParseCount());
+        assertTrue(transactionModel.getEntities().stream().allMatch(check -> check.getPurchases().size() == 1));
+    }
+
+
+    /**
+     * Moves the check history onto the binary check format and back to CSV. Every check must survive both
+     * conversions with its money, date and line items intact, and the binary file must be smaller than the CSV.
+     */
+    @Test
+    public void convertHistoryToBinaryAndBack() throws IOException {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 2000; i++)
+            lines.add(mockCheck().serialize());
+        Files.write(TRANSACTION_FILE, lines, StandardCharsets.UTF_8);
+        long csvSize = Files.size(TRANSACTION_FILE);
+        transactionModel.loadEntities();
+
+        transactionModel.setStorageBackend(StorageBackend.BINARY);
+        CheckStorageEngine engine = (CheckStorageEngine) transactionModel.getStorageEngine();
+        try {
+            transactionModel.loadEntities();
+            assertEquals(2000, transactionModel.getEntities().size());
+            assertTrue(Files.size(engine.getPath()) * 2 < csvSize);
+
+            Check check = transactionModel.getEntities().get(0);
+            assertEquals(check.serialize(), engine.get(check.getID()).orElse(""));
+            assertEquals(1, check.getPurchases().size());
+
+            Path exported = TRANSACTION_FILE.resolveSibling("TransactionList.export.txt");
+            engine.exportCsv(exported);
+            assertEquals(2000, engine.importCsv(exported));
+            Files.delete(exported);
+            assertEquals(check.serialize(), engine.get(check.getID()).orElse(""));
+        } finally {
+            Files.deleteIfExists(engine.getPath());
+        }
+    }
+
+    /**
+     * A binary check file cut short by an interrupted append loses only its torn entry, while an unknown entry
+     * fails the read and leaves the file untouched.
+     */
+    @Test
+    public void binaryCheckFileTruncatesOnlyTornTail() throws IOException {
+        Path modelPath = Files.createTempFile("TransactionList", ".txt");
+        CheckStorageEngine engine = new CheckStorageEngine(modelPath, productID -> null);
+        try {
+            engine.put(mockCheck());
+            engine.put(mockCheck());
+            long intactSize = Files.size(engine.getPath());
+
+            Files.write(engine.getPath(), new byte[] { 'C', 5, 'a' }, StandardOpenOption.APPEND);
+            assertEquals(2, new CheckStorageEngine(modelPath, productID -> null).size());
+            assertEquals(intactSize, Files.size(engine.getPath()));
+
+            Files.write(engine.getPath(), new byte[] { 'X', 0, 0, 0 }, StandardOpenOption.APPEND);
+            byte[] damaged = Files.readAllBytes(engine.getPath());
+            CheckStorageEngine reader = new CheckStorageEngine(modelPath, productID -> null);
+            assertThrows(UncheckedIOException.class, reader::size);
+            assertArrayEquals(damaged, Files.readAllBytes(engine.getPath()));
+        } finally {
+            Files.deleteIfExists(engine.getPath());
+            Files.delete(modelPath);
+        }
+    }
+
+    /**
+     * Splits a history spanning several days into one segment per day and retires the file it was split from.
+     * Loading a range must only read the segments of that range plus today's, recent days must follow the model's
+     * clock, and checks of a closed day must refuse to change.
+     */
+    @Test
+    public void segmentHistoryByDay() throws IOException {
+        LocalDate today = LocalDate.now();
+        List<String> lines = new ArrayList<>();
+        for (int daysAgo = 0; daysAgo < 10; daysAgo++)
+            for (int i = 0; i < 5; i++)
+                lines.add(mockCheck(today.minusDays(daysAgo)).serialize());
+        Files.write(TRANSACTION_FILE, lines, StandardCharsets.UTF_8);
+
+        transactionModel.loadEntities();
+        SegmentedStorageEngine<Check> engine = (SegmentedStorageEngine<Check>) transactionModel.getStorageEngine();
+        assertEquals(50, transactionModel.getEntities().size());
+        assertEquals(10, engine.segmentDays().size());
+        assertFalse(Files.exists(TRANSACTION_FILE));
+        assertTrue(Files.exists(MIGRATED_FILE));
+
+        transactionModel.loadRecentDays(7);
+        assertEquals(35, transactionModel.getEntities().size());
+        TransactionModel lastWeek = new TransactionModel(variantService,
+                Clock.offset(Clock.systemDefaultZone(), Duration.ofDays(-7)));
+        lastWeek.loadRecentDays(2);
+        assertEquals(10, lastWeek.getEntities().size());
+        transactionModel.loadEntities(today.minusDays(9), today.minusDays(8));
+        assertEquals(15, transactionModel.getEntities().size());
+
+        Check closed = transactionModel.getEntities().stream()
+                .filter(check -> !engine.dayOf(check.getPurchaseDate().toInstant()).equals(today))
+                .findFirst().orElseThrow();
+        byte[] closedSegment = Files.readAllBytes(segmentOf(closed));
+        transactionModel.delete(closed);
+        assertTrue(transactionModel.entityExists(closed.getID()));
+        assertArrayEquals(closedSegment, Files.readAllBytes(segmentOf(closed)));
+
+        Check opened = mockCheck(today);
+        transactionModel.insert(opened);
+        transactionModel.loadRecentDays(1);
+        assertEquals(6, transactionModel.getEntities().size());
+        assertTrue(transactionModel.entityExists(opened.getID()));
+    }
+
+    /**
+     * With lazy loading, checks are loaded as stubs and only deserialized once read; a stub serializes back to the
+     * record it was loaded from.
+     */
+    @Test
+    public void lazyLoadingMaterializesOnFirstAccess() throws IOException {
+        List<Check> written = new ArrayList<>();
+        for (int i = 0; i < 50; i++)
+            written.add(mockCheck());
+        Files.write(TRANSACTION_FILE, written.stream().map(Check::serialize).toList(), StandardCharsets.UTF_8);
+
+        transactionModel.setLazyLoading(true);
+        transactionModel.loadEntities();
+        assertEquals(50, transactionModel.getEntities().size());
+        assertTrue(transactionModel.getEntities().stream().noneMatch(Check::isLoaded));
+
+        Check original = written.get(7);
+        Check stub = transactionModel.retrieve(original.getID());
+        assertEquals(original.getPurchaseDate(), stub.getPurchaseDate());
+        assertFalse(stub.isLoaded());
+
+        assertEquals(original.getNumberServed(), stub.getNumberServed());
+        assertTrue(stub.isLoaded());
+        assertEquals(1, stub.getPurchases().size());
+        assertEquals(original.serialize(), stub.serialize());
+        assertEquals(49, transactionModel.getEntities().stream().filter(check -> !check.isLoaded()).count());
+    }
+
+    /**
+     * Replays a batch of checks, some sharing products and one without purchases. Each product must gain the sales
+     * of every line item on it, the valid checks must be recorded, and the empty one reported as failed.
+     */
+    @Test
+    public void replayBatchOfChecks() throws IOException {
+        Files.write(TRANSACTION_FILE, List.of(), StandardCharsets.UTF_8);
+        transactionModel.loadEntities();
+        TransactionService transactionService = new TransactionService(productModel, transactionModel);
+
+        List<Check> checks = new ArrayList<>();
+        for (int i = 0; i < 200; i++)
+            checks.add(mockCheck());
+        Check empty = new Check();
+        checks.add(empty);
+
+        Product product = checks.get(0).getPurchases().iterator().next().getProduct();
+        int expectedSales = product.getTotalSales() + checks.stream()
+                .filter(check -> check.getPurchases() != null)
+                .flatMap(check -> check.getPurchases().stream())
+                .filter(lineItem -> lineItem.getProduct() == product)
+                .mapToInt(CheckLineItem::getQuantity)
+                .sum();
+
+        Map<Check, TransactionOutcome> outcomes = transactionService.processTransactions(checks);
+
+        assertEquals(201, outcomes.size());
+        assertEquals(TransactionOutcome.COMPLETED_WITH_ERRORS, outcomes.get(empty));
+        assertEquals(200, outcomes.values().stream()
+                .filter(outcome -> outcome == TransactionOutcome.COMPLETED_SUCCESSFULLY).count());
+        assertEquals(expectedSales, product.getTotalSales());
+        assertEquals(200, transactionModel.getEntities().size());
+        assertNull(transactionModel.retrieve(empty.getID()));
+    }
+
+    /**
+     * Replays a check of today along with one of a closed business day. The closed-day check must be reported as
+     * failed without being recorded, and only the recorded check's sales applied.
+     */
+    @Test
+    public void replaySkipsChecksOfClosedDays() throws IOException {
+        Files.write(TRANSACTION_FILE, List.of(), StandardCharsets.UTF_8);
+        transactionModel.loadEntities();
+        TransactionService transactionService = new TransactionService(productModel, transactionModel);
+
+        Check recorded = mockCheck();
+        Check closed = mockCheck(LocalDate.now().minusDays(2));
+        Product product = closed.getPurchases().iterator().next().getProduct();
+        int expectedSales = product.getTotalSales() + quantityOf(recorded, product);
+
+        Map<Check, TransactionOutcome> outcomes = transactionService.processTransactions(List.of(recorded, closed));
+
+        assertEquals(TransactionOutcome.COMPLETED_SUCCESSFULLY, outcomes.get(recorded));
+        assertEquals(TransactionOutcome.COMPLETED_WITH_ERRORS, outcomes.get(closed));
+        assertEquals(expectedSales, product.getTotalSales());
+        assertNotNull(transactionModel.retrieve(recorded.getID()));
+        assertNull(transactionModel.retrieve(closed.getID()));
+    }
+
+    /**
+     * Replays a check whose write fails, as today's segment cannot be opened. The check must be reported as failed
+     * and its products left untouched.
+     */
+    @Test
+    public void replayLeavesProductsOfUnrecordedChecks() throws IOException {
+        Files.write(TRANSACTION_FILE, List.of(), StandardCharsets.UTF_8);
+        transactionModel.loadEntities();
+        TransactionService transactionService = new TransactionService(productModel, transactionModel);
+
+        Check check = mockCheck();
+        Product product = check.getPurchases().iterator().next().getProduct();
+        int expectedSales = product.getTotalSales();
+        Files.deleteIfExists(segmentOf(check));
+        Files.createDirectories(segmentOf(check));
+
+        Map<Check, TransactionOutcome> outcomes = transactionService.processTransactions(List.of(check));
+
+        assertEquals(TransactionOutcome.COMPLETED_WITH_ERRORS, outcomes.get(check));
+        assertEquals(expectedSales, product.getTotalSales());
+        assertNull(transactionModel.retrieve(check.getID()));
+    }
+
+    /**
+     * Processes a check holding a product the model rejects, as its variant does not exist. The whole check must be
+     * rolled back: completed with errors, every product's sale reverted and the check deleted, so once the rejected
+     * line item is removed it can be processed again.
+     */
+    @Test
+    public void rollBackChecksOfRejectedProducts() throws IOException {
+        Files.write(TRANSACTION_FILE, List.of(), StandardCharsets.UTF_8);
+        transactionModel.loadEntities();
+        TransactionService transactionService = new TransactionService(productModel, transactionModel);
+
+        Check check = mockCheck();
+        CheckLineItem lineItem = check.getPurchases().iterator().next();
+        Product product = lineItem.getProduct();
+        ProductStats.Snapshot before = product.getStats().snapshot();
+        Product rejected = MockService.randomizeProduct();
+        CheckLineItem rejectedItem = new CheckLineItem(rejected, new ProductVariantSelected(rejected), 2);
+        check.addLineItem(rejectedItem);
+        ProductStats.Snapshot rejectedBefore = rejected.getStats().snapshot();
+
+        assertFalse(transactionService.processTransaction(check));
+        assertEquals(TransactionOutcome.COMPLETED_WITH_ERRORS, check.getStage());
+        assertEquals(before, product.getStats().snapshot());
+        assertEquals(rejectedBefore, rejected.getStats().snapshot());
+        assertNull(productModel.retrieve(rejected.getID()));
+        assertNull(transactionModel.retrieve(check.getID()));
+
+        assertTrue(check.removeLineItem(rejectedItem));
+        assertTrue(transactionService.processTransaction(check));
+        assertEquals(before.totalSales() + lineItem.getQuantity(), product.getTotalSales());
+        assertNotNull(transactionModel.retrieve(check.getID()));
+        productModel.loadEntities();
+        assertEquals(product.getTotalSales(), productModel.retrieve(product.getID()).getTotalSales());
+    }
+
+    /**
+     * Replays a batch where one check holds a rejected product. Only that check is rolled back and deleted; the
+     * other is recorded with its sales.
+     */
+    @Test
+    public void replayRollsBackChecksOfRejectedProducts() throws IOException {
+        Files.write(TRANSACTION_FILE, List.of(), StandardCharsets.UTF_8);
+        transactionModel.loadEntities();
+        TransactionService transactionService = new TransactionService(productModel, transactionModel);
+
+        Check recorded = mockCheck();
+        Check failed = mockCheck();
+        Product rejected = MockService.randomizeProduct();
+        failed.addLineItem(new CheckLineItem(rejected, new ProductVariantSelected(rejected), 1));
+        Product product = recorded.getPurchases().iterator().next().getProduct();
+        int expectedSales = product.getTotalSales() + quantityOf(recorded, product);
+
+        Map<Check, TransactionOutcome> outcomes = transactionService.processTransactions(List.of(recorded, failed));
+
+        assertEquals(TransactionOutcome.COMPLETED_SUCCESSFULLY, outcomes.get(recorded));
+        assertEquals(TransactionOutcome.COMPLETED_WITH_ERRORS, outcomes.get(failed));
+        assertEquals(expectedSales, product.getTotalSales());
+        assertNotNull(transactionModel.retrieve(recorded.getID()));
+        assertNull(transactionModel.retrieve(failed.getID()));
+    }
+
+    /**
+     * Edits a large party tab one line item at a time. After every edit, the totals kept by delta must match the
+     * totals recomputed from the line items, and a loaded check must keep the totals it was saved with.
+     */
+    @Test
+    public void checkTotalsFollowLineItemEdits() throws IOException {
+        List<Product> products = productModel.getEntities();
+        Check check = new Check();
+        List<CheckLineItem> lineItems = new ArrayList<>();
+        for (int i = 0; i < 150; i++) {
+            Product product = products.get(i % products.size());
+            CheckLineItem lineItem = new CheckLineItem(product, new ProductVariantSelected(product),
+                    MockService.randomInt(1, 4));
+            check.addLineItem(lineItem);
+            lineItems.add(lineItem);
+        }
+        assertPricedFromLineItems(check);
+
+        check.setLineItemQuantity(lineItems.get(3), 9);
+        check.removeLineItem(lineItems.get(10));
+        check.setLineItemQuantity(lineItems.get(20), 0);
+        assertFalse(check.removeLineItem(lineItems.get(10)));
+        assertEquals(148, check.getPurchases().size());
+        assertPricedFromLineItems(check);
+
+        products.get(3).setPrice(products.get(3).getPrice() + 5);
+        check.setLineItemQuantity(lineItems.get(3), 1);
+        assertPricedFromLineItems(check);
+
+        CheckLineItem sauced = lineItems.get(5);
+        ProductVariant sauce = new ProductVariant("Extra Sauce", 1.25, false, "single", new ArrayList<>());
+        long totalBefore = check.getTotalCents();
+        assertTrue(check.setLineItemVariant(sauced, new ProductVariantSelected(sauced.getProduct(), sauce,
+                new ProductVariantOption(sauce, "Ranch"))));
+        assertEquals(125, sauced.getUnitSurchargeCents());
+        assertEquals(totalBefore + 125L * sauced.getQuantity(), check.getTotalCents());
+        assertPricedFromLineItems(check);
+        assertTrue(check.setLineItemVariant(sauced, new ProductVariantSelected(sauced.getProduct())));
+        assertEquals(totalBefore, check.getTotalCents());
+        assertFalse(check.setLineItemVariant(lineItems.get(10), new ProductVariantSelected(sauced.getProduct())));
+
+        Files.write(TRANSACTION_FILE, List.of(check.serialize()), StandardCharsets.UTF_8);
+        transactionModel.loadEntities();
+        Check loaded = transactionModel.retrieve(check.getID());
+        assertEquals(check.getTotalCents(), loaded.getTotalCents());
+        assertEquals(check.getCOGSCents(), loaded.getCOGSCents());
+        assertEquals(check.priceBreakdown().itemCount(), loaded.priceBreakdown().itemCount());
+    }
+
+    /**
+     * Edits a product's price and cost after it was rung up. Processing the check alone or in a batch must record
+     * the sale at the prices the line item captured, so the product's totals agree with the check's.
+     */
+    @Test
+    public void salesRecordedAtCapturedPrices() throws IOException {
+        Files.write(TRANSACTION_FILE, List.of(), StandardCharsets.UTF_8);
+        transactionModel.loadEntities();
+        TransactionService transactionService = new TransactionService(productModel, transactionModel);
+
+        Check single = mockCheck();
+        Check replayed = mockCheck();
+        for (Check check : List.of(single, replayed)) {
+            CheckLineItem lineItem = check.getPurchases().iterator().next();
+            Product product = lineItem.getProduct();
+            ProductStats.Snapshot before = product.getStats().snapshot();
+            product.setPrice(product.getPrice() + 5);
+            product.setCost(product.getCost() + 1);
+
+            if (check == single)
+                assertTrue(transactionService.processTransaction(check));
+            else
+                assertEquals(TransactionOutcome.COMPLETED_SUCCESSFULLY,
+                        transactionService.processTransactions(List.of(check)).get(check));
+
+            ProductStats.Snapshot after = product.getStats().snapshot();
+            assertEquals(lineItem.getQuantity(), after.totalSales() - before.totalSales());
+            assertEquals(check.getSubtotalCents(), after.revenueCents() - before.revenueCents());
+            assertEquals(check.getCOGSCents(), after.expensesCents() - before.expensesCents());
+        }
+    }
+
+    private static void assertPricedFromLineItems(final Check check) {
+        long subtotal = 0;
+        long total = 0;
+        long cogs = 0;
+        for (CheckLineItem lineItem : check.getPurchases()) {
+            subtotal += lineItem.getUnitPriceCents() * lineItem.getQuantity();
+            total += (lineItem.getUnitPriceCents() + lineItem.getUnitSurchargeCents()) * lineItem.getQuantity();
+            cogs += lineItem.getUnitCostCents() * lineItem.getQuantity();
+        }
+        assertEquals(subtotal, check.getSubtotalCents());
+        assertEquals(total, check.priceBreakdown().totalCents());
+        assertEquals(total - subtotal, check.priceBreakdown().surchargeCents());
+        assertEquals(cogs, check.getCOGSCents());
+    }
+
+    private static int quantityOf(final Check check, final Product product) {
+        return check.getPurchases().stream()
+                .filter(lineItem -> lineItem.getProduct() == product)
+                .mapToInt(CheckLineItem::getQuantity)
+                .sum();
+    }
+
+    private Path segmentOf(final Check check) {
+        return SEGMENT_DIRECTORY.resolve(LocalDate.ofInstant(check.getPurchaseDate().toInstant(),
+                ZoneId.systemDefault()) + ".txt");
+    }
+
+    private static void deleteSegments() throws IOException {
+        Files.deleteIfExists(MIGRATED_FILE);
+        if (!Files.exists(SEGMENT_DIRECTORY))
+            return;
+        try (Stream<Path> files = Files.walk(SEGMENT_DIRECTORY)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList())
+                Files.delete(file);
+        }
+    }
+
+    private Check mockCheck(final LocalDate day) {
+        Check check = mockCheck();
+        check.setPurchaseDate(Date.from(day.atTime(12, 0).atZone(ZoneId.systemDefault()).toInstant()));
+        return check;
+    }
+
+    private Check mockCheck() {
+        List<Product> products = productModel.getEntities();
+        Product product = products.get(MockService.randomInt(0, products.size()));
+        Check check = new Check();
+        check.setCustomersServed(MockService.randomInt(1, 6));
+        check.addLineItem(new CheckLineItem(product, new ProductVariantSelected(product), MockService.randomInt(1, 4)));
+        return check;
+    }
+}